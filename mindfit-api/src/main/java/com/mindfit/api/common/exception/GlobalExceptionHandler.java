@@ -3,6 +3,7 @@ package com.mindfit.api.common.exception;
 import com.mindfit.api.service.LogService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -70,6 +71,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // Inclui ObjectOptimisticLockingFailureException: o registro mudou desde a leitura de quem está gravando
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+        logService.logError("CONFLICT", ex.getClass().getSimpleName(), ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.of(
+                "The resource was modified by another request. Reload it and try again.",
+                "CONFLICT",
+                HttpStatus.CONFLICT.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(
             BadCredentialsException ex, HttpServletRequest request) {
@@ -216,6 +233,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    @ExceptionHandler(LlmUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleLlmUnavailableException(
+            LlmUnavailableException ex, HttpServletRequest request) {
+        logService.logError("LLM_UNAVAILABLE", ex.getClass().getSimpleName(), ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.of(
+                "The AI assistant is temporarily unavailable. Please try again shortly.",
+                "LLM_UNAVAILABLE",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(JsonParsingException.class)
     public ResponseEntity<ErrorResponse> handleJsonParsingException(
             JsonParsingException ex, HttpServletRequest request) {
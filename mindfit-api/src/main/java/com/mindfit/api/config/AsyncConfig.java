@@ -0,0 +1,98 @@
+package com.mindfit.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Small pool for compacting chatbot histories into rolling summaries.
+     * Compaction is best-effort: excess work is rejected (AbortPolicy) instead of queued forever,
+     * so the caller can release the conversation and retry on a later turn.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor chatSummaryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("chat-summary-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes automated log rows off the request thread, sized to the background pool. Logging is
+     * best-effort, so a burst beyond the queue is dropped instead of waiting on a connection.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor logWriterExecutor(@Value("${app.log-writer.threads:2}") int threads,
+                                                    @Value("${app.log-writer.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("log-writer-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dedicated lane for LLM calls, so a slow provider can hold at most max-in-flight threads
+     * instead of every Tomcat request thread. A full queue rejects immediately (AbortPolicy).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor llmExecutor(@Value("${app.llm.max-in-flight:8}") int maxInFlight,
+                                              @Value("${app.llm.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("llm-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background regeneration of stale recommendations. Refreshes are best-effort:
+     * when the queue is full the stale entry keeps being served and the next hit retries.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor recommendationRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("recommendation-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for admin batch recommendation jobs, shared by all running jobs. Kept below
+     * app.llm.max-in-flight so batches never take the whole LLM lane from interactive requests.
+     * The queue is bounded; a job that does not fit is refused up front and a full queue rejects
+     * immediately (AbortPolicy).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor recommendationBatchExecutor(@Value("${app.recommendation-batch.parallelism:4}") int parallelism,
+                                                              @Value("${app.recommendation-batch.queue-capacity:2000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("recommendation-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -19,11 +19,18 @@ public class CachingFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
         
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(httpRequest);
+        // Importações em massa são lidas em streaming; copiar o corpo para memória anularia isso
+        HttpServletRequest wrappedRequest = isBulkImport(httpRequest)
+                ? httpRequest
+                : new ContentCachingRequestWrapper(httpRequest);
         ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(httpResponse);
         
         chain.doFilter(wrappedRequest, wrappedResponse);
         
         wrappedResponse.copyBodyToResponse();
     }
-}
\ No newline at end of file
+
+    private boolean isBulkImport(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && request.getRequestURI().endsWith("/import");
+    }
+}
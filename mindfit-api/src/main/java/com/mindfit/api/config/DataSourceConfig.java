@@ -0,0 +1,124 @@
+package com.mindfit.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Pools de conexão separados por tipo de carga, todos para o mesmo banco de spring.datasource.
+ * O pool padrão (spring.datasource.hikari, "oltp") continua atendendo JPA e as requisições
+ * interativas; relatórios e gravações em segundo plano têm pools próprios e menores, de modo
+ * que uma rajada de procedures lentas ou de logs espera na própria fila sem tomar as conexões
+ * do login. Os pools extras não são candidatos padrão: só são injetados com {@code @Qualifier}.
+ * Cada pool publica as métricas hikaricp.connections.* (pending, usage, acquire, timeout)
+ * com a tag pool=&lt;pool-name&gt;.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Stored procedures e consultas analíticas (ReportService).
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("app.datasource.reporting.hikari")
+    public HikariDataSource reportingDataSource(DataSourceProperties dataSourceProperties,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return instrumented(dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build(),
+                meterRegistry);
+    }
+
+    /**
+     * Gravações de melhor esforço fora do fluxo da requisição (LogService).
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("app.datasource.background.hikari")
+    public HikariDataSource backgroundDataSource(DataSourceProperties dataSourceProperties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return instrumented(dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build(),
+                meterRegistry);
+    }
+
+    /**
+     * Com réplica habilitada, os relatórios leem da réplica e voltam ao pool de relatórios quando ela
+     * está atrasada ou fora do ar.
+     */
+    @Bean(defaultCandidate = false)
+    public JdbcTemplate reportingJdbcTemplate(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                              @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                              ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                              PrimaryReadPins primaryReadPins) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        return new JdbcTemplate(replica != null && monitor != null
+                ? new ReplicaFallbackDataSource(replica, reportingDataSource, monitor, primaryReadPins)
+                : reportingDataSource);
+    }
+
+    @Bean(defaultCandidate = false)
+    public JdbcTemplate backgroundJdbcTemplate(@Qualifier("backgroundDataSource") DataSource backgroundDataSource) {
+        return new JdbcTemplate(backgroundDataSource);
+    }
+
+    /**
+     * Réplica de leitura (app.datasource.replica.enabled). O DataSource principal passa a ser um
+     * {@link LazyConnectionDataSourceProxy}: a conexão física só é obtida no primeiro comando, quando
+     * já se sabe se a transação é {@code readOnly}. Transações {@code @Transactional(readOnly = true)}
+     * vão para a réplica (ou para o primário, se o monitor a considerar atrasada ou se o usuário da
+     * requisição gravou há pouco, ver {@link PrimaryReadPins}); todo o resto, inclusive leituras sem
+     * transação somente leitura, continua no primário.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+    static class ReplicaConfiguration {
+
+        @Bean(defaultCandidate = false)
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean(defaultCandidate = false)
+        @ConfigurationProperties("app.datasource.replica.hikari")
+        public HikariDataSource replicaDataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+            return instrumented(new HikariDataSource(), meterRegistry);
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                   @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                                   @Value("${app.datasource.replica.max-lag-seconds:5}") double maxLagSeconds,
+                                                   MeterRegistry meterRegistry) {
+            return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLagSeconds, meterRegistry);
+        }
+
+        @Bean
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                     ReplicaLagMonitor replicaLagMonitor,
+                                     PrimaryReadPins primaryReadPins) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(
+                    replicaDataSource, primaryDataSource, replicaLagMonitor, primaryReadPins));
+            return dataSource;
+        }
+    }
+
+    // O binder de métricas do Spring Boot só instrumenta os DataSources candidatos padrão
+    private static HikariDataSource instrumented(HikariDataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mindfit.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindfit.api.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes com réplica: o usuário autenticado que grava fica preso ao primário por
+ * app.datasource.replica.read-your-writes-seconds. Nesse intervalo as transações somente leitura e os
+ * relatórios das suas requisições não vão para a réplica ({@link ReplicaFallbackDataSource}), que pode
+ * ainda não ter aplicado a gravação. Os demais usuários continuam lendo da réplica.
+ * O registro é local à instância: uma requisição atendida por outra instância logo após a gravação
+ * pode ler da réplica, com atraso limitado por max-lag-seconds.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrimaryReadPins {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.datasource.replica.read-your-writes-seconds:30}")
+    private long windowSeconds;
+
+    @Value("${app.datasource.replica.read-your-writes-max-users:10000}")
+    private long maxUsers;
+
+    private Cache<String, Boolean> pinned;
+
+    @PostConstruct
+    void init() {
+        pinned = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+        Gauge.builder("mindfit.datasource.replica.pinned.users", pinned, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Chamado depois de uma gravação; sem usuário autenticado (tarefas agendadas) não faz nada.
+     */
+    public void pinCurrentUser() {
+        String userId = currentUserId();
+        if (userId != null) {
+            pinned.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isCurrentUserPinned() {
+        String userId = currentUserId();
+        return userId != null && pinned.getIfPresent(userId) != null;
+    }
+
+    private static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
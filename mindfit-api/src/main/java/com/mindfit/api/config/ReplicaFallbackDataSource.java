@@ -0,0 +1,35 @@
+package com.mindfit.api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Entrega conexões da réplica enquanto o {@link ReplicaLagMonitor} a considera utilizável e do
+ * DataSource de fallback (no primário) caso contrário, ou quando o usuário da requisição gravou há
+ * pouco ({@link PrimaryReadPins}). A escolha é feita a cada conexão obtida.
+ */
+public class ReplicaFallbackDataSource extends AbstractRoutingDataSource {
+
+    private static final String REPLICA = "replica";
+    private static final String FALLBACK = "fallback";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final PrimaryReadPins primaryReadPins;
+
+    public ReplicaFallbackDataSource(DataSource replicaDataSource, DataSource fallbackDataSource,
+                                     ReplicaLagMonitor replicaLagMonitor, PrimaryReadPins primaryReadPins) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.primaryReadPins = primaryReadPins;
+        setTargetDataSources(Map.of(REPLICA, replicaDataSource, FALLBACK, fallbackDataSource));
+        setDefaultTargetDataSource(fallbackDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaLagMonitor.isUsable() && !primaryReadPins.isCurrentUserPinned() ? REPLICA : FALLBACK;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mindfit.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Verifica periodicamente se a réplica responde e quanto está atrasada em relação ao primário.
+ * Enquanto estiver inacessível ou com atraso acima de max-lag-seconds, as leituras voltam ao
+ * primário ({@link ReplicaFallbackDataSource}). Sem consulta de atraso configurada só a
+ * conectividade é verificada.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replicaDataSource;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, double maxLagSeconds,
+                             MeterRegistry meterRegistry) {
+        this.replicaDataSource = replicaDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        Gauge.builder("mindfit.datasource.replica.lag.seconds", this, monitor -> monitor.lagSeconds)
+                .register(meterRegistry);
+        Gauge.builder("mindfit.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean nowUsable;
+        try (Connection connection = replicaDataSource.getConnection()) {
+            lagSeconds = measureLag(connection);
+            nowUsable = lagSeconds <= maxLagSeconds;
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            nowUsable = false;
+            if (usable) {
+                log.warn("Replica unreachable, routing reads to primary: {}", e.getMessage());
+            }
+        }
+        // Registra só as transições para não repetir a mesma mensagem a cada verificação
+        if (nowUsable != usable) {
+            log.info("Replica {} (lag {}s, max {}s)", nowUsable ? "in use" : "bypassed", lagSeconds, maxLagSeconds);
+        }
+        usable = nowUsable;
+    }
+
+    private double measureLag(Connection connection) throws SQLException {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return connection.isValid(2) ? 0 : Double.POSITIVE_INFINITY;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            return rs.next() ? rs.getDouble(1) : Double.POSITIVE_INFINITY;
+        }
+    }
+}
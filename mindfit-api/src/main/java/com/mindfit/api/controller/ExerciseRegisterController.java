@@ -1,13 +1,18 @@
 package com.mindfit.api.controller;
 
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.ExerciseRegisterCreateRequest;
 import com.mindfit.api.dto.ExerciseRegisterResponse;
 import com.mindfit.api.dto.ExerciseRegisterUpdateRequest;
+import com.mindfit.api.dto.RegisterImportReport;
+import com.mindfit.api.enums.ImportFormat;
 import com.mindfit.api.service.ExerciseRegisterService;
+import com.mindfit.api.service.RegisterImportService;
 import com.mindfit.api.mapper.ExerciseRegisterMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +20,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/users/{userId}/exercises")
 @RequiredArgsConstructor
@@ -24,6 +31,7 @@ public class ExerciseRegisterController {
 
     private final ExerciseRegisterService exerciseRegisterService;
     private final ExerciseRegisterMapper exerciseRegisterMapper;
+    private final RegisterImportService registerImportService;
 
     @GetMapping
     @Operation(summary = "Get all exercise registers for user with optional date range filtering")
@@ -33,8 +41,17 @@ public class ExerciseRegisterController {
             @RequestParam(required = false) String endDate,
             Pageable pageable) {
         
-        return exerciseRegisterService.findByUserId(userId, startDate, endDate, pageable)
-                .map(exerciseRegisterMapper::toResponse);
+        return exerciseRegisterService.findByUserId(userId, startDate, endDate, pageable);
+    }
+
+    @GetMapping("/feed")
+    @Operation(summary = "Get exercise registers newest first using a cursor instead of page numbers")
+    public CursorPage<ExerciseRegisterResponse> getExerciseRegistersFeed(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return exerciseRegisterService.findFeed(userId, cursor, limit);
     }
 
     @GetMapping("/{id}")
@@ -56,6 +73,16 @@ public class ExerciseRegisterController {
         return exerciseRegisterMapper.toResponse(exerciseRegisterService.create(userId, request));
     }
 
+    @PostMapping(value = "/import", consumes = {ImportFormat.CSV_MEDIA_TYPE, ImportFormat.NDJSON_MEDIA_TYPE})
+    @Operation(summary = "Import exercise registers in bulk from CSV (with header row) or NDJSON, reporting rejected rows")
+    public RegisterImportReport importExerciseRegisters(
+            @PathVariable String userId,
+            HttpServletRequest request) throws IOException {
+
+        return registerImportService.importExercises(userId, ImportFormat.fromContentType(request.getContentType()),
+                request.getInputStream());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update exercise register")
     public ExerciseRegisterResponse updateExerciseRegister(
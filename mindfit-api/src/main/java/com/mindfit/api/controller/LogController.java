@@ -28,8 +28,7 @@ public class LogController {
             @RequestParam(required = false) String category,
             Pageable pageable) {
 
-        return logService.findAll(startDate, endDate, type, category, pageable)
-                .map(logMapper::toResponse);
+        return logService.findAll(startDate, endDate, type, category, pageable);
     }
 
     @GetMapping("/{id}")
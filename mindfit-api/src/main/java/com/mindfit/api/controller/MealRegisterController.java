@@ -1,13 +1,18 @@
 package com.mindfit.api.controller;
 
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.MealRegisterCreateRequest;
 import com.mindfit.api.dto.MealRegisterResponse;
 import com.mindfit.api.dto.MealRegisterUpdateRequest;
+import com.mindfit.api.dto.RegisterImportReport;
+import com.mindfit.api.enums.ImportFormat;
 import com.mindfit.api.service.MealRegisterService;
+import com.mindfit.api.service.RegisterImportService;
 import com.mindfit.api.mapper.MealRegisterMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +20,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/users/{userId}/meals")
 @RequiredArgsConstructor
@@ -24,6 +31,7 @@ public class MealRegisterController {
 
     private final MealRegisterService mealRegisterService;
     private final MealRegisterMapper mealRegisterMapper;
+    private final RegisterImportService registerImportService;
 
     @GetMapping
     @Operation(summary = "Get all meal registers for user with optional date range filtering")
@@ -33,8 +41,17 @@ public class MealRegisterController {
             @RequestParam(required = false) String endDate,
             Pageable pageable) {
         
-        return mealRegisterService.findByUserId(userId, startDate, endDate, pageable)
-                .map(mealRegisterMapper::toResponse);
+        return mealRegisterService.findByUserId(userId, startDate, endDate, pageable);
+    }
+
+    @GetMapping("/feed")
+    @Operation(summary = "Get meal registers newest first using a cursor instead of page numbers")
+    public CursorPage<MealRegisterResponse> getMealRegistersFeed(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return mealRegisterService.findFeed(userId, cursor, limit);
     }
 
     @GetMapping("/{id}")
@@ -55,6 +72,16 @@ public class MealRegisterController {
         return mealRegisterMapper.toResponse(mealRegisterService.create(userId, request));
     }
 
+    @PostMapping(value = "/import", consumes = {ImportFormat.CSV_MEDIA_TYPE, ImportFormat.NDJSON_MEDIA_TYPE})
+    @Operation(summary = "Import meal registers in bulk from CSV (with header row) or NDJSON, reporting rejected rows")
+    public RegisterImportReport importMealRegisters(
+            @PathVariable String userId,
+            HttpServletRequest request) throws IOException {
+
+        return registerImportService.importMeals(userId, ImportFormat.fromContentType(request.getContentType()),
+                request.getInputStream());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update meal register")
     public MealRegisterResponse updateMealRegister(
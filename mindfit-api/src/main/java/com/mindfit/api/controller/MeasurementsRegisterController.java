@@ -1,5 +1,6 @@
 package com.mindfit.api.controller;
 
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.MeasurementsRegisterCreateRequest;
 import com.mindfit.api.dto.MeasurementsRegisterResponse;
 import com.mindfit.api.dto.MeasurementsRegisterUpdateRequest;
@@ -33,8 +34,17 @@ public class MeasurementsRegisterController {
             @RequestParam(required = false) String endDate,
             Pageable pageable) {
         
-        return measurementsRegisterService.findByUserId(userId, startDate, endDate, pageable)
-                .map(measurementsRegisterMapper::toResponse);
+        return measurementsRegisterService.findByUserId(userId, startDate, endDate, pageable);
+    }
+
+    @GetMapping("/feed")
+    @Operation(summary = "Get measurements registers newest first using a cursor instead of page numbers")
+    public CursorPage<MeasurementsRegisterResponse> getMeasurementsRegistersFeed(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return measurementsRegisterService.findFeed(userId, cursor, limit);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,56 @@
+package com.mindfit.api.controller;
+
+import com.mindfit.api.dto.RecommendationBatchRequest;
+import com.mindfit.api.dto.RecommendationBatchStatus;
+import com.mindfit.api.enums.RecommendationBatchState;
+import com.mindfit.api.service.RecommendationBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/admin/recommendation-batches")
+@RequiredArgsConstructor
+@Tag(name = "Recommendation Batches", description = "Admin batch generation of recommendations. "
+        + "Jobs are held in memory by the instance that started them; status, events and cancel "
+        + "must reach that same instance")
+@SecurityRequirement(name = "bearerAuth")
+public class RecommendationBatchController {
+
+    private final RecommendationBatchService recommendationBatchService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Start generating recommendations for a list of users or for all recently active users")
+    public RecommendationBatchStatus startBatch(@Valid @RequestBody RecommendationBatchRequest request) {
+        return recommendationBatchService.start(request);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get the progress of a recommendation batch")
+    public RecommendationBatchStatus getBatch(@PathVariable String id) {
+        return recommendationBatchService.getStatus(id);
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the progress of a recommendation batch as server-sent events")
+    public Flux<ServerSentEvent<RecommendationBatchStatus>> streamBatch(@PathVariable String id) {
+        return recommendationBatchService.streamProgress(id)
+                .map(status -> ServerSentEvent.builder(status)
+                        .event(status.state() == RecommendationBatchState.RUNNING ? "progress" : "complete")
+                        .build());
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel a recommendation batch; items already generated are kept")
+    public RecommendationBatchStatus cancelBatch(@PathVariable String id) {
+        return recommendationBatchService.cancel(id);
+    }
+}
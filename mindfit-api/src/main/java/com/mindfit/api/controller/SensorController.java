@@ -31,8 +31,7 @@ public class SensorController {
             @PathVariable String userId,
             Pageable pageable) {
 
-        return sensorService.findByUserId(userId, pageable)
-                .map(sensorMapper::toResponse);
+        return sensorService.findByUserId(userId, pageable);
     }
 
     @GetMapping("/{id}")
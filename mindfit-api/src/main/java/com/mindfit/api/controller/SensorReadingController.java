@@ -32,8 +32,7 @@ public class SensorReadingController {
             @RequestParam(required = false) String endDate,
             Pageable pageable) {
 
-        return sensorReadingService.findBySensorId(sensorId, startDate, endDate, pageable)
-                .map(sensorReadingMapper::toResponse);
+        return sensorReadingService.findBySensorId(sensorId, startDate, endDate, pageable);
     }
 
     @GetMapping("/{id}")
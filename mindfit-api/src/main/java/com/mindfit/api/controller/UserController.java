@@ -3,6 +3,7 @@ package com.mindfit.api.controller;
 import com.mindfit.api.common.exception.RateLimitExceededException;
 import com.mindfit.api.common.exception.UnauthorizedException;
 import com.mindfit.api.dto.*;
+import com.mindfit.api.enums.ReportGranularity;
 import com.mindfit.api.service.ChatbotService;
 import com.mindfit.api.service.RateLimitService;
 import com.mindfit.api.service.RecommendationService;
@@ -18,7 +19,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/users")
@@ -37,8 +41,7 @@ public class UserController {
     @GetMapping
     @Operation(summary = "Get all users")
     public Page<UserResponse> getAllUsers(Pageable pageable) {
-        return userService.findAll(pageable)
-                .map(userMapper::toResponse);
+        return userService.findAll(pageable);
     }
 
     @GetMapping("/{id}")
@@ -56,6 +59,19 @@ public class UserController {
         return reportService.generateConsumptionReport(id);
     }
 
+    @GetMapping("/{id}/consumption-report/trend")
+    @Operation(summary = "Get daily, weekly or monthly consumption buckets for a date range")
+    public ConsumptionTrendReportResponse getConsumptionTrendReport(
+            @PathVariable String id,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(required = false) String granularity) {
+        if (!SecurityUtil.isAdmin() && !id.equals(SecurityUtil.getCurrentUserId())) {
+            throw new UnauthorizedException("Users can only view their own consumption report");
+        }
+        return reportService.generateTrendReport(id, startDate, endDate, ReportGranularity.fromParam(granularity));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update user")
     public UserResponse updateUser(
@@ -102,6 +118,24 @@ public class UserController {
         return recommendationService.getCachedWorkoutRecommendations(id);
     }
 
+    @GetMapping("/{id}/home-recommendations")
+    @Operation(summary = "Get cached meal and workout recommendations, generating missing ones in a single model call")
+    public HomeRecommendationResponse getHomeRecommendations(@PathVariable String id) {
+        return recommendationService.getCachedHomeRecommendations(id);
+    }
+
+    @GetMapping(value = "/{id}/meal-recommendations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream meal recommendations as server-sent events, each one sent as soon as it is generated")
+    public Flux<ServerSentEvent<Object>> streamMealRecommendations(@PathVariable String id) {
+        return recommendationService.streamMealRecommendations(id).map(this::toServerSentEvent);
+    }
+
+    @GetMapping(value = "/{id}/workout-recommendations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream workout recommendations as server-sent events, each one sent as soon as it is generated")
+    public Flux<ServerSentEvent<Object>> streamWorkoutRecommendations(@PathVariable String id) {
+        return recommendationService.streamWorkoutRecommendations(id).map(this::toServerSentEvent);
+    }
+
     @PostMapping("/{id}/meal-recommendations/generate")
     @Operation(summary = "Generate new meal recommendations different from current ones")
     public MealRecommendationResponse generateNewMealRecommendations(
@@ -137,4 +171,10 @@ public class UserController {
 
         return recommendationService.generateNewWorkoutRecommendations(id, request);
     }
+
+    private ServerSentEvent<Object> toServerSentEvent(RecommendationStreamEvent event) {
+        return ServerSentEvent.builder(event.data())
+                .event(event.event())
+                .build();
+    }
 }
@@ -0,0 +1,41 @@
+package com.mindfit.api.dto;
+
+import com.mindfit.api.enums.ReportGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record ConsumptionTrendReportResponse(
+        String userId,
+        LocalDate startDate,
+        LocalDate endDate,
+        ReportGranularity granularity,
+        BigDecimal totalCaloriesConsumed,
+        BigDecimal totalCaloriesBurned,
+        BigDecimal netCalories,
+        int activeDays,
+        List<Bucket> buckets
+) {
+
+    /**
+     * Um período (dia, semana ISO ou mês) com registros; períodos sem registros não aparecem.
+     * {@code periodStart} da primeira semana ou mês pode ser anterior a {@code startDate}, mas os
+     * totais só incluem dias dentro do intervalo pedido.
+     */
+    public record Bucket(
+            LocalDate periodStart,
+            BigDecimal caloriesConsumed,
+            BigDecimal caloriesBurned,
+            BigDecimal netCalories,
+            BigDecimal carbo,
+            BigDecimal protein,
+            BigDecimal fat,
+            BigDecimal exerciseMinutes,
+            int activeDays,
+            BigDecimal cumulativeNetCalories,
+            BigDecimal netCaloriesChange,
+            BigDecimal movingAverageNetCalories
+    ) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.mindfit.api.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por cursor: sem total, apenas o token para buscar a próxima página
+ * ({@code null} quando não há mais itens).
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {
+    /**
+     * Monta a página a partir de até {@code limit + 1} linhas; a linha extra só indica que há uma próxima página.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int limit, Function<E, String> cursorOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mindfit.api.dto;
+
+/**
+ * Recomendações da tela inicial: refeição e treino, geradas juntas num único prompt quando
+ * nenhuma das duas está em cache.
+ */
+public record HomeRecommendationResponse(
+        MealRecommendationResponse meal,
+        WorkoutRecommendationResponse workout
+) {}
@@ -14,7 +14,18 @@ public record MealRecommendationRequest(
         List<CurrentMealRecommendation> currentRecommendations
 ) {
     public enum MealType {
-        BREAKFAST, LUNCH, DINNER, SNACK, AUTO
+        BREAKFAST, LUNCH, DINNER, SNACK, AUTO;
+
+        /**
+         * Refeição do horário, a mesma que AUTO escolhe ao montar o prompt.
+         */
+        public static MealType at(LocalDateTime time) {
+            int hour = time.getHour();
+            if (hour < 10) return BREAKFAST;
+            if (hour < 15) return LUNCH;
+            if (hour < 19) return DINNER;
+            return SNACK;
+        }
     }
 
     public record CurrentMealRecommendation(
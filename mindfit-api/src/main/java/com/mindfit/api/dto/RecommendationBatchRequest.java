@@ -0,0 +1,27 @@
+package com.mindfit.api.dto;
+
+import com.mindfit.api.enums.RecommendationKind;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lote de geração de recomendações: uma lista explícita de usuários ou, sem ela,
+ * os usuários que acessaram o app nos últimos {@code activeWithinDays} dias.
+ */
+public record RecommendationBatchRequest(
+        @Size(max = 1000, message = "At most 1000 users per batch")
+        List<String> userIds,
+
+        @Positive(message = "Active window must be positive")
+        Integer activeWithinDays,
+
+        // Pula usuários cuja recomendação ainda vale para a versão atual dos registros
+        Boolean onlyStale,
+
+        @NotEmpty(message = "At least one recommendation kind is required")
+        Set<RecommendationKind> kinds
+) {}
@@ -0,0 +1,25 @@
+package com.mindfit.api.dto;
+
+import com.mindfit.api.enums.RecommendationBatchState;
+import com.mindfit.api.enums.RecommendationKind;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record RecommendationBatchStatus(
+        String id,
+        RecommendationBatchState state,
+        int total,
+        int succeeded,
+        int failed,
+        int skipped,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        List<Failure> failures
+) {
+    public record Failure(
+            String userId,
+            RecommendationKind kind,
+            String message
+    ) {}
+}
@@ -0,0 +1,23 @@
+package com.mindfit.api.dto;
+
+/**
+ * Evento dos endpoints de recomendação em streaming (SSE).
+ * "recommendation" traz um item assim que ele fica completo, "complete" traz a resposta final
+ * e "error" encerra o stream quando a geração falha.
+ */
+public record RecommendationStreamEvent(
+        String event,
+        Object data
+) {
+    public static RecommendationStreamEvent recommendation(Object item) {
+        return new RecommendationStreamEvent("recommendation", item);
+    }
+
+    public static RecommendationStreamEvent complete(Object response) {
+        return new RecommendationStreamEvent("complete", response);
+    }
+
+    public static RecommendationStreamEvent error(String message) {
+        return new RecommendationStreamEvent("error", message);
+    }
+}
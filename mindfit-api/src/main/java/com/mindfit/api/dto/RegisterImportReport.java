@@ -0,0 +1,16 @@
+package com.mindfit.api.dto;
+
+import java.util.List;
+
+public record RegisterImportReport(
+        int received,
+        int imported,
+        int rejected,
+        boolean truncated,
+        List<RowError> errors
+) {
+    public record RowError(
+            long line,
+            String message
+    ) {}
+}
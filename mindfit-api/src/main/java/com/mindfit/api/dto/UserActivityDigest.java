@@ -0,0 +1,39 @@
+package com.mindfit.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record UserActivityDigest(
+        List<MealRegisterDto> recentMeals,
+        List<ExerciseRegisterDto> recentExercises,
+        List<MeasurementsRegisterDto> recentMeasurements,
+        List<DailyTotals> dailyTotals,
+        List<Integer> mealHourHistogram, // 24 posições, contagem de refeições por hora do dia
+        List<Integer> workoutHourHistogram // 24 posições, contagem de treinos por hora do dia
+) {
+    public record DailyTotals(
+            LocalDate date,
+            int caloriesConsumed,
+            double carbo,
+            double protein,
+            double fat,
+            int caloriesBurnt,
+            int exerciseMinutes
+    ) {}
+
+    /**
+     * Formata o histograma como "07h: 3, 12h: 5", omitindo as horas sem registros.
+     */
+    public static String formatHourHistogram(List<Integer> histogram) {
+        StringBuilder formatted = new StringBuilder();
+        for (int hour = 0; hour < histogram.size(); hour++) {
+            if (histogram.get(hour) > 0) {
+                if (!formatted.isEmpty()) {
+                    formatted.append(", ");
+                }
+                formatted.append(String.format("%02dh: %d", hour, histogram.get(hour)));
+            }
+        }
+        return formatted.toString();
+    }
+}
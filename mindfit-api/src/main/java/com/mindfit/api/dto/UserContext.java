@@ -0,0 +1,22 @@
+package com.mindfit.api.dto;
+
+import com.mindfit.api.enums.Sex;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dados do usuário e registros recentes carregados em uma única ida ao banco
+ * para montar o contexto das funcionalidades de IA.
+ */
+public record UserContext(
+        String id,
+        String name,
+        String email,
+        Sex sex,
+        LocalDate birthDate,
+        String profile,
+        List<MealRegisterDto> meals,
+        List<ExerciseRegisterDto> exercises,
+        List<MeasurementsRegisterDto> measurements
+) {}
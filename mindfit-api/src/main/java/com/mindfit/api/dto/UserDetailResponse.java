@@ -16,5 +16,6 @@ public record UserDetailResponse(
         Sex sex,
         LocalDate birthDate,
         LocalDateTime lastLogonDate,
-        LocalDateTime createdAt
+        LocalDateTime createdAt,
+        Long version
 ) {}
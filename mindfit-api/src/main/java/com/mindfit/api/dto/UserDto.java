@@ -19,5 +19,6 @@ public record UserDto(
         LocalDate birthDate,
         LocalDateTime lastLogonDate,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {}
@@ -26,5 +26,9 @@ public record UserUpdateRequest(
 
         @ValidAge(message = "Age must be between 13 and 120 years")
         @Schema(description = "Birth date (optional)", example = "1990-01-15")
-        LocalDate birthDate
+        LocalDate birthDate,
+
+        @Schema(description = "Version returned by the last read of the user (optional); "
+                + "the update fails with 409 if the user changed since", example = "3")
+        Long version
 ) {}
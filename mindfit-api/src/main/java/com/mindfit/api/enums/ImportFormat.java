@@ -0,0 +1,24 @@
+package com.mindfit.api.enums;
+
+import com.mindfit.api.common.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+                return CSV;
+            }
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))) {
+                return NDJSON;
+            }
+        }
+        throw new BadRequestException("Import body must be " + CSV_MEDIA_TYPE + " or " + NDJSON_MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,5 @@
+package com.mindfit.api.enums;
+
+public enum LlmCallType {
+    CHAT, INTENT, RECOMMENDATION, PROFILE, SUMMARY
+}
@@ -0,0 +1,5 @@
+package com.mindfit.api.enums;
+
+public enum RecommendationBatchState {
+    RUNNING, COMPLETED, CANCELLED
+}
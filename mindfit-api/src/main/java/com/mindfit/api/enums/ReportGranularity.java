@@ -0,0 +1,31 @@
+package com.mindfit.api.enums;
+
+import com.mindfit.api.common.exception.BadRequestException;
+
+import java.util.Locale;
+
+public enum ReportGranularity {
+    DAILY("DD"), WEEKLY("IW"), MONTHLY("MM");
+
+    // Formato do TRUNC do Oracle: semanas ISO começam na segunda-feira
+    private final String truncFormat;
+
+    ReportGranularity(String truncFormat) {
+        this.truncFormat = truncFormat;
+    }
+
+    public String truncFormat() {
+        return truncFormat;
+    }
+
+    public static ReportGranularity fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return DAILY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid granularity: " + value + ". Valid: DAILY, WEEKLY, MONTHLY");
+        }
+    }
+}
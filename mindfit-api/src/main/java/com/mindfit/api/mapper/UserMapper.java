@@ -20,12 +20,12 @@ public abstract class UserMapper {
     @Mapping(target = "profile", ignore = true)
     @Mapping(target = "lastLogonDate", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract UserDto toDto(UserSignupRequest request);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "password", source = "password", qualifiedByName = "encodePassword")
     @Mapping(target = "roles", ignore = true)
-    @Mapping(target = "profile", ignore = true)
     @Mapping(target = "lastLogonDate", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "enabled", ignore = true)
@@ -33,16 +33,12 @@ public abstract class UserMapper {
     @Mapping(target = "accountNonLocked", ignore = true)
     @Mapping(target = "credentialsNonExpired", ignore = true)
     @Mapping(target = "authorities", ignore = true)
-    @Mapping(target = "mealRecommendationsCache", ignore = true)
-    @Mapping(target = "mealCacheExpiry", ignore = true)
-    @Mapping(target = "workoutRecommendationsCache", ignore = true)
-    @Mapping(target = "workoutCacheExpiry", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract User toEntity(UserSignupRequest request);
 
     @Mapping(target = "password", source = "password", qualifiedByName = "encodePassword")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "roles", ignore = true)
-    @Mapping(target = "profile", ignore = true)
     @Mapping(target = "lastLogonDate", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "enabled", ignore = true)
@@ -50,31 +46,32 @@ public abstract class UserMapper {
     @Mapping(target = "accountNonLocked", ignore = true)
     @Mapping(target = "credentialsNonExpired", ignore = true)
     @Mapping(target = "authorities", ignore = true)
-    @Mapping(target = "mealRecommendationsCache", ignore = true)
-    @Mapping(target = "mealCacheExpiry", ignore = true)
-    @Mapping(target = "workoutRecommendationsCache", ignore = true)
-    @Mapping(target = "workoutCacheExpiry", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract void updateEntity(UserUpdateRequest request, @MappingTarget User user);
 
     public abstract UserResponse toResponse(User user);
 
     public abstract UserResponse toResponse(UserDto dto);
 
+    @Mapping(target = "profile", ignore = true)
     public abstract UserDetailResponse toDetailResponse(User user);
 
     public abstract UserDetailResponse toDetailResponse(UserDto dto);
 
     @Mapping(target = "password", source = "password")
+    @Mapping(target = "profile", ignore = true)
     public abstract UserDto toDto(User user);
 
+    // O perfil fica em user_ai_state e só é carregado para a visão detalhada
+    @Mapping(target = "password", source = "user.password")
+    @Mapping(target = "profile", source = "profile")
+    public abstract UserDto toDto(User user, String profile);
+
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "accountNonExpired", ignore = true)
     @Mapping(target = "accountNonLocked", ignore = true)
     @Mapping(target = "credentialsNonExpired", ignore = true)
     @Mapping(target = "authorities", ignore = true)
-    @Mapping(target = "mealRecommendationsCache", ignore = true)
-    @Mapping(target = "mealCacheExpiry", ignore = true)
-    @Mapping(target = "workoutRecommendationsCache", ignore = true)
-    @Mapping(target = "workoutCacheExpiry", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract User toEntity(UserDto dto);
 }
@@ -0,0 +1,68 @@
+package com.mindfit.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totais diários de refeições e exercícios por usuário. Mantido pelos triggers de
+ * meal_registers e exercise_registers (V11); a aplicação só lê.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Immutable
+@IdClass(DailyUserNutrition.Key.class)
+@Table(name = "daily_user_nutrition")
+public class DailyUserNutrition {
+
+    @Id
+    @Column(name = "user_id", length = 36, nullable = false)
+    private String userId;
+
+    @Id
+    @Column(name = "nutrition_date", nullable = false)
+    private LocalDate nutritionDate;
+
+    @Column(name = "meal_count", nullable = false)
+    private int mealCount;
+
+    @Column(name = "calories_in", nullable = false)
+    private BigDecimal caloriesIn;
+
+    @Column(name = "carbo", nullable = false)
+    private BigDecimal carbo;
+
+    @Column(name = "protein", nullable = false)
+    private BigDecimal protein;
+
+    @Column(name = "fat", nullable = false)
+    private BigDecimal fat;
+
+    @Column(name = "exercise_count", nullable = false)
+    private int exerciseCount;
+
+    @Column(name = "calories_out", nullable = false)
+    private BigDecimal caloriesOut;
+
+    @Column(name = "exercise_minutes", nullable = false)
+    private BigDecimal exerciseMinutes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private LocalDate nutritionDate;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mindfit.api.model;
+
+import com.mindfit.api.enums.RecommendationKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "recommendation_cache")
+@IdClass(RecommendationCache.Key.class)
+public class RecommendationCache implements Persistable<RecommendationCache.Key> {
+
+    @Id
+    @Column(name = "user_id", length = 36, nullable = false, updatable = false)
+    private String userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 20, nullable = false, updatable = false)
+    private RecommendationKind kind;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "context_version", nullable = false)
+    private long contextVersion;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    // Refeição para a qual o prompt foi montado; só nas recomendações de refeição
+    @Column(name = "meal_period", length = 20)
+    private String mealPeriod;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Chave atribuída pela aplicação: sem isso, save() faria um SELECT antes de cada INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    @Override
+    public Key getId() {
+        return new Key(userId, kind);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        persisted = true;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private RecommendationKind kind;
+    }
+}
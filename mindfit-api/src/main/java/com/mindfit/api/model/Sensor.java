@@ -1,14 +1,16 @@
 package com.mindfit.api.model;
 
+import com.mindfit.api.util.UuidV7Generator;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -16,14 +18,16 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "sensors")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sensors")
 public class Sensor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "id", length = 36, nullable = false, updatable = false)
     private String id;
 
-    @Column(name = "user_id", length = 36)
+    // Dono fixo desde a criação: a cópia em cache nunca diverge no campo usado na autorização
+    @Column(name = "user_id", length = 36, updatable = false)
     private String userId;
 
     @Column(name = "sensor_type", length = 50, nullable = false)
@@ -1,5 +1,6 @@
 package com.mindfit.api.model;
 
+import com.mindfit.api.util.UuidV7Generator;
 import com.mindfit.api.enums.Role;
 import com.mindfit.api.enums.Sex;
 import jakarta.persistence.CollectionTable;
@@ -9,20 +10,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,11 +34,14 @@ import java.util.stream.Collectors;
 
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "users")
+// Fora do cache de segundo nível: senha, perfis, enabled e versão valem em todas as instâncias já na
+// próxima leitura, sem depender de invalidação entre elas
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "id", length = 36, nullable = false, updatable = false)
     private String id;
 
@@ -56,10 +60,6 @@ public class User implements UserDetails {
     @Column(name = "name", length = 100)
     private String name;
 
-    @Lob
-    @Column(name = "profile")
-    private String profile;
-
     @Enumerated(EnumType.STRING)
     @Column(name = "sex", length = 10)
     private Sex sex;
@@ -77,19 +77,9 @@ public class User implements UserDetails {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @Lob
-    @Column(name = "meal_recommendations_cache")
-    private String mealRecommendationsCache;
-
-    @Column(name = "meal_cache_expiry")
-    private LocalDateTime mealCacheExpiry;
-
-    @Lob
-    @Column(name = "workout_recommendations_cache")
-    private String workoutRecommendationsCache;
-
-    @Column(name = "workout_cache_expiry")
-    private LocalDateTime workoutCacheExpiry;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 
     @Column(name = "enabled")
     private boolean enabled = true;
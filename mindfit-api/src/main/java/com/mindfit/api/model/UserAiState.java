@@ -0,0 +1,46 @@
+package com.mindfit.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de IA do usuário (perfil gerado pelo modelo), fora da linha de users para que
+ * autenticação e listagens não leiam LOBs.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "user_ai_state")
+public class UserAiState {
+
+    @Id
+    @Column(name = "user_id", length = 36, nullable = false, updatable = false)
+    private String userId;
+
+    @Lob
+    @Column(name = "profile")
+    private String profile;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserAiState(String userId, String profile) {
+        this.userId = userId;
+        this.profile = profile;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,43 @@
+package com.mindfit.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "user_context_versions")
+public class UserContextVersion {
+
+    @Id
+    @Column(name = "user_id", length = 36, nullable = false, updatable = false)
+    private String userId;
+
+    @Column(name = "context_version", nullable = false)
+    private long contextVersion;
+
+    @Column(name = "profile_version")
+    private Long profileVersion;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserContextVersion(String userId, long contextVersion) {
+        this.userId = userId;
+        this.contextVersion = contextVersion;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
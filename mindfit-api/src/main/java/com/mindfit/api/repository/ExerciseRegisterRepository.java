@@ -1,12 +1,16 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.ExerciseRegisterResponse;
 import com.mindfit.api.model.ExerciseRegister;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface ExerciseRegisterRepository extends JpaRepository<ExerciseRegister, String> {
@@ -14,4 +18,47 @@ public interface ExerciseRegisterRepository extends JpaRepository<ExerciseRegist
     Page<ExerciseRegister> findByUserId(String userId, Pageable pageable);
     
     Page<ExerciseRegister> findByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-}
\ No newline at end of file
+
+    // Listagens direto no registro de resposta (expressão de construtor): só as colunas exibidas,
+    // sem entidades gerenciadas nem mapeamentos intermediários. Mais recentes primeiro: percorrem o
+    // índice (user_id, timestamp DESC) sem ordenação
+    String SELECT_RESPONSE = """
+            SELECT new com.mindfit.api.dto.ExerciseRegisterResponse(
+                   e.id, e.userId, e.name, e.description, e.timestamp, e.durationInMinutes, e.caloriesBurnt, e.createdAt)
+              FROM ExerciseRegister e
+            """;
+
+    @Query(SELECT_RESPONSE + "WHERE e.userId = :userId ORDER BY e.timestamp DESC")
+    Page<ExerciseRegisterResponse> findResponsesByUserId(String userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE e.userId = :userId
+              AND e.timestamp BETWEEN :start AND :end
+            ORDER BY e.timestamp DESC
+            """)
+    Page<ExerciseRegisterResponse> findResponsesByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // Paginação por cursor: id crescente como desempate acompanha a ordem do índice
+    @Query(SELECT_RESPONSE + "WHERE e.userId = :userId ORDER BY e.timestamp DESC, e.id ASC")
+    List<ExerciseRegisterResponse> findResponsesByUserId(String userId, Limit limit);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE e.userId = :userId
+              AND (e.timestamp < :timestamp OR (e.timestamp = :timestamp AND e.id > :id))
+            ORDER BY e.timestamp DESC, e.id ASC
+            """)
+    List<ExerciseRegisterResponse> findResponsesAfter(String userId, LocalDateTime timestamp, String id, Limit limit);
+
+    /**
+     * Users with registers at the given hour of day on at least {@code minDays} distinct days since {@code since}.
+     */
+    @Query(value = """
+            SELECT user_id
+              FROM exercise_registers
+             WHERE timestamp >= :since
+               AND EXTRACT(HOUR FROM timestamp) = :hour
+             GROUP BY user_id
+            HAVING COUNT(DISTINCT TRUNC(timestamp)) >= :minDays
+            """, nativeQuery = true)
+    List<String> findHabitualUserIdsAtHour(LocalDateTime since, int hour, int minDays);
+}
@@ -1,28 +1,46 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.LogResponse;
 import com.mindfit.api.enums.LogType;
 import com.mindfit.api.model.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 
 @Repository
 public interface LogRepository extends JpaRepository<Log, String> {
+
+    // Listagens do painel de logs direto no registro de resposta, sem entidades gerenciadas
+    String SELECT_RESPONSE = """
+            SELECT new com.mindfit.api.dto.LogResponse(l.id, l.type, l.category, l.name, l.stackTrace, l.timestamp)
+              FROM Log l
+            """;
+
+    @Query(SELECT_RESPONSE)
+    Page<LogResponse> findResponses(Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE l.type = :type")
+    Page<LogResponse> findResponsesByType(LogType type, Pageable pageable);
     
-    Page<Log> findByType(LogType type, Pageable pageable);
-    
-    Page<Log> findByCategory(String category, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.category = :category")
+    Page<LogResponse> findResponsesByCategory(String category, Pageable pageable);
     
-    Page<Log> findByTimestampBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.timestamp BETWEEN :start AND :end")
+    Page<LogResponse> findResponsesByTimestampBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Log> findByTypeAndCategory(LogType type, String category, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.type = :type AND l.category = :category")
+    Page<LogResponse> findResponsesByTypeAndCategory(LogType type, String category, Pageable pageable);
 
-    Page<Log> findByTypeAndTimestampBetween(LogType type, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.type = :type AND l.timestamp BETWEEN :start AND :end")
+    Page<LogResponse> findResponsesByTypeAndTimestampBetween(LogType type, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Log> findByCategoryAndTimestampBetween(String category, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.category = :category AND l.timestamp BETWEEN :start AND :end")
+    Page<LogResponse> findResponsesByCategoryAndTimestampBetween(String category, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Log> findByTypeAndCategoryAndTimestampBetween(LogType type, String category, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE l.type = :type AND l.category = :category AND l.timestamp BETWEEN :start AND :end")
+    Page<LogResponse> findResponsesByTypeAndCategoryAndTimestampBetween(LogType type, String category, LocalDateTime start, LocalDateTime end, Pageable pageable);
 }
@@ -1,12 +1,16 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.MealRegisterResponse;
 import com.mindfit.api.model.MealRegister;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface MealRegisterRepository extends JpaRepository<MealRegister, String> {
@@ -14,4 +18,47 @@ public interface MealRegisterRepository extends JpaRepository<MealRegister, Stri
     Page<MealRegister> findByUserId(String userId, Pageable pageable);
     
     Page<MealRegister> findByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-}
\ No newline at end of file
+
+    // Listagens direto no registro de resposta (expressão de construtor): só as colunas exibidas,
+    // sem entidades gerenciadas nem mapeamentos intermediários. Mais recentes primeiro: percorrem o
+    // índice (user_id, timestamp DESC) sem ordenação
+    String SELECT_RESPONSE = """
+            SELECT new com.mindfit.api.dto.MealRegisterResponse(
+                   m.id, m.userId, m.name, m.timestamp, m.calories, m.carbo, m.protein, m.fat, m.createdAt)
+              FROM MealRegister m
+            """;
+
+    @Query(SELECT_RESPONSE + "WHERE m.userId = :userId ORDER BY m.timestamp DESC")
+    Page<MealRegisterResponse> findResponsesByUserId(String userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE m.userId = :userId
+              AND m.timestamp BETWEEN :start AND :end
+            ORDER BY m.timestamp DESC
+            """)
+    Page<MealRegisterResponse> findResponsesByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // Paginação por cursor: id crescente como desempate acompanha a ordem do índice
+    @Query(SELECT_RESPONSE + "WHERE m.userId = :userId ORDER BY m.timestamp DESC, m.id ASC")
+    List<MealRegisterResponse> findResponsesByUserId(String userId, Limit limit);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE m.userId = :userId
+              AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id > :id))
+            ORDER BY m.timestamp DESC, m.id ASC
+            """)
+    List<MealRegisterResponse> findResponsesAfter(String userId, LocalDateTime timestamp, String id, Limit limit);
+
+    /**
+     * Users with registers at the given hour of day on at least {@code minDays} distinct days since {@code since}.
+     */
+    @Query(value = """
+            SELECT user_id
+              FROM meal_registers
+             WHERE timestamp >= :since
+               AND EXTRACT(HOUR FROM timestamp) = :hour
+             GROUP BY user_id
+            HAVING COUNT(DISTINCT TRUNC(timestamp)) >= :minDays
+            """, nativeQuery = true)
+    List<String> findHabitualUserIdsAtHour(LocalDateTime since, int hour, int minDays);
+}
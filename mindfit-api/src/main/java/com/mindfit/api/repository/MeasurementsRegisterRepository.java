@@ -1,12 +1,16 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.MeasurementsRegisterResponse;
 import com.mindfit.api.model.MeasurementsRegister;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface MeasurementsRegisterRepository extends JpaRepository<MeasurementsRegister, String> {
@@ -14,4 +18,34 @@ public interface MeasurementsRegisterRepository extends JpaRepository<Measuremen
     Page<MeasurementsRegister> findByUserId(String userId, Pageable pageable);
     
     Page<MeasurementsRegister> findByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // Listagens direto no registro de resposta (expressão de construtor): só as colunas exibidas,
+    // sem entidades gerenciadas nem mapeamentos intermediários. Mais recentes primeiro: percorrem o
+    // índice (user_id, timestamp DESC) sem ordenação
+    String SELECT_RESPONSE = """
+            SELECT new com.mindfit.api.dto.MeasurementsRegisterResponse(
+                   r.id, r.userId, r.weightInKG, r.heightInCM, r.timestamp, r.createdAt)
+              FROM MeasurementsRegister r
+            """;
+
+    @Query(SELECT_RESPONSE + "WHERE r.userId = :userId ORDER BY r.timestamp DESC")
+    Page<MeasurementsRegisterResponse> findResponsesByUserId(String userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE r.userId = :userId
+              AND r.timestamp BETWEEN :start AND :end
+            ORDER BY r.timestamp DESC
+            """)
+    Page<MeasurementsRegisterResponse> findResponsesByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // Paginação por cursor: id crescente como desempate acompanha a ordem do índice
+    @Query(SELECT_RESPONSE + "WHERE r.userId = :userId ORDER BY r.timestamp DESC, r.id ASC")
+    List<MeasurementsRegisterResponse> findResponsesByUserId(String userId, Limit limit);
+
+    @Query(SELECT_RESPONSE + """
+            WHERE r.userId = :userId
+              AND (r.timestamp < :timestamp OR (r.timestamp = :timestamp AND r.id > :id))
+            ORDER BY r.timestamp DESC, r.id ASC
+            """)
+    List<MeasurementsRegisterResponse> findResponsesAfter(String userId, LocalDateTime timestamp, String id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.model.RecommendationCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecommendationCacheRepository extends JpaRepository<RecommendationCache, RecommendationCache.Key> {
+
+    /**
+     * Rows for any of the users and kinds in one query; findAllById loops findById per id for the composite key.
+     */
+    @Query("SELECT c FROM RecommendationCache c WHERE c.userId IN :userIds AND c.kind IN :kinds")
+    List<RecommendationCache> findByUserIdsAndKinds(Collection<String> userIds, Collection<RecommendationKind> kinds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RecommendationCache c WHERE c.userId = :userId")
+    int deleteByUserId(String userId);
+
+    /**
+     * Extends an entry that is still based on the given context version; returns 0 if it was regenerated meanwhile.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE RecommendationCache c
+               SET c.expiresAt = :expiresAt
+             WHERE c.userId = :userId
+               AND c.kind = :kind
+               AND c.contextVersion = :contextVersion
+            """)
+    int extendExpiry(String userId, RecommendationKind kind, long contextVersion, LocalDateTime expiresAt);
+}
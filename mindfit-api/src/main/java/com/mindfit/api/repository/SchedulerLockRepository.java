@@ -0,0 +1,28 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Takes the lock only if it has expired; the row lock taken by the UPDATE makes concurrent
+     * claims serialize, so at most one of them updates a row.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE SchedulerLock l
+               SET l.lockedUntil = :lockedUntil, l.lockedAt = :now, l.lockedBy = :lockedBy
+             WHERE l.name = :name
+               AND l.lockedUntil <= :now
+            """)
+    int claim(String name, LocalDateTime now, LocalDateTime lockedUntil, String lockedBy);
+}
@@ -1,9 +1,11 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.SensorReadingResponse;
 import com.mindfit.api.model.SensorReading;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -20,6 +22,24 @@ public interface SensorReadingRepository extends JpaRepository<SensorReading, St
             Pageable pageable
     );
 
+    // Listagens direto no registro de resposta, sem entidades gerenciadas
+    String SELECT_RESPONSE = """
+            SELECT new com.mindfit.api.dto.SensorReadingResponse(
+                   r.id, r.sensorId, r.readingValue, r.readingType, r.unit, r.readingTimestamp)
+              FROM SensorReading r
+            """;
+
+    @Query(SELECT_RESPONSE + "WHERE r.sensorId = :sensorId")
+    Page<SensorReadingResponse> findResponsesBySensorId(String sensorId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE r.sensorId = :sensorId AND r.readingTimestamp BETWEEN :start AND :end")
+    Page<SensorReadingResponse> findResponsesBySensorIdAndReadingTimestampBetween(
+            String sensorId,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable
+    );
+
     Page<SensorReading> findBySensorIdAndReadingType(
             String sensorId,
             String readingType,
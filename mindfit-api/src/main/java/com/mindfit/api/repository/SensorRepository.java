@@ -1,9 +1,11 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.dto.SensorResponse;
 import com.mindfit.api.model.Sensor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +15,14 @@ public interface SensorRepository extends JpaRepository<Sensor, String> {
 
     Page<Sensor> findByUserId(String userId, Pageable pageable);
 
+    // Listagem direto no registro de resposta, sem entidades gerenciadas
+    @Query("""
+            SELECT new com.mindfit.api.dto.SensorResponse(s.id, s.userId, s.sensorType, s.location, s.createdAt, s.updatedAt)
+              FROM Sensor s
+             WHERE s.userId = :userId
+            """)
+    Page<SensorResponse> findResponsesByUserId(String userId, Pageable pageable);
+
     List<Sensor> findByUserId(String userId);
 
     List<Sensor> findBySensorType(String sensorType);
@@ -0,0 +1,26 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.model.UserAiState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface UserAiStateRepository extends JpaRepository<UserAiState, String> {
+
+    @Query("SELECT s.profile FROM UserAiState s WHERE s.userId = :userId")
+    Optional<String> findProfileByUserId(String userId);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE UserAiState s
+               SET s.profile = :profile, s.updatedAt = CURRENT_TIMESTAMP
+             WHERE s.userId = :userId
+            """)
+    int updateProfile(String userId, String profile);
+}
@@ -0,0 +1,168 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.dto.ExerciseRegisterDto;
+import com.mindfit.api.dto.MealRegisterDto;
+import com.mindfit.api.dto.MeasurementsRegisterDto;
+import com.mindfit.api.dto.UserContext;
+import com.mindfit.api.enums.Sex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Carrega o usuário e seus registros mais recentes em uma única consulta (UNION ALL),
+ * evitando as três consultas paginadas (e seus COUNT(*)) usadas para montar o contexto de IA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserContextRepository {
+
+    private static final String CONTEXT_QUERY = """
+            SELECT 'U' AS section, u.id, u.name, u.email, u.sex, u.birth_date, NULL AS ts,
+                   u.created_at, u.updated_at, NULL AS n1, NULL AS n2, NULL AS n3, NULL AS n4,
+                   s.profile AS txt, 0 AS rn
+              FROM users u
+              LEFT JOIN user_ai_state s ON s.user_id = u.id
+             WHERE u.id = :userId
+            UNION ALL
+            SELECT 'M', id, name, NULL, NULL, NULL, ts, created_at, updated_at,
+                   calories, carbo, protein, fat, NULL, rn
+              FROM (SELECT m.id, m.name, m.timestamp AS ts, m.created_at, m.updated_at,
+                           m.calories, m.carbo, m.protein, m.fat,
+                           ROW_NUMBER() OVER (ORDER BY m.timestamp DESC) AS rn
+                      FROM meal_registers m
+                     WHERE m.user_id = :userId) meals
+             WHERE rn <= :recentMeals OR (ts >= :windowStart AND rn <= :windowLimit)
+            UNION ALL
+            SELECT 'E', id, name, NULL, NULL, NULL, ts, created_at, updated_at,
+                   duration_in_minutes, calories_burnt, NULL, NULL, description, rn
+              FROM (SELECT e.id, e.name, e.timestamp AS ts, e.created_at, e.updated_at,
+                           e.duration_in_minutes, e.calories_burnt, e.description,
+                           ROW_NUMBER() OVER (ORDER BY e.timestamp DESC) AS rn
+                      FROM exercise_registers e
+                     WHERE e.user_id = :userId) exercises
+             WHERE rn <= :recentExercises OR (ts >= :windowStart AND rn <= :windowLimit)
+            UNION ALL
+            SELECT 'W', id, NULL, NULL, NULL, NULL, ts, created_at, updated_at,
+                   weight_in_kg, height_in_cm, NULL, NULL, NULL, rn
+              FROM (SELECT r.id, r.timestamp AS ts, r.created_at, r.updated_at,
+                           r.weight_in_kg, r.height_in_cm,
+                           ROW_NUMBER() OVER (ORDER BY r.timestamp DESC) AS rn
+                      FROM measurements_registers r
+                     WHERE r.user_id = :userId) measurements
+             WHERE rn <= :recentMeasurements
+            ORDER BY section, rn
+            """;
+
+    private static final String USER_QUERY = """
+            SELECT u.name, u.email, u.sex, u.birth_date, s.profile
+              FROM users u
+              LEFT JOIN user_ai_state s ON s.user_id = u.id
+             WHERE u.id = :userId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Busca o usuário com os N registros mais recentes de cada tipo. Refeições e exercícios
+     * com timestamp a partir de {@code windowStart} também são incluídos, até {@code windowLimit} por tipo.
+     * As listas vêm ordenadas do mais recente para o mais antigo.
+     */
+    public Optional<UserContext> findContext(String userId, int recentMeals, int recentExercises,
+                                             int recentMeasurements, LocalDateTime windowStart, int windowLimit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("recentMeals", recentMeals)
+                .addValue("recentExercises", recentExercises)
+                .addValue("recentMeasurements", recentMeasurements)
+                .addValue("windowStart", windowStart)
+                .addValue("windowLimit", windowLimit);
+
+        return Optional.ofNullable(jdbcTemplate.query(CONTEXT_QUERY, params, contextExtractor(userId)));
+    }
+
+    /**
+     * Busca apenas a linha do usuário, para quando os registros já estão em memória.
+     */
+    public Optional<UserContext> findUser(String userId) {
+        List<UserContext> users = jdbcTemplate.query(USER_QUERY, new MapSqlParameterSource("userId", userId),
+                (rs, rowNum) -> new UserContext(userId, rs.getString("name"), rs.getString("email"),
+                        sex(rs), rs.getObject("birth_date", LocalDate.class), rs.getString("profile"),
+                        List.of(), List.of(), List.of()));
+        return users.stream().findFirst();
+    }
+
+    private ResultSetExtractor<UserContext> contextExtractor(String userId) {
+        return rs -> {
+            boolean found = false;
+            String name = null;
+            String email = null;
+            Sex sex = null;
+            LocalDate birthDate = null;
+            String profile = null;
+            List<MealRegisterDto> meals = new ArrayList<>();
+            List<ExerciseRegisterDto> exercises = new ArrayList<>();
+            List<MeasurementsRegisterDto> measurements = new ArrayList<>();
+
+            while (rs.next()) {
+                switch (rs.getString("section")) {
+                    case "U" -> {
+                        found = true;
+                        name = rs.getString("name");
+                        email = rs.getString("email");
+                        sex = sex(rs);
+                        birthDate = rs.getObject("birth_date", LocalDate.class);
+                        profile = rs.getString("txt");
+                    }
+                    case "M" -> meals.add(new MealRegisterDto(
+                            rs.getString("id"), userId, rs.getString("name"), timestamp(rs, "ts"),
+                            integer(rs, "n1"), decimal(rs, "n2"), decimal(rs, "n3"), decimal(rs, "n4"),
+                            timestamp(rs, "created_at"), timestamp(rs, "updated_at")));
+                    case "E" -> exercises.add(new ExerciseRegisterDto(
+                            rs.getString("id"), userId, rs.getString("name"), rs.getString("txt"), timestamp(rs, "ts"),
+                            integer(rs, "n1"), integer(rs, "n2"),
+                            timestamp(rs, "created_at"), timestamp(rs, "updated_at")));
+                    case "W" -> measurements.add(new MeasurementsRegisterDto(
+                            rs.getString("id"), userId, decimal(rs, "n1"), integer(rs, "n2"), timestamp(rs, "ts"),
+                            timestamp(rs, "created_at"), timestamp(rs, "updated_at")));
+                    default -> {
+                    }
+                }
+            }
+
+            if (!found) {
+                return null;
+            }
+            return new UserContext(userId, name, email, sex, birthDate, profile, meals, exercises, measurements);
+        };
+    }
+
+    private static Sex sex(ResultSet rs) throws SQLException {
+        String value = rs.getString("sex");
+        return value != null ? Sex.valueOf(value) : null;
+    }
+
+    private static LocalDateTime timestamp(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+
+    private static Integer integer(ResultSet rs, String column) throws SQLException {
+        Number value = (Number) rs.getObject(column);
+        return value != null ? value.intValue() : null;
+    }
+
+    private static Double decimal(ResultSet rs, String column) throws SQLException {
+        Number value = (Number) rs.getObject(column);
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.model.UserContextVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserContextVersionRepository extends JpaRepository<UserContextVersion, String> {
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE UserContextVersion v
+               SET v.contextVersion = v.contextVersion + 1, v.updatedAt = CURRENT_TIMESTAMP
+             WHERE v.userId = :userId
+            """)
+    int incrementContextVersion(String userId);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE UserContextVersion v
+               SET v.profileVersion = :profileVersion, v.updatedAt = CURRENT_TIMESTAMP
+             WHERE v.userId = :userId
+            """)
+    int updateProfileVersion(String userId, long profileVersion);
+}
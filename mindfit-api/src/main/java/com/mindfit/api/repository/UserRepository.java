@@ -1,9 +1,23 @@
 package com.mindfit.api.repository;
 
+import com.mindfit.api.enums.Role;
+import com.mindfit.api.enums.Sex;
 import com.mindfit.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +26,53 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Listagem de usuários sem carregar entidades: dados cadastrais numa consulta paginada e os
+    // perfis da página numa segunda consulta por id, em vez da coleção EAGER de cada entidade
+    @Query("""
+            SELECT new com.mindfit.api.repository.UserRepository$ListRow(
+                   u.id, u.email, u.name, u.sex, u.birthDate, u.lastLogonDate, u.createdAt, u.version)
+              FROM User u
+            """)
+    Page<ListRow> findListRows(Pageable pageable);
+
+    @Query("""
+            SELECT new com.mindfit.api.repository.UserRepository$RoleRow(u.id, r)
+              FROM User u
+              JOIN u.roles r
+             WHERE u.id IN :userIds
+            """)
+    List<RoleRow> findRolesByUserIds(Collection<String> userIds);
+
+    @Query("""
+            SELECT u.id
+              FROM User u
+              JOIN u.roles r
+             WHERE r = com.mindfit.api.enums.Role.USER
+               AND u.lastLogonDate >= :since
+             ORDER BY u.lastLogonDate DESC
+            """)
+    List<String> findActiveUserIds(LocalDateTime since, Pageable pageable);
+
+    // Registro de acesso: não altera dados do cadastro, por isso não incrementa a versão.
+    // Em SQL nativo com espaço de consulta próprio: sem ele o Hibernate invalidaria todas as regiões
+    // do cache de segundo nível (sensores) a cada login.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_last_logon"))
+    @Query(value = "UPDATE users SET last_logon_date = :lastLogonDate WHERE id = :id", nativeQuery = true)
+    int updateLastLogonDate(String id, LocalDateTime lastLogonDate);
+
+    record ListRow(
+            String id,
+            String email,
+            String name,
+            Sex sex,
+            LocalDate birthDate,
+            LocalDateTime lastLogonDate,
+            LocalDateTime createdAt,
+            Long version
+    ) {}
+
+    record RoleRow(String userId, Role role) {}
+}
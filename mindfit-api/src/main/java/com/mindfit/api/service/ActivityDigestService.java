@@ -0,0 +1,362 @@
+package com.mindfit.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindfit.api.dto.ExerciseRegisterDto;
+import com.mindfit.api.dto.MealRegisterDto;
+import com.mindfit.api.dto.MeasurementsRegisterDto;
+import com.mindfit.api.dto.UserActivityDigest;
+import com.mindfit.api.dto.UserContext;
+import com.mindfit.api.repository.UserContextRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Resumo de atividade por usuário usado na montagem de prompts.
+ * É carregado uma vez do banco e depois mantido incrementalmente pelos serviços de registro,
+ * de modo que ler o contexto de um usuário não exige novas consultas. Cada resumo guarda a versão
+ * de contexto ({@link ContextVersionService}) que reflete: uma gravação feita em outra instância muda
+ * a versão e a próxima leitura recarrega, como no cache de recomendações e nos relatórios. Usuários
+ * inativos saem do cache por tamanho ou tempo sem acesso, e as janelas de 7 e 30 dias são
+ * recalculadas na leitura quando o dia muda.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityDigestService {
+
+    static final int RECENT_MEALS = 20;
+    static final int RECENT_EXERCISES = 15;
+    static final int RECENT_MEASUREMENTS = 10;
+    static final int WINDOW_DAYS = 30;
+    static final int DAILY_TOTALS_DAYS = 7;
+    private static final int WINDOW_LOAD_LIMIT = 500;
+
+    private static final int MUTATION_STRIPES = 64;
+
+    private final UserContextRepository userContextRepository;
+    private final ContextVersionService contextVersionService;
+
+    @Value("${app.activity-digest.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${app.activity-digest.cache.idle-minutes:60}")
+    private long cacheIdleMinutes;
+
+    private Cache<String, DigestState> digests;
+
+    // Alterações por faixa de usuário: uma carga que cruzou uma alteração não é guardada,
+    // já que a consulta pode ter lido o banco antes dela
+    private final AtomicLongArray mutations = new AtomicLongArray(MUTATION_STRIPES);
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    @PostConstruct
+    void init() {
+        digests = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterAccess(Duration.ofMinutes(cacheIdleMinutes))
+                .build();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public UserActivityDigest getDigest(String userId) {
+        Loaded loaded = current(userId);
+        return loaded != null ? loaded.state().view() : DigestState.of(Map.of(), Map.of(), Map.of(), today(), 0).view();
+    }
+
+    /**
+     * Dados do usuário para montagem de prompts. Com o resumo frio, usuário e registros vêm
+     * na mesma consulta; com o resumo já em memória, só a linha do usuário é buscada.
+     * Em seguida {@link #getDigest(String)} é uma leitura em memória.
+     */
+    public Optional<UserContext> getUserContext(String userId) {
+        Loaded loaded = current(userId);
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        if (loaded.context() != null) {
+            return Optional.of(loaded.context());
+        }
+        return userContextRepository.findUser(userId);
+    }
+
+    public void evict(String userId) {
+        mutated(userId);
+        digests.invalidate(userId);
+    }
+
+    public void onMealSaved(MealRegisterDto meal) {
+        update(meal.userId(), state -> state.withMeal(meal.id(), meal, today()));
+    }
+
+    public void onMealDeleted(MealRegisterDto meal) {
+        removeOrEvict(meal.userId(), state -> state.withMeal(meal.id(), null, today()), state -> state.view().recentMeals().stream().anyMatch(m -> m.id().equals(meal.id())));
+    }
+
+    public void onExerciseSaved(ExerciseRegisterDto exercise) {
+        update(exercise.userId(), state -> state.withExercise(exercise.id(), exercise, today()));
+    }
+
+    public void onExerciseDeleted(ExerciseRegisterDto exercise) {
+        removeOrEvict(exercise.userId(), state -> state.withExercise(exercise.id(), null, today()), state -> state.view().recentExercises().stream().anyMatch(e -> e.id().equals(exercise.id())));
+    }
+
+    public void onMeasurementSaved(MeasurementsRegisterDto measurement) {
+        update(measurement.userId(), state -> state.withMeasurement(measurement.id(), measurement, today()));
+    }
+
+    public void onMeasurementDeleted(MeasurementsRegisterDto measurement) {
+        removeOrEvict(measurement.userId(), state -> state.withMeasurement(measurement.id(), null, today()), state -> state.view().recentMeasurements().stream().anyMatch(m -> m.id().equals(measurement.id())));
+    }
+
+    /**
+     * Remover um item da lista de recentes deixa uma vaga que só o banco sabe preencher,
+     * então nesse caso o resumo é descartado e recarregado na próxima leitura.
+     */
+    private void removeOrEvict(String userId, Function<DigestState, DigestState> removal, Predicate<DigestState> inRecentList) {
+        mutated(userId);
+        digests.asMap().computeIfPresent(userId, (id, state) -> inRecentList.test(state) ? null : removal.apply(state));
+    }
+
+    private void update(String userId, Function<DigestState, DigestState> change) {
+        mutated(userId);
+        digests.asMap().computeIfPresent(userId, (id, state) -> change.apply(state));
+    }
+
+    /**
+     * Resumo em memória, se reflete a versão de contexto atual, rebaseado se foi montado em outro dia;
+     * sem ele, carrega do banco fora de qualquer lock do cache. Retorna null se o usuário não existe.
+     */
+    private Loaded current(String userId) {
+        LocalDate today = today();
+        // Lida antes da consulta: uma gravação posterior a ela sempre deixa a versão maior
+        long version = contextVersionService.current(userId);
+        DigestState cached = digests.getIfPresent(userId);
+        if (cached != null && cached.contextVersion() == version) {
+            if (cached.builtOn().equals(today)) {
+                return new Loaded(cached, null);
+            }
+            DigestState rebased = cached.rebasedTo(today);
+            digests.asMap().replace(userId, cached, rebased);
+            return new Loaded(rebased, null);
+        }
+
+        int stripe = stripe(userId);
+        long before = mutations.get(stripe);
+        UserContext context = userContextRepository.findContext(userId, RECENT_MEALS, RECENT_EXERCISES,
+                RECENT_MEASUREMENTS, today.minusDays(WINDOW_DAYS).atStartOfDay(), WINDOW_LOAD_LIMIT).orElse(null);
+        if (context == null) {
+            return null;
+        }
+        DigestState state = DigestState.of(
+                byId(context.meals(), MealRegisterDto::id),
+                byId(context.exercises(), ExerciseRegisterDto::id),
+                byId(context.measurements(), MeasurementsRegisterDto::id),
+                today,
+                version);
+        // A comparação fica dentro do compute: uma alteração posterior espera o lock da chave e é
+        // aplicada sobre a entrada gravada aqui; uma alteração durante a carga descarta o resultado
+        digests.asMap().compute(userId, (id, existing) -> {
+            if (mutations.get(stripe) != before) {
+                return null;
+            }
+            return existing != null && existing.contextVersion() > version ? existing : state;
+        });
+        return new Loaded(state, context);
+    }
+
+    private void mutated(String userId) {
+        mutations.incrementAndGet(stripe(userId));
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), MUTATION_STRIPES);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private static <T> Map<String, T> byId(List<T> items, Function<T, String> idOf) {
+        Map<String, T> map = new HashMap<>();
+        items.forEach(item -> map.put(idOf.apply(item), item));
+        return map;
+    }
+
+    private static LocalDateTime effectiveTime(LocalDateTime timestamp, LocalDateTime createdAt) {
+        if (timestamp != null) {
+            return timestamp;
+        }
+        return createdAt != null ? createdAt : LocalDateTime.MIN;
+    }
+
+    private static LocalDateTime mealTime(MealRegisterDto meal) {
+        return effectiveTime(meal.timestamp(), meal.createdAt());
+    }
+
+    private static LocalDateTime exerciseTime(ExerciseRegisterDto exercise) {
+        return effectiveTime(exercise.timestamp(), exercise.createdAt());
+    }
+
+    private static LocalDateTime measurementTime(MeasurementsRegisterDto measurement) {
+        return effectiveTime(measurement.timestamp(), measurement.createdAt());
+    }
+
+    private static <T> Map<String, T> replace(Map<String, T> source, String id, T value) {
+        Map<String, T> copy = new HashMap<>(source);
+        if (value == null) {
+            copy.remove(id);
+        } else {
+            copy.put(id, value);
+        }
+        return copy;
+    }
+
+    /**
+     * Mantém os itens da janela de análise mais os N mais recentes, independentemente da data.
+     */
+    private static <T> Map<String, T> prune(Map<String, T> items, Function<T, String> idOf, Function<T, LocalDateTime> timeOf,
+                                            int recentCount, LocalDateTime windowStart) {
+        List<T> sorted = new ArrayList<>(items.values());
+        sorted.sort(Comparator.comparing(timeOf).reversed());
+        Map<String, T> kept = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            T item = sorted.get(i);
+            if (i < recentCount || (windowStart != null && !timeOf.apply(item).isBefore(windowStart))) {
+                kept.put(idOf.apply(item), item);
+            }
+        }
+        return kept;
+    }
+
+    private static <T> List<T> newest(Map<String, T> items, Function<T, LocalDateTime> timeOf, int limit) {
+        return items.values().stream()
+                .sorted(Comparator.comparing(timeOf).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // context só vem preenchido quando o resumo acabou de ser carregado do banco
+    private record Loaded(DigestState state, UserContext context) {
+    }
+
+    // Os serviços de registro aplicam a alteração aqui e em seguida incrementam a versão de contexto,
+    // por isso cada with* avança contextVersion em um: se outra instância gravou no meio, a versão
+    // atual fica maior que a do resumo e ele é recarregado
+    private record DigestState(
+            Map<String, MealRegisterDto> meals,
+            Map<String, ExerciseRegisterDto> exercises,
+            Map<String, MeasurementsRegisterDto> measurements,
+            LocalDate builtOn,
+            long contextVersion,
+            UserActivityDigest view
+    ) {
+        static DigestState of(Map<String, MealRegisterDto> meals,
+                              Map<String, ExerciseRegisterDto> exercises,
+                              Map<String, MeasurementsRegisterDto> measurements,
+                              LocalDate today,
+                              long contextVersion) {
+            LocalDateTime windowStart = today.minusDays(WINDOW_DAYS).atStartOfDay();
+            Map<String, MealRegisterDto> keptMeals = prune(meals, MealRegisterDto::id, ActivityDigestService::mealTime, RECENT_MEALS, windowStart);
+            Map<String, ExerciseRegisterDto> keptExercises = prune(exercises, ExerciseRegisterDto::id, ActivityDigestService::exerciseTime, RECENT_EXERCISES, windowStart);
+            Map<String, MeasurementsRegisterDto> keptMeasurements = prune(measurements, MeasurementsRegisterDto::id, ActivityDigestService::measurementTime, RECENT_MEASUREMENTS, null);
+            return new DigestState(keptMeals, keptExercises, keptMeasurements, today, contextVersion,
+                    buildView(keptMeals, keptExercises, keptMeasurements, today));
+        }
+
+        DigestState rebasedTo(LocalDate today) {
+            return of(meals, exercises, measurements, today, contextVersion);
+        }
+
+        DigestState withMeal(String id, MealRegisterDto meal, LocalDate today) {
+            return of(replace(meals, id, meal), exercises, measurements, today, contextVersion + 1);
+        }
+
+        DigestState withExercise(String id, ExerciseRegisterDto exercise, LocalDate today) {
+            return of(meals, replace(exercises, id, exercise), measurements, today, contextVersion + 1);
+        }
+
+        DigestState withMeasurement(String id, MeasurementsRegisterDto measurement, LocalDate today) {
+            return of(meals, exercises, replace(measurements, id, measurement), today, contextVersion + 1);
+        }
+
+        private static UserActivityDigest buildView(Map<String, MealRegisterDto> meals,
+                                                    Map<String, ExerciseRegisterDto> exercises,
+                                                    Map<String, MeasurementsRegisterDto> measurements,
+                                                    LocalDate today) {
+            LocalDateTime windowStart = today.minusDays(WINDOW_DAYS).atStartOfDay();
+            int[] mealHours = new int[24];
+            int[] workoutHours = new int[24];
+            LocalDate firstTotalsDay = today.minusDays(DAILY_TOTALS_DAYS - 1L);
+            Map<LocalDate, double[]> totals = new TreeMap<>(Comparator.reverseOrder());
+
+            for (MealRegisterDto meal : meals.values()) {
+                LocalDateTime time = mealTime(meal);
+                if (time.isBefore(windowStart)) {
+                    continue;
+                }
+                mealHours[time.getHour()]++;
+                if (!time.toLocalDate().isBefore(firstTotalsDay)) {
+                    double[] day = totals.computeIfAbsent(time.toLocalDate(), d -> new double[6]);
+                    day[0] += meal.calories() != null ? meal.calories() : 0;
+                    day[1] += meal.carbo() != null ? meal.carbo() : 0;
+                    day[2] += meal.protein() != null ? meal.protein() : 0;
+                    day[3] += meal.fat() != null ? meal.fat() : 0;
+                }
+            }
+            for (ExerciseRegisterDto exercise : exercises.values()) {
+                LocalDateTime time = exerciseTime(exercise);
+                if (time.isBefore(windowStart)) {
+                    continue;
+                }
+                workoutHours[time.getHour()]++;
+                if (!time.toLocalDate().isBefore(firstTotalsDay)) {
+                    double[] day = totals.computeIfAbsent(time.toLocalDate(), d -> new double[6]);
+                    day[4] += exercise.caloriesBurnt() != null ? exercise.caloriesBurnt() : 0;
+                    day[5] += exercise.durationInMinutes() != null ? exercise.durationInMinutes() : 0;
+                }
+            }
+
+            List<UserActivityDigest.DailyTotals> dailyTotals = totals.entrySet().stream()
+                    .map(entry -> new UserActivityDigest.DailyTotals(
+                            entry.getKey(),
+                            (int) entry.getValue()[0],
+                            entry.getValue()[1],
+                            entry.getValue()[2],
+                            entry.getValue()[3],
+                            (int) entry.getValue()[4],
+                            (int) entry.getValue()[5]))
+                    .toList();
+
+            return new UserActivityDigest(
+                    newest(meals, ActivityDigestService::mealTime, RECENT_MEALS),
+                    newest(exercises, ActivityDigestService::exerciseTime, RECENT_EXERCISES),
+                    newest(measurements, ActivityDigestService::measurementTime, RECENT_MEASUREMENTS),
+                    dailyTotals,
+                    Arrays.stream(mealHours).boxed().toList(),
+                    Arrays.stream(workoutHours).boxed().toList()
+            );
+        }
+    }
+}
@@ -113,11 +113,11 @@ public class AuthService {
         
         // Verifica se é o primeiro acesso da semana
         if (isFirstLogonThisWeek(lastLogOn, now)) {
-            chatbotService.generateUserProfile(user.getId(), "");
+            chatbotService.refreshUserProfileIfStale(user.getId());
         }
         
-        user.setLastLogonDate(now);
-        userRepository.save(user);
+        // Atualiza só a coluna do último acesso, sem regravar o restante da linha
+        userRepository.updateLastLogonDate(user.getId(), now);
     }
     
     private boolean isFirstLogonThisWeek(LocalDateTime lastLogOn, LocalDateTime now) {
@@ -1,5 +1,6 @@
 package com.mindfit.api.service;
 
+import com.mindfit.api.common.exception.LlmUnavailableException;
 import com.mindfit.api.dto.ChatRequest;
 import com.mindfit.api.dto.ChatResponse;
 import com.mindfit.api.dto.RecommendationAction;
@@ -7,20 +8,27 @@ import com.mindfit.api.dto.WorkoutRecommendationData;
 import com.mindfit.api.dto.MealRecommendationData;
 import com.mindfit.api.dto.ExerciseRegisterCreateRequest;
 import com.mindfit.api.dto.MealRegisterCreateRequest;
-import com.mindfit.api.model.User;
-import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.dto.UserActivityDigest;
+import com.mindfit.api.dto.UserContext;
+import com.mindfit.api.enums.LlmCallType;
+import com.mindfit.api.model.UserAiState;
+import com.mindfit.api.repository.UserAiStateRepository;
+import com.mindfit.api.util.TokenEstimator;
 import com.mindfit.api.service.LogService;
 import com.mindfit.api.service.MealRegisterService;
-import com.mindfit.api.service.MeasurementsRegisterService;
 import com.mindfit.api.service.ExerciseRegisterService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -31,62 +39,70 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.List;
 import java.util.ArrayList;
-import org.springframework.data.domain.PageRequest;
 
 @Service
 @RequiredArgsConstructor
 public class ChatbotService {
 
-    private final OpenAiChatModel openAiChatModel;
-    private final UserRepository userRepository;
+    private final LlmGateway llmGateway;
+    private final UserAiStateRepository userAiStateRepository;
     private final LogService logService;
     private final MealRegisterService mealRegisterService;
-    private final MeasurementsRegisterService measurementsRegisterService;
     private final ExerciseRegisterService exerciseRegisterService;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
     private final ObjectMapper objectMapper;
-    private final Map<String, Deque<String>> conversations = new ConcurrentHashMap<>();
-    private static final int MAX_TURNS = 10; // mantém as últimas 10 interações usuário-assistente
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor chatSummaryExecutor;
+    private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+    private static final int MAX_TURNS = 10; // teto de segurança para interações ainda não resumidas
+    private static final String FALLBACK_REPLY = "No momento não consigo consultar o assistente. " +
+            "Tente novamente em alguns instantes; seus registros e recomendações salvas continuam disponíveis.";
+
+    private static final String SYSTEM_PREAMBLE = "You are a certified nutrition specialist and dietitian. " +
+            "Provide evidence-based, safe, and practical guidance on nutrition, meal planning, " +
+            "sports nutrition, weight management, and dietary restrictions or allergies. " +
+            "Give direct and personalized answers based on the user's profile when available. " +
+            "If the topic requires medical diagnosis or treatment, recommend consulting a healthcare professional.\n" +
+            "Style and length requirements (must follow):\n" +
+            "- Be concise and actionable.\n" +
+            "- Default to 3-5 short bullet points OR 2–4 short sentences.\n" +
+            "- Keep responses under 120 words unless the user explicitly asks for more.\n" +
+            "- Use the same language as the latest user message; if unclear, use English.\n" +
+            "- Do not translate the user's text unless asked.\n" +
+            "- Avoid preambles and pleasantries; get straight to the point.";
+
+    private static final String PROFILE_HEADER = "USER PROFILE (use this information to personalize your responses):\n";
+    private static final String SUMMARY_HEADER = "Summary of earlier conversation:\n";
+    private static final String TURNS_HEADER = "Conversation so far:\n";
+    private static final int SECTION_SEPARATOR_TOKENS = TokenEstimator.estimate("\n\n");
+
+    @Value("${app.chatbot.prompt-token-budget:1500}")
+    private int promptTokenBudget;
+
+    @Value("${app.chatbot.profile-token-budget:450}")
+    private int profileTokenBudget;
+
+    @Value("${app.chatbot.summary-trigger-tokens:600}")
+    private int summaryTriggerTokens;
+
+    @Value("${app.chatbot.recent-turns-kept:2}")
+    private int recentTurnsKept;
 
     public ChatResponse chat(String userId, ChatRequest request) {
-        Deque<String> history = conversations.computeIfAbsent(userId, k -> new ArrayDeque<>());
+        Conversation conversation = conversations.computeIfAbsent(userId, k -> new Conversation());
         
     // Busca o perfil do usuário para personalizar; gera um novo se estiver vazio e for a primeira mensagem
         String userProfile = getUserProfile(userId);
-        if ((userProfile == null || userProfile.trim().isEmpty()) && history.isEmpty()) {
+        if ((userProfile == null || userProfile.trim().isEmpty()) && conversation.isEmpty()) {
             userProfile = generateUserProfile(userId);
         }
-        
-        String systemPreamble = "You are a certified nutrition specialist and dietitian. " +
-                "Provide evidence-based, safe, and practical guidance on nutrition, meal planning, " +
-                "sports nutrition, weight management, and dietary restrictions or allergies. " +
-                "Give direct and personalized answers based on the user's profile when available. " +
-                "If the topic requires medical diagnosis or treatment, recommend consulting a healthcare professional.\n" +
-                "Style and length requirements (must follow):\n" +
-                "- Be concise and actionable.\n" +
-                "- Default to 3-5 short bullet points OR 2–4 short sentences.\n" +
-                "- Keep responses under 120 words unless the user explicitly asks for more.\n" +
-                "- Use the same language as the latest user message; if unclear, use English.\n" +
-                "- Do not translate the user's text unless asked.\n" +
-                "- Avoid preambles and pleasantries; get straight to the point.";
-
-    // Monta o histórico da conversa
-        StringBuilder convo = new StringBuilder();
-        convo.append(systemPreamble).append("\n\n");
-        
-    // Acrescenta o perfil do usuário, se existir
-        if (userProfile != null && !userProfile.trim().isEmpty()) {
-            convo.append("USER PROFILE (use this information to personalize your responses):\n");
-            convo.append(userProfile).append("\n\n");
-        }
-        if (!history.isEmpty()) {
-            convo.append("Conversation so far:\n");
-            for (String turn : history) {
-                convo.append(turn).append("\n");
-            }
-            convo.append("\n");
-        }
+
+        String systemContent = buildSystemContent(conversation, userProfile, request.prompt());
+
     // Monta o prompt com parâmetros que favorecem respostas curtas e consistentes
         OpenAiChatOptions options = OpenAiChatOptions.builder()
                 .temperature(0.2)
@@ -95,26 +111,29 @@ public class ChatbotService {
 
         Prompt prompt = new Prompt(
                 java.util.List.of(
-                        new SystemMessage(convo.toString()),
+                        new SystemMessage(systemContent),
                         new UserMessage(request.prompt())
                 ),
                 options
         );
 
-        org.springframework.ai.chat.model.ChatResponse aiResponse = openAiChatModel.call(prompt);
+        org.springframework.ai.chat.model.ChatResponse aiResponse;
+        try {
+            aiResponse = llmGateway.call(LlmCallType.CHAT, prompt);
+        } catch (LlmUnavailableException e) {
+            // Provedor lento ou fora do ar: responde com uma mensagem padrão sem registrar o turno
+            logService.logError("CHATBOT_SERVICE", "LLM unavailable, serving fallback reply", e.getMessage());
+            return new ChatResponse(FALLBACK_REPLY, List.of());
+        }
         String response = aiResponse.getResult().getOutput().getText();
+        recordPromptTokens(aiResponse, TokenEstimator.estimate(systemContent) + TokenEstimator.estimate(request.prompt()));
 
     // Aplica uma camada extra para manter a resposta concisa
         String concise = trimResponse(response, 120);
 
     // Salva a nova interação; cada turno gera duas entradas: Usuário e Assistente
-        history.addLast("User: " + request.prompt());
-        history.addLast("Assistant: " + concise);
-
-        // Limita o histórico às últimas MAX_TURNS interações (2 entradas por turno)
-        while (history.size() > MAX_TURNS * 2) {
-            history.pollFirst(); // remove a entrada mais antiga
-        }
+        conversation.append("User: " + request.prompt(), "Assistant: " + concise);
+        scheduleCompactionIfNeeded(userId, conversation);
 
         // Detecta solicitações de recomendação e gera ações correspondentes
         List<RecommendationAction> actions = detectAndGenerateRecommendations(userId, request.prompt(), concise);
@@ -125,31 +144,229 @@ public class ChatbotService {
     public void clearHistory(String userId) {
         conversations.remove(userId);
     }
-    
+
+    /**
+     * Monta o conteúdo do SystemMessage respeitando o orçamento de tokens:
+     * preâmbulo e mensagem atual são fixos, o perfil é truncado à sua cota,
+     * e o resumo acumulado e os turnos mais recentes preenchem o restante.
+     * Cabeçalhos e quebras de linha de cada seção também são descontados do orçamento.
+     */
+    private String buildSystemContent(Conversation conversation, String userProfile, String userPrompt) {
+        StringBuilder convo = new StringBuilder();
+        convo.append(SYSTEM_PREAMBLE).append("\n\n");
+        int remaining = promptTokenBudget - TokenEstimator.estimate(SYSTEM_PREAMBLE) - SECTION_SEPARATOR_TOKENS
+                - TokenEstimator.estimate(userPrompt);
+
+    // Acrescenta o perfil do usuário, se existir
+        int profileRoom = remaining - TokenEstimator.estimate(PROFILE_HEADER) - SECTION_SEPARATOR_TOKENS;
+        if (userProfile != null && !userProfile.trim().isEmpty() && profileRoom > 0) {
+            String profile = TokenEstimator.truncate(userProfile.trim(), Math.min(profileTokenBudget, profileRoom));
+            convo.append(PROFILE_HEADER).append(profile).append("\n\n");
+            remaining = profileRoom - TokenEstimator.estimate(profile);
+        }
+
+        ConversationSnapshot snapshot = conversation.snapshot();
+        int summaryRoom = remaining - TokenEstimator.estimate(SUMMARY_HEADER) - SECTION_SEPARATOR_TOKENS;
+        if (snapshot.summary() != null && summaryRoom > 0) {
+            String summary = TokenEstimator.truncate(snapshot.summary(), summaryRoom);
+            convo.append(SUMMARY_HEADER).append(summary).append("\n\n");
+            remaining = summaryRoom - TokenEstimator.estimate(summary);
+        }
+
+        // Inclui os turnos do mais recente para o mais antigo enquanto couberem no orçamento
+        Deque<String> included = new ArrayDeque<>();
+        List<String> turns = snapshot.turns();
+        int turnsRoom = remaining - TokenEstimator.estimate(TURNS_HEADER) - 1;
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            int cost = TokenEstimator.estimate(turns.get(i)) + 1;
+            if (cost > turnsRoom) {
+                break;
+            }
+            included.addFirst(turns.get(i));
+            turnsRoom -= cost;
+        }
+        if (!included.isEmpty()) {
+            convo.append(TURNS_HEADER);
+            for (String turn : included) {
+                convo.append(turn).append("\n");
+            }
+            convo.append("\n");
+        }
+        return convo.toString();
+    }
+
+    private void recordPromptTokens(org.springframework.ai.chat.model.ChatResponse aiResponse, int estimatedTokens) {
+        Integer reported = null;
+        if (aiResponse.getMetadata() != null && aiResponse.getMetadata().getUsage() != null) {
+            reported = aiResponse.getMetadata().getUsage().getPromptTokens();
+        }
+        boolean hasReported = reported != null && reported > 0;
+        DistributionSummary.builder("mindfit.chatbot.prompt.tokens")
+                .description("Prompt tokens sent per chatbot turn")
+                .tag("source", hasReported ? "provider" : "estimate")
+                .register(meterRegistry)
+                .record(hasReported ? reported : estimatedTokens);
+    }
+
+    /**
+     * Quando os turnos brutos ultrapassam o limite, os mais antigos são resumidos em segundo plano.
+     * Apenas uma compactação por conversa roda por vez; os turnos continuam utilizáveis enquanto isso.
+     */
+    private void scheduleCompactionIfNeeded(String userId, Conversation conversation) {
+        List<String> toFold = conversation.beginCompaction(summaryTriggerTokens, recentTurnsKept * 2);
+        if (toFold == null) {
+            return;
+        }
+        try {
+            chatSummaryExecutor.execute(() -> compact(userId, conversation, toFold));
+        } catch (RejectedExecutionException e) {
+            conversation.abortCompaction();
+        }
+    }
+
+    private void compact(String userId, Conversation conversation, List<String> toFold) {
+        try {
+            String previousSummary = conversation.snapshot().summary();
+            StringBuilder summaryPrompt = new StringBuilder();
+            summaryPrompt.append("Update the running summary of a conversation between a user and a nutrition assistant.\n");
+            summaryPrompt.append("Keep facts about the user's goals, preferences, restrictions, decisions and open questions. ");
+            summaryPrompt.append("Drop greetings and repeated advice. Maximum 120 words. Write in the language of the conversation.\n\n");
+            if (previousSummary != null) {
+                summaryPrompt.append("CURRENT SUMMARY:\n").append(previousSummary).append("\n\n");
+            }
+            summaryPrompt.append("NEW TURNS TO FOLD IN:\n");
+            toFold.forEach(turn -> summaryPrompt.append(turn).append("\n"));
+            summaryPrompt.append("\nRespond only with the updated summary.");
+
+            OpenAiChatOptions options = OpenAiChatOptions.builder()
+                    .temperature(0.1)
+                    .maxTokens(200)
+                    .build();
+
+            Prompt prompt = new Prompt(java.util.List.of(new UserMessage(summaryPrompt.toString())), options);
+            String summary = llmGateway.call(LlmCallType.SUMMARY, prompt).getResult().getOutput().getText();
+
+            if (summary != null && !summary.isBlank()) {
+                conversation.completeCompaction(summary.trim(), toFold);
+                meterRegistry.counter("mindfit.chatbot.history.compactions").increment();
+            } else {
+                conversation.abortCompaction();
+            }
+        } catch (Exception e) {
+            conversation.abortCompaction();
+            logService.logError("CHATBOT_SERVICE", "Failed to compact conversation history for user: " + userId, e.getMessage());
+        }
+    }
+
+    private record ConversationSnapshot(String summary, List<String> turns) {}
+
+    /**
+     * Estado da conversa em memória: resumo acumulado dos turnos antigos mais os turnos recentes em texto bruto.
+     */
+    private static final class Conversation {
+
+        private final Deque<String> turns = new ArrayDeque<>();
+        private String summary;
+        private boolean compacting;
+
+        synchronized boolean isEmpty() {
+            return turns.isEmpty() && summary == null;
+        }
+
+        synchronized ConversationSnapshot snapshot() {
+            return new ConversationSnapshot(summary, List.copyOf(turns));
+        }
+
+        synchronized void append(String userTurn, String assistantTurn) {
+            turns.addLast(userTurn);
+            turns.addLast(assistantTurn);
+            // Limita os turnos brutos caso a compactação esteja atrasada ou falhando
+            while (turns.size() > MAX_TURNS * 2) {
+                turns.pollFirst();
+            }
+        }
+
+        /**
+         * Retorna os turnos a resumir se o limite foi ultrapassado e nenhuma compactação está em andamento.
+         */
+        synchronized List<String> beginCompaction(int triggerTokens, int entriesToKeep) {
+            if (compacting || turns.size() <= entriesToKeep) {
+                return null;
+            }
+            int tokens = 0;
+            for (String turn : turns) {
+                tokens += TokenEstimator.estimate(turn);
+            }
+            if (tokens <= triggerTokens) {
+                return null;
+            }
+            List<String> toFold = new ArrayList<>(turns).subList(0, turns.size() - entriesToKeep);
+            compacting = true;
+            return List.copyOf(toFold);
+        }
+
+        synchronized void completeCompaction(String newSummary, List<String> folded) {
+            summary = newSummary;
+            // Remove por identidade apenas os turnos resumidos que ainda não foram descartados pelo teto
+            for (String turn : folded) {
+                turns.removeIf(existing -> existing == turn);
+            }
+            compacting = false;
+        }
+
+        synchronized void abortCompaction() {
+            compacting = false;
+        }
+    }
+
     private String getUserProfile(String userId) {
         try {
-            return userRepository.findById(userId)
-                    .map(User::getProfile)
-                    .orElse(null);
+            return userAiStateRepository.findProfileByUserId(userId).orElse(null);
         } catch (Exception e) {
             logService.logError("CHATBOT_SERVICE", "Failed to retrieve user profile", e.getMessage());
             return null;
         }
     }
 
+    private void saveProfile(String userId, String profile) {
+        if (userAiStateRepository.updateProfile(userId, profile) == 0) {
+            try {
+                userAiStateRepository.saveAndFlush(new UserAiState(userId, profile));
+            } catch (DataIntegrityViolationException e) {
+                // Outra geração criou a linha ao mesmo tempo
+                userAiStateRepository.updateProfile(userId, profile);
+            }
+        }
+    }
+
     public String generateUserProfile(String userId) {
         return generateUserProfile(userId, "Generate initial profile based on user registration data.");
     }
     
+    /**
+     * Regenera o perfil sem novas observações apenas se houve registros novos desde a última geração.
+     */
+    public void refreshUserProfileIfStale(String userId) {
+        long contextVersion = contextVersionService.current(userId);
+        boolean upToDate = contextVersionService.profileVersion(userId)
+                .map(version -> version == contextVersion)
+                .orElse(false);
+        if (!upToDate) {
+            generateUserProfile(userId, "");
+        }
+    }
+
     public String generateUserProfile(String userId, String observations) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
+            long contextVersion = contextVersionService.current(userId);
+            // Usuário e registros recentes chegam na mesma consulta quando o resumo ainda não está em memória
+            UserContext user = activityDigestService.getUserContext(userId).orElse(null);
             if (user == null) {
                 return null;
             }
             
             // Só gera o perfil se houver dados relevantes no cadastro
-            if (user.getName() == null || user.getName().trim().isEmpty()) {
+            if (user.name() == null || user.name().trim().isEmpty()) {
                 return null;
             }
             
@@ -157,7 +374,7 @@ public class ChatbotService {
             StringBuilder profileBuilder = new StringBuilder();
             
             // Reaproveita o perfil existente, caso haja
-            String existingProfile = user.getProfile();
+            String existingProfile = user.profile();
             if (existingProfile != null && !existingProfile.trim().isEmpty()) {
                 profileBuilder.append("CURRENT USER PROFILE:\n");
                 profileBuilder.append(existingProfile);
@@ -168,12 +385,12 @@ public class ChatbotService {
             
             // Acrescenta informações básicas do usuário
             profileBuilder.append("USER INFORMATION:\n");
-            profileBuilder.append("Name: ").append(user.getName());
-            profileBuilder.append(", Email: ").append(user.getEmail());
+            profileBuilder.append("Name: ").append(user.name());
+            profileBuilder.append(", Email: ").append(user.email());
             
             // Inclui o sexo para direcionar orientações nutricionais
-            if (user.getSex() != null) {
-                String sexDisplay = switch (user.getSex()) {
+            if (user.sex() != null) {
+                String sexDisplay = switch (user.sex()) {
                     case MALE -> "Male";
                     case FEMALE -> "Female";
                     case NOT_INFORMED -> "Gender not specified";
@@ -182,85 +399,95 @@ public class ChatbotService {
             }
             
             // Calcula idade a partir da data de nascimento
-            if (user.getBirthDate() != null) {
-                int age = Period.between(user.getBirthDate(), LocalDate.now()).getYears();
+            if (user.birthDate() != null) {
+                int age = Period.between(user.birthDate(), LocalDate.now()).getYears();
                 profileBuilder.append(", Age: ").append(age).append(" years");
             }
             
             profileBuilder.append("\n\n");
             
+            UserActivityDigest digest = activityDigestService.getDigest(userId);
+
             // Acrescenta dados recentes de medições
-            try {
-                var measurements = measurementsRegisterService.findByUserId(userId, PageRequest.of(0, 10));
-                if (measurements.hasContent()) {
-                    profileBuilder.append("RECENT MEASUREMENTS:\n");
-                    measurements.getContent().forEach(measurement -> {
-                        profileBuilder.append("- Weight: ").append(measurement.weightInKG()).append(" kg (ITS KILOS NOT POUNDS)");
-                        if (measurement.heightInCM() != null) {
-                            profileBuilder.append(", Height: ").append(measurement.heightInCM()).append(" cm");
-                        }
-                        profileBuilder.append(" (").append(measurement.timestamp()).append(")\n");
-                    });
-                    profileBuilder.append("\n");
-                }
-            } catch (Exception e) {
-                // Prossegue mesmo sem medições
+            if (!digest.recentMeasurements().isEmpty()) {
+                profileBuilder.append("RECENT MEASUREMENTS:\n");
+                digest.recentMeasurements().forEach(measurement -> {
+                    profileBuilder.append("- Weight: ").append(measurement.weightInKG()).append(" kg (ITS KILOS NOT POUNDS)");
+                    if (measurement.heightInCM() != null) {
+                        profileBuilder.append(", Height: ").append(measurement.heightInCM()).append(" cm");
+                    }
+                    profileBuilder.append(" (").append(measurement.timestamp()).append(")\n");
+                });
+                profileBuilder.append("\n");
             }
-            
+
             // Acrescenta refeições recentes e análise de horários
-            try {
-                var meals = mealRegisterService.findByUserId(userId, PageRequest.of(0, 20));
-                if (meals.hasContent()) {
-                    profileBuilder.append("RECENT MEALS:\n");
-                    meals.getContent().forEach(meal -> {
-                        profileBuilder.append("- ").append(meal.name())
-                                .append(" (").append(meal.calories()).append(" kcal");
-                        if (meal.carbo() != null) profileBuilder.append(", ").append(meal.carbo()).append("g carbs");
-                        if (meal.protein() != null) profileBuilder.append(", ").append(meal.protein()).append("g protein");
-                        if (meal.fat() != null) profileBuilder.append(", ").append(meal.fat()).append("g fat");
+            if (!digest.recentMeals().isEmpty()) {
+                profileBuilder.append("RECENT MEALS:\n");
+                digest.recentMeals().forEach(meal -> {
+                    profileBuilder.append("- ").append(meal.name())
+                            .append(" (").append(meal.calories()).append(" kcal");
+                    if (meal.carbo() != null) profileBuilder.append(", ").append(meal.carbo()).append("g carbs");
+                    if (meal.protein() != null) profileBuilder.append(", ").append(meal.protein()).append("g protein");
+                    if (meal.fat() != null) profileBuilder.append(", ").append(meal.fat()).append("g fat");
+                    if (meal.timestamp() != null) {
                         profileBuilder.append(", at ").append(meal.timestamp().format(DateTimeFormatter.ofPattern("HH:mm")));
-                        profileBuilder.append(")\n");
-                    });
-                    profileBuilder.append("\n");
-
-                    // Orienta a análise de padrões de horário das refeições
-                    profileBuilder.append("MEAL TIMING ANALYSIS:\n");
-                    profileBuilder.append("Analyze the times above to identify patterns: ");
-                    profileBuilder.append("What are the user's typical breakfast, lunch, dinner, and snack times? ");
-                    profileBuilder.append("Are they an early morning eater or prefer later meals? ");
-                    profileBuilder.append("Do they have consistent meal schedules?\n\n");
+                    }
+                    profileBuilder.append(")\n");
+                });
+                profileBuilder.append("\n");
+
+                // Orienta a análise de padrões de horário das refeições
+                profileBuilder.append("MEAL TIMING ANALYSIS:\n");
+                String mealHours = UserActivityDigest.formatHourHistogram(digest.mealHourHistogram());
+                if (!mealHours.isEmpty()) {
+                    profileBuilder.append("Meals per hour of day (last 30 days): ").append(mealHours).append("\n");
                 }
-            } catch (Exception e) {
-                // Prossegue mesmo sem dados de refeições
+                profileBuilder.append("Analyze the times above to identify patterns: ");
+                profileBuilder.append("What are the user's typical breakfast, lunch, dinner, and snack times? ");
+                profileBuilder.append("Are they an early morning eater or prefer later meals? ");
+                profileBuilder.append("Do they have consistent meal schedules?\n\n");
             }
 
             // Acrescenta exercícios recentes e análise de horários
-            try {
-                var exercises = exerciseRegisterService.findByUserId(userId, PageRequest.of(0, 15));
-                if (exercises.hasContent()) {
-                    profileBuilder.append("RECENT EXERCISES:\n");
-                    exercises.getContent().forEach(exercise -> {
-                        profileBuilder.append("- ").append(exercise.name());
-                        if (exercise.durationInMinutes() != null) {
-                            profileBuilder.append(" (").append(exercise.durationInMinutes()).append(" min");
-                        }
-                        if (exercise.caloriesBurnt() != null) {
-                            profileBuilder.append(", ").append(exercise.caloriesBurnt()).append(" kcal burned");
-                        }
+            if (!digest.recentExercises().isEmpty()) {
+                profileBuilder.append("RECENT EXERCISES:\n");
+                digest.recentExercises().forEach(exercise -> {
+                    profileBuilder.append("- ").append(exercise.name());
+                    if (exercise.durationInMinutes() != null) {
+                        profileBuilder.append(" (").append(exercise.durationInMinutes()).append(" min");
+                    }
+                    if (exercise.caloriesBurnt() != null) {
+                        profileBuilder.append(", ").append(exercise.caloriesBurnt()).append(" kcal burned");
+                    }
+                    if (exercise.timestamp() != null) {
                         profileBuilder.append(", at ").append(exercise.timestamp().format(DateTimeFormatter.ofPattern("HH:mm")));
-                        profileBuilder.append(")\n");
-                    });
-                    profileBuilder.append("\n");
-
-                    // Orienta a análise de padrões de horário dos treinos
-                    profileBuilder.append("EXERCISE TIMING ANALYSIS:\n");
-                    profileBuilder.append("Analyze the workout times above to identify patterns: ");
-                    profileBuilder.append("Is this user a morning, afternoon, or evening exerciser? ");
-                    profileBuilder.append("What intensity levels work best at different times? ");
-                    profileBuilder.append("Do they prefer consistent workout schedules or vary their timing?\n\n");
+                    }
+                    profileBuilder.append(")\n");
+                });
+                profileBuilder.append("\n");
+
+                // Orienta a análise de padrões de horário dos treinos
+                profileBuilder.append("EXERCISE TIMING ANALYSIS:\n");
+                String workoutHours = UserActivityDigest.formatHourHistogram(digest.workoutHourHistogram());
+                if (!workoutHours.isEmpty()) {
+                    profileBuilder.append("Workouts per hour of day (last 30 days): ").append(workoutHours).append("\n");
                 }
-            } catch (Exception e) {
-                // Prossegue mesmo sem dados de exercícios
+                profileBuilder.append("Analyze the workout times above to identify patterns: ");
+                profileBuilder.append("Is this user a morning, afternoon, or evening exerciser? ");
+                profileBuilder.append("What intensity levels work best at different times? ");
+                profileBuilder.append("Do they prefer consistent workout schedules or vary their timing?\n\n");
+            }
+
+            // Acrescenta os totais diários já consolidados no resumo de atividade
+            if (!digest.dailyTotals().isEmpty()) {
+                profileBuilder.append("DAILY TOTALS (last 7 days):\n");
+                digest.dailyTotals().forEach(day -> profileBuilder.append("- ").append(day.date())
+                        .append(": ").append(day.caloriesConsumed()).append(" kcal in, ")
+                        .append(String.format("%.0fg carbs, %.0fg protein, %.0fg fat, ", day.carbo(), day.protein(), day.fat()))
+                        .append(day.caloriesBurnt()).append(" kcal burned in ")
+                        .append(day.exerciseMinutes()).append(" min\n"));
+                profileBuilder.append("\n");
             }
             
             // Acrescenta as novas observações
@@ -293,12 +520,12 @@ public class ChatbotService {
                     options
             );
             
-            org.springframework.ai.chat.model.ChatResponse aiResponse = openAiChatModel.call(prompt);
+            org.springframework.ai.chat.model.ChatResponse aiResponse = llmGateway.call(LlmCallType.PROFILE, prompt);
             String generatedProfile = aiResponse.getResult().getOutput().getText();
             
             // Salva o perfil gerado no cadastro do usuário
-            user.setProfile(generatedProfile);
-            userRepository.save(user);
+            saveProfile(userId, generatedProfile);
+            contextVersionService.markProfileBuilt(userId, contextVersion);
             
             return generatedProfile;
         } catch (Exception e) {
@@ -372,7 +599,7 @@ public class ChatbotService {
                     options
             );
 
-            org.springframework.ai.chat.model.ChatResponse aiResponse = openAiChatModel.call(prompt);
+            org.springframework.ai.chat.model.ChatResponse aiResponse = llmGateway.call(LlmCallType.INTENT, prompt);
             return aiResponse.getResult().getOutput().getText().trim();
         } catch (Exception e) {
             logService.logError("CHATBOT_SERVICE", "Failed to detect intent with AI", e.getMessage());
@@ -417,7 +644,7 @@ public class ChatbotService {
                     options
             );
 
-            org.springframework.ai.chat.model.ChatResponse aiResponse = openAiChatModel.call(prompt);
+            org.springframework.ai.chat.model.ChatResponse aiResponse = llmGateway.call(LlmCallType.RECOMMENDATION, prompt);
             String response = aiResponse.getResult().getOutput().getText();
 
             return parseWorkoutRecommendations(response);
@@ -441,7 +668,7 @@ public class ChatbotService {
                     options
             );
 
-            org.springframework.ai.chat.model.ChatResponse aiResponse = openAiChatModel.call(prompt);
+            org.springframework.ai.chat.model.ChatResponse aiResponse = llmGateway.call(LlmCallType.RECOMMENDATION, prompt);
             String response = aiResponse.getResult().getOutput().getText();
 
             return parseMealRecommendations(response);
@@ -0,0 +1,82 @@
+package com.mindfit.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindfit.api.config.PrimaryReadPins;
+import com.mindfit.api.model.UserContextVersion;
+import com.mindfit.api.repository.UserContextVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Versão do contexto de cada usuário: um contador incrementado a cada criação, alteração ou exclusão
+ * de registro de refeição, exercício ou medida. Recomendações e perfil guardam a versão a partir da
+ * qual foram gerados; enquanto ela não muda, regerá-los só repetiria o mesmo prompt.
+ */
+@Service
+@RequiredArgsConstructor
+public class ContextVersionService {
+
+    private final UserContextVersionRepository userContextVersionRepository;
+    private final PrimaryReadPins primaryReadPins;
+
+    @Value("${app.context-version.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${app.context-version.cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, Long> versions;
+
+    @PostConstruct
+    void init() {
+        // O ttl limita quanto tempo outra instância leva para enxergar um incremento feito aqui
+        versions = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    public long current(String userId) {
+        return versions.get(userId, id -> userContextVersionRepository.findById(id)
+                .map(UserContextVersion::getContextVersion)
+                .orElse(0L));
+    }
+
+    public void bump(String userId) {
+        if (userContextVersionRepository.incrementContextVersion(userId) == 0) {
+            try {
+                userContextVersionRepository.saveAndFlush(new UserContextVersion(userId, 1));
+            } catch (DataIntegrityViolationException e) {
+                // Outra requisição criou a linha ao mesmo tempo
+                userContextVersionRepository.incrementContextVersion(userId);
+            }
+        }
+        versions.invalidate(userId);
+        // As próximas listagens e relatórios de quem gravou leem do primário, não da réplica
+        primaryReadPins.pinCurrentUser();
+    }
+
+    public Optional<Long> profileVersion(String userId) {
+        return userContextVersionRepository.findById(userId)
+                .map(UserContextVersion::getProfileVersion);
+    }
+
+    public void markProfileBuilt(String userId, long version) {
+        if (userContextVersionRepository.updateProfileVersion(userId, version) == 0) {
+            UserContextVersion row = new UserContextVersion(userId, version);
+            row.setProfileVersion(version);
+            try {
+                userContextVersionRepository.saveAndFlush(row);
+            } catch (DataIntegrityViolationException e) {
+                userContextVersionRepository.updateProfileVersion(userId, version);
+            }
+        }
+    }
+}
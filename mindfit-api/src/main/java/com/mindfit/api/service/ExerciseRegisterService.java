@@ -2,19 +2,26 @@ package com.mindfit.api.service;
 
 import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.ExerciseRegisterCreateRequest;
 import com.mindfit.api.dto.ExerciseRegisterDto;
+import com.mindfit.api.dto.ExerciseRegisterResponse;
 import com.mindfit.api.dto.ExerciseRegisterUpdateRequest;
 import com.mindfit.api.model.ExerciseRegister;
 import com.mindfit.api.repository.ExerciseRegisterRepository;
 import com.mindfit.api.mapper.ExerciseRegisterMapper;
+import com.mindfit.api.util.RegisterCursor;
 import com.mindfit.api.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
 
 
 @Service
@@ -23,8 +30,11 @@ public class ExerciseRegisterService {
 
     private final ExerciseRegisterRepository exerciseRegisterRepository;
     private final ExerciseRegisterMapper exerciseRegisterMapper;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
 
-    public Page<ExerciseRegisterDto> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ExerciseRegisterResponse> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
         if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
             throw new UnauthorizedException("Users can only view their own exercise registers");
         }
@@ -32,15 +42,34 @@ public class ExerciseRegisterService {
         if (startDate != null && endDate != null) {
             LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
             LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            return exerciseRegisterRepository.findByUserIdAndTimestampBetween(userId, start, end, pageable)
-                    .map(exerciseRegisterMapper::toDto);
+            return exerciseRegisterRepository.findResponsesByUserIdAndTimestampBetween(userId, start, end, pageable);
         }
         
-        return exerciseRegisterRepository.findByUserId(userId, pageable)
-                .map(exerciseRegisterMapper::toDto);
+        return exerciseRegisterRepository.findResponsesByUserId(userId, pageable);
     }
     
-    public Page<ExerciseRegisterDto> findByUserId(String userId, Pageable pageable) {
+    /**
+     * Newest-first page after {@code cursor}, without a COUNT query; pass the returned
+     * {@code nextCursor} to continue.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExerciseRegisterResponse> findFeed(String userId, String cursor, Integer limit) {
+        if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
+            throw new UnauthorizedException("Users can only view their own exercise registers");
+        }
+
+        int size = RegisterCursor.clampLimit(limit);
+        RegisterCursor after = RegisterCursor.decode(cursor);
+        List<ExerciseRegisterResponse> rows = after == null
+                ? exerciseRegisterRepository.findResponsesByUserId(userId, Limit.of(size + 1))
+                : exerciseRegisterRepository.findResponsesAfter(userId, after.timestamp(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size,
+                row -> new RegisterCursor(row.timestamp(), row.id()).encode(),
+                Function.identity());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ExerciseRegisterResponse> findByUserId(String userId, Pageable pageable) {
         return findByUserId(userId, null, null, pageable);
     }
 
@@ -68,7 +97,10 @@ public class ExerciseRegisterService {
             exerciseRegister.setTimestamp(LocalDateTime.now());
         }
 
-        return exerciseRegisterMapper.toDto(exerciseRegisterRepository.save(exerciseRegister));
+        ExerciseRegisterDto saved = exerciseRegisterMapper.toDto(exerciseRegisterRepository.save(exerciseRegister));
+        activityDigestService.onExerciseSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public ExerciseRegisterDto update(String id, ExerciseRegisterUpdateRequest request) {
@@ -82,7 +114,10 @@ public class ExerciseRegisterService {
         exerciseRegisterMapper.updateEntity(request, exerciseRegister);
         exerciseRegister = exerciseRegisterRepository.save(exerciseRegister);
 
-        return exerciseRegisterMapper.toDto(exerciseRegister);
+        ExerciseRegisterDto saved = exerciseRegisterMapper.toDto(exerciseRegister);
+        activityDigestService.onExerciseSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public void delete(String id) {
@@ -94,5 +129,7 @@ public class ExerciseRegisterService {
         }
         
         exerciseRegisterRepository.deleteById(id);
+        activityDigestService.onExerciseDeleted(exerciseRegisterMapper.toDto(exerciseRegister));
+        contextVersionService.bump(exerciseRegister.getUserId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.common.exception.LlmUnavailableException;
+import com.mindfit.api.enums.LlmCallType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ponto único de saída para o modelo de linguagem.
+ * As chamadas rodam no executor dedicado (limite de chamadas simultâneas), respeitam um prazo por tipo
+ * de chamada e passam por um circuit breaker; quando o provedor está lento ou fora, a requisição
+ * falha rápido com {@link LlmUnavailableException} em vez de prender threads do Tomcat.
+ */
+@Service
+@RequiredArgsConstructor
+public class LlmGateway {
+
+    private final ChatModel chatModel;
+    private final ThreadPoolTaskExecutor llmExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.llm.deadlines.chat-ms:10000}")
+    private long chatDeadlineMs;
+
+    @Value("${app.llm.deadlines.intent-ms:5000}")
+    private long intentDeadlineMs;
+
+    @Value("${app.llm.deadlines.recommendation-ms:25000}")
+    private long recommendationDeadlineMs;
+
+    @Value("${app.llm.deadlines.profile-ms:25000}")
+    private long profileDeadlineMs;
+
+    @Value("${app.llm.deadlines.summary-ms:20000}")
+    private long summaryDeadlineMs;
+
+    @Value("${app.llm.max-streams:8}")
+    private int maxStreams;
+
+    @Value("${app.llm.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.llm.circuit-breaker.open-ms:30000}")
+    private long openMs;
+
+    private CircuitBreaker circuitBreaker;
+    private Semaphore streamPermits;
+
+    @PostConstruct
+    void init() {
+        circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+        streamPermits = new Semaphore(maxStreams);
+        meterRegistry.gauge("mindfit.llm.in.flight", llmExecutor, ThreadPoolTaskExecutor::getActiveCount);
+        meterRegistry.gauge("mindfit.llm.queue.size", llmExecutor, executor -> executor.getThreadPoolExecutor().getQueue().size());
+        meterRegistry.gauge("mindfit.llm.circuit.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0);
+    }
+
+    public ChatResponse call(LlmCallType type, Prompt prompt) {
+        String tag = type.name().toLowerCase();
+        if (!circuitBreaker.tryAcquire()) {
+            meterRegistry.counter("mindfit.llm.rejections", "type", tag, "reason", "circuit_open").increment();
+            throw new LlmUnavailableException("LLM circuit breaker is open", circuitBreaker.retryAfterSeconds());
+        }
+
+        long enqueuedAt = System.nanoTime();
+        Future<ChatResponse> future;
+        try {
+            future = llmExecutor.submit(() -> {
+                meterRegistry.timer("mindfit.llm.queue.wait", "type", tag)
+                        .record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return chatModel.call(prompt);
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.release();
+            meterRegistry.counter("mindfit.llm.rejections", "type", tag, "reason", "bulkhead").increment();
+            throw new LlmUnavailableException("LLM execution lane is full", 1, e);
+        }
+
+        // O prazo conta a partir da submissão, incluindo o tempo de espera na fila
+        long deadlineMs = deadlineFor(type);
+        String outcome = "error";
+        try {
+            ChatResponse response = future.get(deadlineMs, TimeUnit.MILLISECONDS);
+            outcome = "success";
+            circuitBreaker.onSuccess();
+            return response;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            outcome = "timeout";
+            circuitBreaker.onFailure();
+            throw new LlmUnavailableException("LLM call exceeded the " + deadlineMs + " ms deadline for " + tag, 5, e);
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            throw new LlmUnavailableException("LLM call failed: " + e.getCause().getMessage(), 5, e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.release();
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Interrupted while waiting for the LLM", 1, e);
+        } finally {
+            recordDuration(tag, outcome, enqueuedAt);
+        }
+    }
+
+    /**
+     * Versão em streaming de {@link #call}: não ocupa threads do executor (o limite é um número de
+     * streams simultâneos), mas respeita o mesmo prazo por tipo e o mesmo circuit breaker.
+     */
+    public Flux<ChatResponse> stream(LlmCallType type, Prompt prompt) {
+        String tag = type.name().toLowerCase();
+        if (!circuitBreaker.tryAcquire()) {
+            meterRegistry.counter("mindfit.llm.rejections", "type", tag, "reason", "circuit_open").increment();
+            return Flux.error(new LlmUnavailableException("LLM circuit breaker is open", circuitBreaker.retryAfterSeconds()));
+        }
+        if (!streamPermits.tryAcquire()) {
+            circuitBreaker.release();
+            meterRegistry.counter("mindfit.llm.rejections", "type", tag, "reason", "bulkhead").increment();
+            return Flux.error(new LlmUnavailableException("LLM streaming lane is full", 1));
+        }
+
+        long deadlineMs = deadlineFor(type);
+        long startedAt = System.nanoTime();
+        long deadlineAt = startedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        // O prazo vale para o stream inteiro: cada chunk só tem o tempo que resta até ele
+        return chatModel.stream(prompt)
+                .timeout(Mono.delay(Duration.ofMillis(deadlineMs)),
+                        chunk -> Mono.delay(Duration.ofNanos(Math.max(0, deadlineAt - System.nanoTime()))))
+                .doOnComplete(() -> {
+                    circuitBreaker.onSuccess();
+                    recordDuration(tag, "success", startedAt);
+                })
+                .onErrorMap(e -> !(e instanceof LlmUnavailableException), e -> {
+                    boolean timeout = e instanceof TimeoutException;
+                    circuitBreaker.onFailure();
+                    recordDuration(tag, timeout ? "timeout" : "error", startedAt);
+                    return timeout
+                            ? new LlmUnavailableException("LLM stream exceeded the " + deadlineMs + " ms deadline for " + tag, 5, e)
+                            : new LlmUnavailableException("LLM stream failed: " + e.getMessage(), 5, e);
+                })
+                .doOnCancel(() -> {
+                    circuitBreaker.release();
+                    recordDuration(tag, "cancelled", startedAt);
+                })
+                .doFinally(signal -> streamPermits.release());
+    }
+
+    private void recordDuration(String tag, String outcome, long startedAt) {
+        Timer.builder("mindfit.llm.call.duration")
+                .tag("type", tag)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Ocupação atual da faixa de execução (chamadas em andamento + fila) em relação ao limite de chamadas simultâneas.
+     */
+    public double utilization() {
+        int busy = llmExecutor.getActiveCount() + llmExecutor.getThreadPoolExecutor().getQueue().size();
+        return (double) busy / llmExecutor.getMaxPoolSize();
+    }
+
+    private long deadlineFor(LlmCallType type) {
+        return switch (type) {
+            case CHAT -> chatDeadlineMs;
+            case INTENT -> intentDeadlineMs;
+            case RECOMMENDATION -> recommendationDeadlineMs;
+            case PROFILE -> profileDeadlineMs;
+            case SUMMARY -> summaryDeadlineMs;
+        };
+    }
+
+    /**
+     * Circuit breaker por falhas consecutivas: abre após N falhas, rejeita tudo durante o intervalo
+     * configurado e então deixa passar uma única chamada de teste (meio-aberto) para decidir se fecha.
+     */
+    private static class CircuitBreaker {
+
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openMs;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        CircuitBreaker(int failureThreshold, long openMs) {
+            this.failureThreshold = failureThreshold;
+            this.openMs = openMs;
+        }
+
+        synchronized boolean tryAcquire() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() - openedAt < openMs) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                default:
+                    if (probeInFlight) {
+                        return false;
+                    }
+                    probeInFlight = true;
+                    return true;
+            }
+        }
+
+        synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+            probeInFlight = false;
+        }
+
+        /**
+         * Devolve a permissão de uma chamada que não chegou ao provedor.
+         */
+        synchronized void release() {
+            probeInFlight = false;
+        }
+
+        synchronized boolean isOpen() {
+            return state == State.OPEN;
+        }
+
+        synchronized long retryAfterSeconds() {
+            long remainingMs = openMs - (System.currentTimeMillis() - openedAt);
+            return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMs));
+        }
+    }
+}
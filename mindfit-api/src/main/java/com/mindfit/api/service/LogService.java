@@ -6,16 +6,25 @@ import com.mindfit.api.common.exception.UnauthorizedException;
 import com.mindfit.api.util.SecurityUtil;
 import com.mindfit.api.dto.LogCreateRequest;
 import com.mindfit.api.dto.LogDto;
+import com.mindfit.api.dto.LogResponse;
 import com.mindfit.api.enums.LogType;
 import com.mindfit.api.model.Log;
 import com.mindfit.api.repository.LogRepository;
 import com.mindfit.api.mapper.LogMapper;
+import com.mindfit.api.util.UuidV7Generator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 
 
@@ -26,16 +35,25 @@ public class LogService {
 
     private final LogRepository logRepository;
     private final LogMapper logMapper;
+    @Qualifier("backgroundJdbcTemplate")
+    private final JdbcTemplate backgroundJdbcTemplate;
+    private final ThreadPoolTaskExecutor logWriterExecutor;
 
-    public Page<LogDto> findAll(Pageable pageable) {
+    private static final String INSERT_LOG =
+            "INSERT INTO logs (id, type, category, name, stack_trace, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Transactional(readOnly = true)
+    public Page<LogResponse> findAll(Pageable pageable) {
         return findAll(null, null, pageable);
     }
 
-    public Page<LogDto> findAll(String startDate, String endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<LogResponse> findAll(String startDate, String endDate, Pageable pageable) {
         return findAll(startDate, endDate, null, null, pageable);
     }
 
-    public Page<LogDto> findAll(String startDate, String endDate, String type, String category, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<LogResponse> findAll(String startDate, String endDate, String type, String category, Pageable pageable) {
         if (!SecurityUtil.isAdmin()) {
             throw new UnauthorizedException("Only admins can view logs");
         }
@@ -55,35 +73,28 @@ public class LogService {
             LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
 
             if (logType != null && category != null && !category.isBlank()) {
-                return logRepository.findByTypeAndCategoryAndTimestampBetween(logType, category, start, end, pageable)
-                        .map(logMapper::toDto);
+                return logRepository.findResponsesByTypeAndCategoryAndTimestampBetween(logType, category, start, end, pageable);
             }
             if (logType != null) {
-                return logRepository.findByTypeAndTimestampBetween(logType, start, end, pageable)
-                        .map(logMapper::toDto);
+                return logRepository.findResponsesByTypeAndTimestampBetween(logType, start, end, pageable);
             }
             if (category != null && !category.isBlank()) {
-                return logRepository.findByCategoryAndTimestampBetween(category, start, end, pageable)
-                        .map(logMapper::toDto);
+                return logRepository.findResponsesByCategoryAndTimestampBetween(category, start, end, pageable);
             }
-            return logRepository.findByTimestampBetween(start, end, pageable)
-                    .map(logMapper::toDto);
+            return logRepository.findResponsesByTimestampBetween(start, end, pageable);
         }
 
         if (logType != null && category != null && !category.isBlank()) {
-            return logRepository.findByTypeAndCategory(logType, category, pageable)
-                    .map(logMapper::toDto);
+            return logRepository.findResponsesByTypeAndCategory(logType, category, pageable);
         }
         if (logType != null) {
-            return logRepository.findByType(logType, pageable)
-                    .map(logMapper::toDto);
+            return logRepository.findResponsesByType(logType, pageable);
         }
         if (category != null && !category.isBlank()) {
-            return logRepository.findByCategory(category, pageable)
-                    .map(logMapper::toDto);
+            return logRepository.findResponsesByCategory(category, pageable);
         }
 
-        return logRepository.findAll(pageable).map(logMapper::toDto);
+        return logRepository.findResponses(pageable);
     }
 
     public LogDto findById(String id) {
@@ -107,7 +118,7 @@ public class LogService {
                 LocalDateTime.now()
             );
             // Cria o registro sem checagem de admin para permitir log automatizado
-            logRepository.save(logMapper.toEntity(request));
+            insert(request);
         } catch (Exception e) {
             log.error("Failed to log API call: {}", e.getMessage(), e);
         }
@@ -123,7 +134,7 @@ public class LogService {
                 LocalDateTime.now()
             );
             // Cria o registro sem checagem de admin para permitir log automatizado
-            logRepository.save(logMapper.toEntity(request));
+            insert(request);
         } catch (Exception e) {
             log.error("Failed to log error: {}", e.getMessage(), e);
         }
@@ -139,9 +150,33 @@ public class LogService {
                 LocalDateTime.now()
             );
             // Cria o registro sem checagem de admin para permitir log automatizado
-            logRepository.save(logMapper.toEntity(request));
+            insert(request);
         } catch (Exception e) {
             log.error("Failed to log warning: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Entrega a gravação ao logWriterExecutor: a thread da requisição não espera conexão do pool de
+     * segundo plano, e com a fila cheia o log é descartado. A gravação fica fora da transação de quem
+     * chama, então o log de um erro não é desfeito junto com o rollback que o causou.
+     */
+    private void insert(LogCreateRequest request) {
+        String id = UuidV7Generator.next().toString();
+        logWriterExecutor.execute(() -> write(id, request));
+    }
+
+    private void write(String id, LogCreateRequest request) {
+        try {
+            backgroundJdbcTemplate.update(INSERT_LOG,
+                    id,
+                    request.type().name(),
+                    request.category(),
+                    request.name(),
+                    new SqlParameterValue(Types.CLOB, request.stackTrace()),
+                    Timestamp.valueOf(request.timestamp()));
+        } catch (Exception e) {
+            log.error("Failed to write log {}: {}", request.name(), e.getMessage());
+        }
+    }
 }
@@ -2,19 +2,26 @@ package com.mindfit.api.service;
 
 import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.MealRegisterCreateRequest;
 import com.mindfit.api.dto.MealRegisterDto;
+import com.mindfit.api.dto.MealRegisterResponse;
 import com.mindfit.api.dto.MealRegisterUpdateRequest;
 import com.mindfit.api.model.MealRegister;
 import com.mindfit.api.repository.MealRegisterRepository;
 import com.mindfit.api.mapper.MealRegisterMapper;
+import com.mindfit.api.util.RegisterCursor;
 import com.mindfit.api.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
 
 
 @Service
@@ -23,8 +30,11 @@ public class MealRegisterService {
 
     private final MealRegisterRepository mealRegisterRepository;
     private final MealRegisterMapper mealRegisterMapper;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
 
-    public Page<MealRegisterDto> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<MealRegisterResponse> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
         if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
             throw new UnauthorizedException("Users can only view their own meal registers");
         }
@@ -32,15 +42,34 @@ public class MealRegisterService {
         if (startDate != null && endDate != null) {
             LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
             LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            return mealRegisterRepository.findByUserIdAndTimestampBetween(userId, start, end, pageable)
-                    .map(mealRegisterMapper::toDto);
+            return mealRegisterRepository.findResponsesByUserIdAndTimestampBetween(userId, start, end, pageable);
         }
         
-        return mealRegisterRepository.findByUserId(userId, pageable)
-                .map(mealRegisterMapper::toDto);
+        return mealRegisterRepository.findResponsesByUserId(userId, pageable);
     }
     
-    public Page<MealRegisterDto> findByUserId(String userId, Pageable pageable) {
+    /**
+     * Newest-first page after {@code cursor}, without a COUNT query; pass the returned
+     * {@code nextCursor} to continue.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MealRegisterResponse> findFeed(String userId, String cursor, Integer limit) {
+        if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
+            throw new UnauthorizedException("Users can only view their own meal registers");
+        }
+
+        int size = RegisterCursor.clampLimit(limit);
+        RegisterCursor after = RegisterCursor.decode(cursor);
+        List<MealRegisterResponse> rows = after == null
+                ? mealRegisterRepository.findResponsesByUserId(userId, Limit.of(size + 1))
+                : mealRegisterRepository.findResponsesAfter(userId, after.timestamp(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size,
+                row -> new RegisterCursor(row.timestamp(), row.id()).encode(),
+                Function.identity());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<MealRegisterResponse> findByUserId(String userId, Pageable pageable) {
         return findByUserId(userId, null, null, pageable);
     }
 
@@ -63,8 +92,11 @@ public class MealRegisterService {
         MealRegister mealRegister = mealRegisterMapper.toEntity(request);
         mealRegister.setUserId(userId);
         mealRegister = mealRegisterRepository.save(mealRegister);
-        
-        return mealRegisterMapper.toDto(mealRegister);
+
+        MealRegisterDto saved = mealRegisterMapper.toDto(mealRegister);
+        activityDigestService.onMealSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public MealRegisterDto update(String id, MealRegisterUpdateRequest request) {
@@ -77,8 +109,11 @@ public class MealRegisterService {
         
         mealRegisterMapper.updateEntity(request, mealRegister);
         mealRegister = mealRegisterRepository.save(mealRegister);
-        
-        return mealRegisterMapper.toDto(mealRegister);
+
+        MealRegisterDto saved = mealRegisterMapper.toDto(mealRegister);
+        activityDigestService.onMealSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public void delete(String id) {
@@ -90,5 +125,7 @@ public class MealRegisterService {
         }
         
         mealRegisterRepository.deleteById(id);
+        activityDigestService.onMealDeleted(mealRegisterMapper.toDto(mealRegister));
+        contextVersionService.bump(mealRegister.getUserId());
     }
 }
\ No newline at end of file
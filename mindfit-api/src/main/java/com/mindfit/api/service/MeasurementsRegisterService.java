@@ -2,19 +2,26 @@ package com.mindfit.api.service;
 
 import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.CursorPage;
 import com.mindfit.api.dto.MeasurementsRegisterCreateRequest;
 import com.mindfit.api.dto.MeasurementsRegisterDto;
+import com.mindfit.api.dto.MeasurementsRegisterResponse;
 import com.mindfit.api.dto.MeasurementsRegisterUpdateRequest;
 import com.mindfit.api.model.MeasurementsRegister;
 import com.mindfit.api.repository.MeasurementsRegisterRepository;
 import com.mindfit.api.mapper.MeasurementsRegisterMapper;
+import com.mindfit.api.util.RegisterCursor;
 import com.mindfit.api.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -22,8 +29,11 @@ public class MeasurementsRegisterService {
 
     private final MeasurementsRegisterRepository measurementsRegisterRepository;
     private final MeasurementsRegisterMapper measurementsRegisterMapper;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
 
-    public Page<MeasurementsRegisterDto> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<MeasurementsRegisterResponse> findByUserId(String userId, String startDate, String endDate, Pageable pageable) {
         String currentUserId = SecurityUtil.getCurrentUserId();
         boolean isAdmin = SecurityUtil.isAdmin();
         
@@ -34,15 +44,34 @@ public class MeasurementsRegisterService {
         if (startDate != null && endDate != null) {
             LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
             LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            return measurementsRegisterRepository.findByUserIdAndTimestampBetween(userId, start, end, pageable)
-                    .map(measurementsRegisterMapper::toDto);
+            return measurementsRegisterRepository.findResponsesByUserIdAndTimestampBetween(userId, start, end, pageable);
         }
         
-        return measurementsRegisterRepository.findByUserId(userId, pageable)
-                .map(measurementsRegisterMapper::toDto);
+        return measurementsRegisterRepository.findResponsesByUserId(userId, pageable);
     }
     
-    public Page<MeasurementsRegisterDto> findByUserId(String userId, Pageable pageable) {
+    /**
+     * Newest-first page after {@code cursor}, without a COUNT query; pass the returned
+     * {@code nextCursor} to continue.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MeasurementsRegisterResponse> findFeed(String userId, String cursor, Integer limit) {
+        if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
+            throw new UnauthorizedException("Users can only view their own measurements registers");
+        }
+
+        int size = RegisterCursor.clampLimit(limit);
+        RegisterCursor after = RegisterCursor.decode(cursor);
+        List<MeasurementsRegisterResponse> rows = after == null
+                ? measurementsRegisterRepository.findResponsesByUserId(userId, Limit.of(size + 1))
+                : measurementsRegisterRepository.findResponsesAfter(userId, after.timestamp(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size,
+                row -> new RegisterCursor(row.timestamp(), row.id()).encode(),
+                Function.identity());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<MeasurementsRegisterResponse> findByUserId(String userId, Pageable pageable) {
         return findByUserId(userId, null, null, pageable);
     }
 
@@ -71,7 +100,10 @@ public class MeasurementsRegisterService {
         MeasurementsRegister measurementsRegister = measurementsRegisterMapper.toEntity(request);
         measurementsRegister.setUserId(userId);
 
-        return measurementsRegisterMapper.toDto(measurementsRegisterRepository.save(measurementsRegister));
+        MeasurementsRegisterDto saved = measurementsRegisterMapper.toDto(measurementsRegisterRepository.save(measurementsRegister));
+        activityDigestService.onMeasurementSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public MeasurementsRegisterDto update(String id, MeasurementsRegisterUpdateRequest request) {
@@ -87,8 +119,11 @@ public class MeasurementsRegisterService {
         
         measurementsRegisterMapper.updateEntity(request, measurementsRegister);
         measurementsRegister = measurementsRegisterRepository.save(measurementsRegister);
-        
-        return measurementsRegisterMapper.toDto(measurementsRegister);
+
+        MeasurementsRegisterDto saved = measurementsRegisterMapper.toDto(measurementsRegister);
+        activityDigestService.onMeasurementSaved(saved);
+        contextVersionService.bump(saved.userId());
+        return saved;
     }
 
     public void delete(String id) {
@@ -103,5 +138,7 @@ public class MeasurementsRegisterService {
         }
         
         measurementsRegisterRepository.deleteById(id);
+        activityDigestService.onMeasurementDeleted(measurementsRegisterMapper.toDto(measurementsRegister));
+        contextVersionService.bump(measurementsRegister.getUserId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,266 @@
+package com.mindfit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindfit.api.dto.MealRecommendationData;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.WorkoutRecommendationData;
+import com.mindfit.api.dto.WorkoutRecommendationResponse;
+import com.mindfit.api.util.TokenEstimator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Substituto local do modelo da OpenAI para testes de carga e integração (perfil "offline-llm").
+ * Reconhece o tipo de prompt pelo texto e devolve JSON válido para refeições, treinos, intenção e perfil,
+ * simulando latência, streaming de tokens e falhas do provedor conforme a configuração.
+ */
+@Service
+@Primary
+@Profile("offline-llm")
+@RequiredArgsConstructor
+public class OfflineChatModel implements ChatModel {
+
+    private static final String MODEL_NAME = "offline-stand-in";
+    // z(0.99) da normal padrão, usado para derivar o sigma da lognormal a partir do p99
+    private static final double Z_99 = 2.326;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.offline-llm.latency.distribution:lognormal}")
+    private String latencyDistribution;
+
+    @Value("${app.offline-llm.latency.median-ms:800}")
+    private long medianLatencyMs;
+
+    @Value("${app.offline-llm.latency.p99-ms:4000}")
+    private long p99LatencyMs;
+
+    @Value("${app.offline-llm.latency.token-ms:15}")
+    private long tokenIntervalMs;
+
+    @Value("${app.offline-llm.failure-rate:0.0}")
+    private double failureRate;
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String text = generate(prompt);
+        long firstTokenMs = sampleLatencyMs();
+
+        if (shouldFail()) {
+            sleep(firstTokenMs);
+            throw new TransientAiException("Simulated upstream failure from offline LLM");
+        }
+
+        sleep(firstTokenMs + tokenIntervalMs * TokenEstimator.estimate(text));
+        return response(text, prompt, text);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        String text = generate(prompt);
+        Duration firstToken = Duration.ofMillis(sampleLatencyMs());
+
+        if (shouldFail()) {
+            return Mono.delay(firstToken)
+                    .then(Mono.<ChatResponse>error(new TransientAiException("Simulated upstream failure from offline LLM")))
+                    .flux();
+        }
+
+        List<String> chunks = chunk(text);
+        Flux<ChatResponse> body = Flux.range(0, chunks.size())
+                .delayElements(Duration.ofMillis(Math.max(1, tokenIntervalMs)))
+                .map(i -> i == chunks.size() - 1
+                        ? response(chunks.get(i), prompt, text)
+                        : new ChatResponse(List.of(new Generation(new AssistantMessage(chunks.get(i))))));
+        return Mono.delay(firstToken).thenMany(body);
+    }
+
+    private ChatResponse response(String content, Prompt prompt, String fullText) {
+        ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                .model(MODEL_NAME)
+                .usage(new DefaultUsage(TokenEstimator.estimate(prompt.getContents()), TokenEstimator.estimate(fullText)))
+                .build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(content))), metadata);
+    }
+
+    /**
+     * Escolhe a resposta a partir de trechos fixos dos prompts montados em ChatbotService e RecommendationService.
+     */
+    private String generate(Prompt prompt) {
+        String contents = prompt.getContents();
+        try {
+            if (contents.contains("determine if they are requesting")) {
+                return detectIntent(contents);
+            }
+            if (contents.contains("recomendações específicas de treino")) {
+                return objectMapper.writeValueAsString(List.of(pick(CHAT_WORKOUTS), pick(CHAT_WORKOUTS)));
+            }
+            if (contents.contains("recomendações específicas de refeição")) {
+                return objectMapper.writeValueAsString(List.of(pick(CHAT_MEALS), pick(CHAT_MEALS)));
+            }
+            if (contents.contains("nutrition and fitness expert")) {
+                return objectMapper.writeValueAsString(Map.of(
+                        "meal", mealRecommendation(),
+                        "workout", workoutRecommendation()));
+            }
+            if (contents.contains("fitness expert")) {
+                return objectMapper.writeValueAsString(workoutRecommendation());
+            }
+            if (contents.contains("nutrition expert")) {
+                return objectMapper.writeValueAsString(mealRecommendation());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize offline LLM response", e);
+        }
+        if (contents.contains("running summary")) {
+            return "Usuário busca melhorar a alimentação e treinar com regularidade; prefere refeições simples e treinos curtos.";
+        }
+        if (contents.contains("nutrition and fitness profile")) {
+            return PROFILE;
+        }
+        return pick(CHAT_REPLIES);
+    }
+
+    private String detectIntent(String contents) {
+        int start = contents.indexOf("User message:");
+        String message = (start >= 0 ? contents.substring(start) : contents).toLowerCase(Locale.ROOT);
+        int end = message.indexOf("\n");
+        if (end > 0) {
+            message = message.substring(0, end);
+        }
+        if (message.matches(".*(treino|exerc|workout|malhar|correr|academia).*")) {
+            return "{\"intentType\": \"workout\"}";
+        }
+        if (message.matches(".*(refei|comida|comer|meal|almo|jantar|lanche|café).*")) {
+            return "{\"intentType\": \"meal\"}";
+        }
+        return "none";
+    }
+
+    private MealRecommendationResponse mealRecommendation() {
+        return MealRecommendationResponse.builder()
+                .recommendations(List.of(
+                        new MealRecommendationResponse.RecommendedMeal("Arroz com Frango Grelhado e Brócolis",
+                                "Prato equilibrado com proteína magra e fibras", 520, 55, 38, 12, "25 minutos",
+                                List.of("arroz", "peito de frango", "brócolis", "azeite"),
+                                "Boa distribuição de macronutrientes para o horário"),
+                        new MealRecommendationResponse.RecommendedMeal("Omelete de 3 Ovos com Queijo e Tomate",
+                                "Refeição rápida e rica em proteína", 380, 6, 27, 26, "10 minutos",
+                                List.of("ovos", "queijo minas", "tomate"),
+                                "Prática e compatível com o histórico recente")))
+                .reasoning("Recomendações geradas pelo modelo offline de testes")
+                .optimalTime("12:30")
+                .build();
+    }
+
+    private WorkoutRecommendationResponse workoutRecommendation() {
+        return WorkoutRecommendationResponse.builder()
+                .recommendations(List.of(
+                        new WorkoutRecommendationResponse.RecommendedWorkout("Circuito Funcional",
+                                "Circuito de corpo inteiro com peso corporal", 30, 260, "Medium",
+                                List.of(
+                                        new WorkoutRecommendationResponse.RecommendedExercise("Agachamento", "strength", 3, 15, 60,
+                                                "Desça até as coxas ficarem paralelas ao chão", "none"),
+                                        new WorkoutRecommendationResponse.RecommendedExercise("Polichinelo", "cardio", 3, null, 45,
+                                                "Mantenha ritmo constante", "none")),
+                                "Cabe no tempo disponível e não exige equipamento")))
+                .reasoning("Recomendações geradas pelo modelo offline de testes")
+                .optimalTime("07:00")
+                .intensityRecommendation("Moderada")
+                .build();
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (latencyDistribution.toLowerCase(Locale.ROOT)) {
+            case "fixed" -> medianLatencyMs;
+            case "uniform" -> random.nextLong(0, 2 * medianLatencyMs + 1);
+            default -> {
+                double sigma = p99LatencyMs > medianLatencyMs
+                        ? Math.log((double) p99LatencyMs / medianLatencyMs) / Z_99
+                        : 0.0;
+                yield Math.round(medianLatencyMs * Math.exp(sigma * random.nextGaussian()));
+            }
+        };
+    }
+
+    private boolean shouldFail() {
+        return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientAiException("Offline LLM call interrupted");
+        }
+    }
+
+    /**
+     * Quebra o texto em pedaços de ~1 token (palavras com o espaço que as segue), como no streaming real.
+     */
+    private static List<String> chunk(String text) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= text.length(); i++) {
+            if (i == text.length() || Character.isWhitespace(text.charAt(i - 1))) {
+                chunks.add(text.substring(start, i));
+                start = i;
+            }
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(text);
+        }
+        return chunks;
+    }
+
+    private static <T> T pick(List<T> options) {
+        return options.get(ThreadLocalRandom.current().nextInt(options.size()));
+    }
+
+    private static final List<MealRecommendationData> CHAT_MEALS = List.of(
+            new MealRecommendationData("Arroz com Frango Grelhado e Brócolis", 520, 55.0, 38.0, 12.0),
+            new MealRecommendationData("Pão Integral com Frango Desfiado e Alface", 380, 42.0, 28.0, 9.0),
+            new MealRecommendationData("Salada Caesar com Frango", 430, 18.0, 35.0, 22.0));
+
+    private static final List<WorkoutRecommendationData> CHAT_WORKOUTS = List.of(
+            new WorkoutRecommendationData("Caminhada Rápida", "Caminhada em ritmo acelerado", 30, 180),
+            new WorkoutRecommendationData("Treino de Força com Peso Corporal", "Agachamentos, flexões e pranchas", 25, 200),
+            new WorkoutRecommendationData("Corrida Intervalada", "Alternância entre trote e tiros curtos", 20, 240));
+
+    private static final List<String> CHAT_REPLIES = List.of(
+            "Boa pergunta! Priorize proteína em cada refeição e mantenha a hidratação ao longo do dia.",
+            "Para o seu objetivo, tente manter treinos de 30 minutos três vezes por semana e refeições regulares.",
+            "Uma boa opção é combinar carboidratos integrais com proteína magra e vegetais no almoço.");
+
+    private static final String PROFILE = """
+            Perfil gerado pelo modelo offline de testes.
+            Objetivo: melhorar composição corporal com alimentação equilibrada e treinos regulares.
+            Dieta: refeições simples, ricas em proteína magra e vegetais.
+            OPTIMAL SCHEDULE: café da manhã às 07:30, almoço às 12:30, jantar às 19:30, treino às 07:00.""";
+}
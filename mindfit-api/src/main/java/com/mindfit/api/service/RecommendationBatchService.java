@@ -0,0 +1,357 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.common.exception.BadRequestException;
+import com.mindfit.api.common.exception.LlmUnavailableException;
+import com.mindfit.api.common.exception.ResourceNotFoundException;
+import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.MealRecommendationRequest;
+import com.mindfit.api.dto.RecommendationBatchRequest;
+import com.mindfit.api.dto.RecommendationBatchStatus;
+import com.mindfit.api.dto.WorkoutRecommendationRequest;
+import com.mindfit.api.enums.RecommendationBatchState;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.SecurityUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jobs de geração de recomendações em lote para o painel administrativo.
+ * Cada par usuário/tipo vira uma tarefa no executor de lotes, cujo tamanho limita quantas chamadas
+ * ao modelo os lotes fazem ao mesmo tempo; a fila do executor é limitada e um job que não cabe nela
+ * é recusado com 503. Novas tentativas são reagendadas com atraso, sem dormir na thread do lote.
+ * Os resultados são gravados no cache em blocos e o progresso é publicado para quem acompanha o job
+ * por SSE.
+ * Os jobs vivem na memória da instância que os iniciou: com várias instâncias, consultar, acompanhar
+ * ou cancelar um job em outra instância responde 404, então o balanceador deve manter o painel
+ * administrativo na mesma instância (sessão fixa) enquanto o job roda.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationBatchService {
+
+    private static final int MAX_REPORTED_FAILURES = 100;
+    private static final long QUEUE_FULL_RETRY_AFTER_SECONDS = 60;
+
+    private final RecommendationService recommendationService;
+    private final RecommendationCacheService recommendationCacheService;
+    private final ContextVersionService contextVersionService;
+    private final UserRepository userRepository;
+    private final LogService logService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor recommendationBatchExecutor;
+
+    // Estado local da instância; não é compartilhado nem sobrevive a um restart
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.recommendation-batch.max-users:1000}")
+    private int maxUsers;
+
+    @Value("${app.recommendation-batch.default-active-within-days:7}")
+    private int defaultActiveWithinDays;
+
+    @Value("${app.recommendation-batch.write-batch-size:25}")
+    private int writeBatchSize;
+
+    @Value("${app.recommendation-batch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.recommendation-batch.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${app.recommendation-batch.retention-minutes:60}")
+    private long retentionMinutes;
+
+    public RecommendationBatchStatus start(RecommendationBatchRequest request) {
+        requireAdmin();
+        purgeFinishedJobs();
+
+        List<String> userIds = resolveUsers(request);
+        if (userIds.isEmpty()) {
+            throw new BadRequestException("No users matched the batch request");
+        }
+
+        int total = userIds.size() * request.kinds().size();
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), total);
+        boolean onlyStale = Boolean.TRUE.equals(request.onlyStale());
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        // Admissão e envio sob o mesmo monitor: dois jobs simultâneos não passam ambos pela verificação
+        synchronized (this) {
+            if (recommendationBatchExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() < total) {
+                throw new LlmUnavailableException("Recommendation batch lane is full", QUEUE_FULL_RETRY_AFTER_SECONDS);
+            }
+            jobs.put(job.id, job);
+            for (String userId : userIds) {
+                for (RecommendationKind kind : request.kinds()) {
+                    CompletableFuture<Void> done = new CompletableFuture<>();
+                    submit(job, new BatchItem(userId, kind, onlyStale), done);
+                    tasks.add(done);
+                }
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> finish(job));
+
+        logService.logApiCall("RECOMMENDATION_BATCH", "STARTED",
+                "Batch " + job.id + " started for " + userIds.size() + " users and kinds " + request.kinds());
+        return job.snapshot();
+    }
+
+    public RecommendationBatchStatus getStatus(String jobId) {
+        requireAdmin();
+        return findJob(jobId).snapshot();
+    }
+
+    /**
+     * Progresso do job: o estado atual imediatamente e depois um evento a cada tarefa concluída.
+     */
+    public Flux<RecommendationBatchStatus> streamProgress(String jobId) {
+        requireAdmin();
+        return findJob(jobId).progress.asFlux();
+    }
+
+    public RecommendationBatchStatus cancel(String jobId) {
+        requireAdmin();
+        BatchJob job = findJob(jobId);
+        job.cancelled = true;
+        return job.snapshot();
+    }
+
+    private List<String> resolveUsers(RecommendationBatchRequest request) {
+        if (request.userIds() != null && !request.userIds().isEmpty()) {
+            return List.copyOf(new LinkedHashSet<>(request.userIds()));
+        }
+        int days = request.activeWithinDays() != null ? request.activeWithinDays() : defaultActiveWithinDays;
+        return userRepository.findActiveUserIds(LocalDateTime.now().minusDays(days), PageRequest.of(0, maxUsers));
+    }
+
+    /**
+     * Envia uma tentativa do item ao executor; done completa quando o item termina, com ou sem sucesso.
+     */
+    private void submit(BatchJob job, BatchItem item, CompletableFuture<Void> done) {
+        try {
+            recommendationBatchExecutor.execute(() -> {
+                long retryDelayMs = attempt(job, item);
+                if (retryDelayMs < 0) {
+                    done.complete(null);
+                    return;
+                }
+                // A espera não ocupa a thread do lote: a nova tentativa volta para a fila depois do atraso
+                CompletableFuture.delayedExecutor(retryDelayMs, TimeUnit.MILLISECONDS)
+                        .execute(() -> submit(job, item, done));
+            });
+        } catch (RejectedExecutionException e) {
+            // O espaço verificado na admissão pode ter sido tomado por novas tentativas de outros jobs
+            job.recordFailure(item.userId, item.kind, "Recommendation batch lane is full");
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Executa uma tentativa e devolve o atraso até a próxima, ou -1 quando o item terminou.
+     */
+    private long attempt(BatchJob job, BatchItem item) {
+        // Um job cancelado durante a espera também descarta a nova tentativa
+        if (job.cancelled || (item.attempts == 0 && item.onlyStale
+                && recommendationCacheService.isCurrentAt(item.userId, item.kind, LocalDateTime.now()))) {
+            job.recordSkipped(item.kind);
+            return -1;
+        }
+        if (item.attempts == 0) {
+            // Lida antes do prompt, como nas gerações individuais
+            item.contextVersion = contextVersionService.current(item.userId);
+        }
+        item.attempts++;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Object response = generate(item.userId, item.kind, now);
+            job.recordSuccess(item.kind);
+            MealRecommendationRequest.MealType mealPeriod =
+                    item.kind == RecommendationKind.MEAL ? MealRecommendationRequest.MealType.at(now) : null;
+            List<RecommendationCacheService.CacheWrite> ready = job.buffer(new RecommendationCacheService.CacheWrite(
+                    item.userId, item.kind, response, item.contextVersion, mealPeriod), writeBatchSize);
+            write(job, ready);
+            return -1;
+        } catch (LlmUnavailableException e) {
+            // Faixa do modelo cheia ou circuito aberto: espera e tenta de novo antes de desistir
+            if (item.attempts >= maxAttempts || job.cancelled) {
+                job.recordFailure(item.userId, item.kind, e.getMessage());
+                return -1;
+            }
+            return Math.max(retryBackoffMs * item.attempts, e.getRetryAfterSeconds() * 1000);
+        } catch (Exception e) {
+            job.recordFailure(item.userId, item.kind, e.getMessage());
+            return -1;
+        }
+    }
+
+    private Object generate(String userId, RecommendationKind kind, LocalDateTime now) {
+        if (kind == RecommendationKind.MEAL) {
+            return recommendationService.generateMeal(userId, new MealRecommendationRequest(
+                    now, MealRecommendationRequest.MealType.AUTO, null));
+        }
+        return recommendationService.generateWorkout(userId, new WorkoutRecommendationRequest(
+                now,
+                30, // Default 30 minutes
+                WorkoutRecommendationRequest.IntensityLevel.AUTO,
+                null));
+    }
+
+    private void write(BatchJob job, List<RecommendationCacheService.CacheWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            recommendationCacheService.putAll(writes);
+        } catch (Exception e) {
+            logService.logError("RECOMMENDATION_BATCH",
+                    "Failed to write " + writes.size() + " recommendations to cache for batch " + job.id, e.getMessage());
+        }
+    }
+
+    private void finish(BatchJob job) {
+        write(job, job.drain());
+        job.finish();
+        logService.logApiCall("RECOMMENDATION_BATCH", "FINISHED", "Batch " + job.id + " finished: " + job.snapshot());
+    }
+
+    private BatchJob findJob(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Recommendation batch not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void requireAdmin() {
+        if (!SecurityUtil.isAdmin()) {
+            throw new UnauthorizedException("Only admins can run recommendation batches");
+        }
+    }
+
+    // Estado de um par usuário/tipo entre tentativas; cada tentativa roda numa tarefa separada do executor
+    private static class BatchItem {
+
+        private final String userId;
+        private final RecommendationKind kind;
+        private final boolean onlyStale;
+        private int attempts;
+        private long contextVersion;
+
+        BatchItem(String userId, RecommendationKind kind, boolean onlyStale) {
+            this.userId = userId;
+            this.kind = kind;
+            this.onlyStale = onlyStale;
+        }
+    }
+
+    private class BatchJob {
+
+        private final String id;
+        private final int total;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final List<RecommendationCacheService.CacheWrite> pending = new ArrayList<>();
+        private final List<RecommendationBatchStatus.Failure> failures = new ArrayList<>();
+        private final Sinks.Many<RecommendationBatchStatus> progress = Sinks.many().replay().latest();
+
+        private volatile boolean cancelled;
+        private int succeeded;
+        private int failed;
+        private int skipped;
+        private LocalDateTime finishedAt;
+
+        BatchJob(String id, int total) {
+            this.id = id;
+            this.total = total;
+            progress.tryEmitNext(snapshot());
+        }
+
+        void recordSuccess(RecommendationKind kind) {
+            record(kind, "success");
+            synchronized (this) {
+                succeeded++;
+                publish();
+            }
+        }
+
+        void recordSkipped(RecommendationKind kind) {
+            record(kind, "skipped");
+            synchronized (this) {
+                skipped++;
+                publish();
+            }
+        }
+
+        void recordFailure(String userId, RecommendationKind kind, String message) {
+            record(kind, "failed");
+            synchronized (this) {
+                failed++;
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(new RecommendationBatchStatus.Failure(userId, kind, message));
+                }
+                publish();
+            }
+        }
+
+        /**
+         * Acumula a escrita e devolve um bloco completo quando atinge o tamanho configurado.
+         */
+        synchronized List<RecommendationCacheService.CacheWrite> buffer(RecommendationCacheService.CacheWrite write, int batchSize) {
+            pending.add(write);
+            return pending.size() >= batchSize ? drain() : List.of();
+        }
+
+        synchronized List<RecommendationCacheService.CacheWrite> drain() {
+            List<RecommendationCacheService.CacheWrite> ready = List.copyOf(pending);
+            pending.clear();
+            return ready;
+        }
+
+        synchronized void finish() {
+            finishedAt = LocalDateTime.now();
+            publish();
+            progress.tryEmitComplete();
+        }
+
+        synchronized RecommendationBatchStatus snapshot() {
+            RecommendationBatchState state = finishedAt == null
+                    ? RecommendationBatchState.RUNNING
+                    : cancelled ? RecommendationBatchState.CANCELLED : RecommendationBatchState.COMPLETED;
+            return new RecommendationBatchStatus(id, state, total, succeeded, failed, skipped,
+                    startedAt, finishedAt, List.copyOf(failures));
+        }
+
+        // Chamado com o monitor do job, o que serializa as emissões no sink
+        private void publish() {
+            progress.tryEmitNext(snapshot());
+        }
+
+        private void record(RecommendationKind kind, String result) {
+            meterRegistry.counter("mindfit.recommendation.batch.items",
+                    "kind", kind.name().toLowerCase(), "result", result).increment();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.mindfit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindfit.api.dto.MealRecommendationRequest.MealType;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.WorkoutRecommendationResponse;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.model.RecommendationCache;
+import com.mindfit.api.repository.RecommendationCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de recomendações em dois níveis: um near-cache em memória com as respostas já desserializadas
+ * e a tabela recommendation_cache como armazenamento durável. Um acerto no near-cache não acessa
+ * o banco nem o Jackson; o tempo de vida do near-cache limita a defasagem entre instâncias.
+ * Cada entrada guarda a versão de contexto do usuário a partir da qual foi gerada: uma mudança nos
+ * registros a torna obsoleta na hora, e uma entrada expirada cuja versão não mudou é revalidada
+ * (validade estendida, sem chamar o modelo) até a idade máxima, nunca além dela. Uma recomendação
+ * de refeição só é revalidada dentro da mesma refeição (café, almoço...) para a qual foi gerada.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationCacheService {
+
+    private final RecommendationCacheRepository recommendationCacheRepository;
+    private final ObjectMapper objectMapper;
+    private final LogService logService;
+    private final ContextVersionService contextVersionService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.recommendation-cache.ttl-minutes:120}")
+    private long ttlMinutes;
+
+    @Value("${app.recommendation-cache.stale-window-minutes:720}")
+    private long staleWindowMinutes;
+
+    @Value("${app.recommendation-cache.max-age-minutes:360}")
+    private long maxAgeMinutes;
+
+    @Value("${app.recommendation-cache.near-cache.max-size:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${app.recommendation-cache.near-cache.ttl-seconds:300}")
+    private long nearCacheTtlSeconds;
+
+    private Cache<RecommendationCache.Key, Entry> nearCache;
+
+    @PostConstruct
+    void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Recomendação ainda dentro da validade.
+     */
+    public <T> Optional<T> getFresh(String userId, RecommendationKind kind, Class<T> type) {
+        Entry entry = lookup(userId, kind);
+        if (entry == null || !isFresh(userId, kind, entry)) {
+            return Optional.empty();
+        }
+        return Optional.of(type.cast(entry.response()));
+    }
+
+    /**
+     * Recomendação que ainda pode ser servida: válida ou expirada há menos que a janela de stale.
+     * Quem recebe uma entrada expirada deve disparar a atualização em segundo plano.
+     */
+    public <T> Optional<CachedRecommendation<T>> getServable(String userId, RecommendationKind kind, Class<T> type) {
+        Entry entry = lookup(userId, kind);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isFresh(userId, kind, entry)) {
+            return Optional.of(new CachedRecommendation<>(type.cast(entry.response()), entry.expiresAt(), true));
+        }
+        // Entrada de uma versão anterior ou expirada há pouco: ainda é servida enquanto a nova é gerada
+        if (LocalDateTime.now().isBefore(entry.expiresAt().plusMinutes(staleWindowMinutes))) {
+            return Optional.of(new CachedRecommendation<>(type.cast(entry.response()), entry.expiresAt(), false));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Última recomendação salva, mesmo expirada (usada como fallback quando o modelo está indisponível).
+     */
+    public <T> Optional<T> getStored(String userId, RecommendationKind kind, Class<T> type) {
+        Entry entry = lookup(userId, kind);
+        return entry == null ? Optional.empty() : Optional.of(type.cast(entry.response()));
+    }
+
+    public Optional<LocalDateTime> getExpiry(String userId, RecommendationKind kind) {
+        Entry entry = lookup(userId, kind);
+        return entry == null ? Optional.empty() : Optional.of(entry.expiresAt());
+    }
+
+    /**
+     * Indica se no instante informado a recomendação salva ainda poderá ser servida sem nova geração,
+     * seja por estar na validade ou por poder ser revalidada. Não altera a entrada.
+     */
+    public boolean isCurrentAt(String userId, RecommendationKind kind, LocalDateTime at) {
+        Entry entry = lookup(userId, kind);
+        return entry != null
+                && entry.contextVersion() == contextVersionService.current(userId)
+                && (at.isBefore(entry.expiresAt()) || canRevalidate(kind, entry, at));
+    }
+
+    /**
+     * Salva a recomendação gerada a partir de {@code contextVersion}, que deve ser lida antes de montar o prompt
+     * para que um registro salvo durante a geração ainda marque a entrada como obsoleta.
+     */
+    public void put(String userId, RecommendationKind kind, Object response, long contextVersion) {
+        putAll(List.of(new CacheWrite(userId, kind, response, contextVersion)));
+    }
+
+    /**
+     * Variante para refeições: {@code mealPeriod} é a refeição para a qual o prompt foi montado.
+     */
+    public void put(String userId, RecommendationKind kind, Object response, long contextVersion, MealType mealPeriod) {
+        putAll(List.of(new CacheWrite(userId, kind, response, contextVersion, mealPeriod)));
+    }
+
+    /**
+     * Grava várias recomendações numa única transação: as linhas existentes são lidas numa só consulta
+     * e as escritas saem em lote (hibernate.jdbc.batch_size). O near-cache só é atualizado após o commit.
+     */
+    public void putAll(List<CacheWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<RecommendationCache.Key, RecommendationCache> existing = new HashMap<>();
+            recommendationCacheRepository.findByUserIdsAndKinds(
+                            writes.stream().map(CacheWrite::userId).collect(Collectors.toSet()),
+                            writes.stream().map(CacheWrite::kind).collect(Collectors.toSet()))
+                    .forEach(row -> existing.put(row.getId(), row));
+
+            List<RecommendationCache> rows = new ArrayList<>(writes.size());
+            for (CacheWrite write : writes) {
+                RecommendationCache row = existing.get(write.key());
+                if (row == null) {
+                    row = new RecommendationCache();
+                    row.setUserId(write.userId());
+                    row.setKind(write.kind());
+                }
+                row.setExpiresAt(expiresAt);
+                row.setContextVersion(write.contextVersion());
+                row.setGeneratedAt(now);
+                row.setMealPeriod(write.mealPeriod() != null ? write.mealPeriod().name() : null);
+                try {
+                    row.setPayload(objectMapper.writeValueAsString(write.response()));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Failed to serialize " + write.kind() + " recommendation", e);
+                }
+                rows.add(row);
+            }
+            recommendationCacheRepository.saveAll(rows);
+        });
+
+        for (CacheWrite write : writes) {
+            nearCache.put(write.key(), new Entry(write.response(), expiresAt, write.contextVersion(), now, write.mealPeriod()));
+        }
+    }
+
+    public void evict(String userId) {
+        recommendationCacheRepository.deleteByUserId(userId);
+        for (RecommendationKind kind : RecommendationKind.values()) {
+            nearCache.invalidate(new RecommendationCache.Key(userId, kind));
+        }
+    }
+
+    private boolean isFresh(String userId, RecommendationKind kind, Entry entry) {
+        if (entry.contextVersion() != contextVersionService.current(userId)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(entry.expiresAt())) {
+            return true;
+        }
+        if (!canRevalidate(kind, entry, now)) {
+            return false;
+        }
+        // Os registros não mudaram desde a geração: estende a validade em vez de pagar por um prompt idêntico,
+        // limitada à idade máxima para que revalidações seguidas não mantenham a entrada para sempre
+        LocalDateTime maxExpiresAt = entry.generatedAt().plusMinutes(maxAgeMinutes);
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+        if (expiresAt.isAfter(maxExpiresAt)) {
+            expiresAt = maxExpiresAt;
+        }
+        if (recommendationCacheRepository.extendExpiry(userId, kind, entry.contextVersion(), expiresAt) == 0) {
+            return false;
+        }
+        nearCache.put(new RecommendationCache.Key(userId, kind),
+                new Entry(entry.response(), expiresAt, entry.contextVersion(), entry.generatedAt(), entry.mealPeriod()));
+        record(kind, "revalidated");
+        return true;
+    }
+
+    /**
+     * Uma entrada da versão atual pode ser estendida até a idade máxima; a de refeição, só enquanto
+     * a refeição do horário for a mesma do prompt (o almoço não vale para o jantar).
+     */
+    private boolean canRevalidate(RecommendationKind kind, Entry entry, LocalDateTime at) {
+        if (!at.isBefore(entry.generatedAt().plusMinutes(maxAgeMinutes))) {
+            return false;
+        }
+        return kind != RecommendationKind.MEAL || MealType.at(at) == entry.mealPeriod();
+    }
+
+    private Entry lookup(String userId, RecommendationKind kind) {
+        RecommendationCache.Key key = new RecommendationCache.Key(userId, kind);
+        Entry entry = nearCache.getIfPresent(key);
+        if (entry != null) {
+            record(kind, "near_hit");
+            return entry;
+        }
+
+        entry = recommendationCacheRepository.findById(key)
+                .map(row -> deserialize(row, kind))
+                .orElse(null);
+        if (entry == null) {
+            record(kind, "miss");
+            return null;
+        }
+        record(kind, "table_hit");
+        nearCache.put(key, entry);
+        return entry;
+    }
+
+    private Entry deserialize(RecommendationCache row, RecommendationKind kind) {
+        Class<?> type = kind == RecommendationKind.MEAL
+                ? MealRecommendationResponse.class
+                : WorkoutRecommendationResponse.class;
+        try {
+            return new Entry(objectMapper.readValue(row.getPayload(), type), row.getExpiresAt(),
+                    row.getContextVersion(), row.getGeneratedAt(),
+                    row.getMealPeriod() != null ? MealType.valueOf(row.getMealPeriod()) : null);
+        } catch (JsonProcessingException e) {
+            logService.logError("RECOMMENDATION_CACHE", "Failed to deserialize cached " + kind + " recommendations", e.getMessage());
+            return null;
+        }
+    }
+
+    private void record(RecommendationKind kind, String result) {
+        meterRegistry.counter("mindfit.recommendation.cache", "kind", kind.name().toLowerCase(), "result", result).increment();
+    }
+
+    public record CachedRecommendation<T>(T response, LocalDateTime expiresAt, boolean fresh) {}
+
+    /**
+     * Recomendação a gravar, com a versão de contexto lida antes de montar o prompt e, nas refeições,
+     * a refeição para a qual o prompt foi montado.
+     */
+    public record CacheWrite(String userId, RecommendationKind kind, Object response, long contextVersion,
+                             MealType mealPeriod) {
+
+        public CacheWrite(String userId, RecommendationKind kind, Object response, long contextVersion) {
+            this(userId, kind, response, contextVersion, null);
+        }
+
+        RecommendationCache.Key key() {
+            return new RecommendationCache.Key(userId, kind);
+        }
+    }
+
+    private record Entry(Object response, LocalDateTime expiresAt, long contextVersion, LocalDateTime generatedAt,
+                         MealType mealPeriod) {}
+}
@@ -0,0 +1,162 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.repository.ExerciseRegisterRepository;
+import com.mindfit.api.repository.MealRegisterRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pré-aquecimento das recomendações antes dos horários habituais de cada usuário.
+ * A cada hora identifica quem costuma registrar refeições ou treinos na hora seguinte
+ * (pelo histórico de meal_registers e exercise_registers) e regenera as recomendações
+ * desses usuários espalhadas ao longo de alguns minutos, cedendo espaço quando a faixa
+ * do modelo está ocupada com requisições interativas. Só a instância que obtém a trava
+ * da execução agenda as regenerações.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationPrewarmService {
+
+    static final String LOCK_NAME = "recommendation-prewarm";
+
+    private final MealRegisterRepository mealRegisterRepository;
+    private final ExerciseRegisterRepository exerciseRegisterRepository;
+    private final RecommendationService recommendationService;
+    private final RecommendationCacheService recommendationCacheService;
+    private final LlmGateway llmGateway;
+    private final LogService logService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${app.prewarm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.prewarm.history-days:30}")
+    private int historyDays;
+
+    @Value("${app.prewarm.min-days:4}")
+    private int minDays;
+
+    @Value("${app.prewarm.max-per-run:200}")
+    private int maxPerRun;
+
+    @Value("${app.prewarm.spread-minutes:30}")
+    private long spreadMinutes;
+
+    @Value("${app.prewarm.max-llm-utilization:0.5}")
+    private double maxLlmUtilization;
+
+    @Value("${app.prewarm.defer-seconds:60}")
+    private long deferSeconds;
+
+    @Value("${app.prewarm.lock-minutes:50}")
+    private long lockMinutes;
+
+    @Scheduled(cron = "${app.prewarm.cron:0 15 * * * *}")
+    public void prewarmNextHour() {
+        if (!enabled) {
+            return;
+        }
+        if (!schedulerLockService.tryLock(LOCK_NAME, Duration.ofMinutes(lockMinutes))) {
+            meterRegistry.counter("mindfit.recommendation.prewarm.runs", "result", "locked").increment();
+            return;
+        }
+        LocalDateTime windowStart = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        try {
+            int scheduled = schedule(windowStart);
+            logService.logApiCall("RECOMMENDATION_PREWARM", "SCHEDULED",
+                    "Scheduled " + scheduled + " recommendation pre-warms for window starting " + windowStart);
+        } catch (Exception e) {
+            logService.logError("RECOMMENDATION_PREWARM", "Failed to schedule recommendation pre-warm", e.getMessage());
+        }
+    }
+
+    /**
+     * Agenda as regenerações para a janela de uma hora que começa em {@code windowStart}.
+     * Retorna quantas tarefas foram agendadas.
+     */
+    int schedule(LocalDateTime windowStart) {
+        LocalDateTime windowEnd = windowStart.plusHours(1);
+        LocalDateTime since = windowStart.minusDays(historyDays);
+        int hour = windowStart.getHour();
+
+        List<Candidate> candidates = new ArrayList<>();
+        collect(candidates, RecommendationKind.MEAL,
+                mealRegisterRepository.findHabitualUserIdsAtHour(since, hour, minDays), windowEnd);
+        collect(candidates, RecommendationKind.WORKOUT,
+                exerciseRegisterRepository.findHabitualUserIdsAtHour(since, hour, minDays), windowEnd);
+
+        // Embaralha para que o limite por execução não favoreça sempre os mesmos usuários
+        Collections.shuffle(candidates);
+        List<Candidate> selected = candidates.subList(0, Math.min(maxPerRun, candidates.size()));
+
+        long spreadMs = Duration.ofMinutes(spreadMinutes).toMillis();
+        Instant now = Instant.now();
+        for (Candidate candidate : selected) {
+            long delayMs = spreadMs > 0 ? ThreadLocalRandom.current().nextLong(spreadMs) : 0;
+            submit(candidate, windowStart, now.plusMillis(delayMs));
+        }
+        return selected.size();
+    }
+
+    private void collect(List<Candidate> candidates, RecommendationKind kind, List<String> userIds, LocalDateTime windowEnd) {
+        for (String userId : userIds) {
+            // Recomendação que ainda vale (ou será revalidada) até o fim da janela não precisa ser regenerada
+            if (!recommendationCacheService.isCurrentAt(userId, kind, windowEnd)) {
+                candidates.add(new Candidate(userId, kind));
+            }
+        }
+    }
+
+    private void submit(Candidate candidate, LocalDateTime windowStart, Instant startAt) {
+        taskScheduler.schedule(() -> run(candidate, windowStart), startAt);
+        meterRegistry.counter("mindfit.recommendation.prewarm", "kind", tag(candidate), "result", "scheduled").increment();
+    }
+
+    private void run(Candidate candidate, LocalDateTime windowStart) {
+        // Requisições interativas têm prioridade: com a faixa ocupada, a tarefa volta para o fim da fila
+        if (llmGateway.utilization() > maxLlmUtilization) {
+            if (LocalDateTime.now().plusSeconds(deferSeconds).isBefore(windowStart)) {
+                meterRegistry.counter("mindfit.recommendation.prewarm", "kind", tag(candidate), "result", "deferred").increment();
+                taskScheduler.schedule(() -> run(candidate, windowStart), Instant.now().plusSeconds(deferSeconds));
+                return;
+            }
+            meterRegistry.counter("mindfit.recommendation.prewarm", "kind", tag(candidate), "result", "skipped").increment();
+            return;
+        }
+
+        try {
+            if (candidate.kind() == RecommendationKind.MEAL) {
+                recommendationService.prewarmMealRecommendations(candidate.userId(), windowStart);
+            } else {
+                recommendationService.prewarmWorkoutRecommendations(candidate.userId(), windowStart);
+            }
+            meterRegistry.counter("mindfit.recommendation.prewarm", "kind", tag(candidate), "result", "success").increment();
+        } catch (Exception e) {
+            meterRegistry.counter("mindfit.recommendation.prewarm", "kind", tag(candidate), "result", "failed").increment();
+            logService.logError("RECOMMENDATION_PREWARM",
+                    "Failed to pre-warm " + candidate.kind() + " recommendations for user: " + candidate.userId(), e.getMessage());
+        }
+    }
+
+    private static String tag(Candidate candidate) {
+        return candidate.kind().name().toLowerCase();
+    }
+
+    private record Candidate(String userId, RecommendationKind kind) {}
+}
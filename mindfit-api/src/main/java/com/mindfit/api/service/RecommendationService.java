@@ -1,190 +1,295 @@
 package com.mindfit.api.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindfit.api.common.exception.JsonParsingException;
+import com.mindfit.api.common.exception.LlmUnavailableException;
 import com.mindfit.api.common.exception.RecommendationException;
 import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.dto.*;
-import com.mindfit.api.model.User;
-import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.enums.LlmCallType;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.util.IncrementalRecommendationParser;
+import com.mindfit.api.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class RecommendationService {
 
-    private final OpenAiChatModel openAiChatModel;
-    private final UserRepository userRepository;
-    private final MealRegisterService mealRegisterService;
-    private final ExerciseRegisterService exerciseRegisterService;
-    private final MeasurementsRegisterService measurementsRegisterService;
+    private final LlmGateway llmGateway;
+    private final RecommendationCacheService recommendationCacheService;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
     private final LogService logService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor recommendationRefreshExecutor;
+    private final Set<String> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
+    // Concurrent cache misses for the same user share one generation; each coalesced caller is an LLM call saved
+    private final SingleFlight<String, MealRecommendationResponse> mealGenerations =
+            new SingleFlight<>(() -> recordCoalesced("meal"));
+    private final SingleFlight<String, WorkoutRecommendationResponse> workoutGenerations =
+            new SingleFlight<>(() -> recordCoalesced("workout"));
+    private final SingleFlight<String, HomeRecommendationResponse> homeGenerations =
+            new SingleFlight<>(() -> recordCoalesced("home"));
 
     public MealRecommendationResponse recommendMeal(String userId, MealRecommendationRequest request) {
-        User user = userRepository.findById(userId)
+        // Lida antes do prompt: um registro salvo durante a geração deixa o resultado já obsoleto
+        long contextVersion = contextVersionService.current(userId);
+        MealRecommendationResponse mealResponse;
+        try {
+            mealResponse = generateMeal(userId, request);
+        } catch (LlmUnavailableException e) {
+            // Com o provedor indisponível, a última recomendação salva (mesmo expirada) é melhor que um erro
+            MealRecommendationResponse stale = recommendationCacheService
+                    .getStored(userId, RecommendationKind.MEAL, MealRecommendationResponse.class)
+                    .orElseThrow(() -> e);
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_FALLBACK", "Served stored meal recommendation while LLM is unavailable for user: " + userId);
+            return stale;
+        }
+
+        // Save to cache for future requests
+        try {
+            recommendationCacheService.put(userId, RecommendationKind.MEAL, mealResponse, contextVersion,
+                    determineMealType(request));
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved meal recommendation to cache for user: " + userId);
+        } catch (Exception e) {
+            logService.logError("RECOMMENDATION_SERVICE", "Failed to save meal recommendation to cache", e.getMessage());
+            // Don't throw, cache failure is not critical
+        }
+
+        return mealResponse;
+    }
+
+    public WorkoutRecommendationResponse recommendWorkout(String userId, WorkoutRecommendationRequest request) {
+        // Lida antes do prompt: um registro salvo durante a geração deixa o resultado já obsoleto
+        long contextVersion = contextVersionService.current(userId);
+        WorkoutRecommendationResponse workoutResponse;
+        try {
+            workoutResponse = generateWorkout(userId, request);
+        } catch (LlmUnavailableException e) {
+            // Com o provedor indisponível, a última recomendação salva (mesmo expirada) é melhor que um erro
+            WorkoutRecommendationResponse stale = recommendationCacheService
+                    .getStored(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class)
+                    .orElseThrow(() -> e);
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_FALLBACK", "Served stored workout recommendation while LLM is unavailable for user: " + userId);
+            return stale;
+        }
+
+        // Save to cache for future requests
+        try {
+            recommendationCacheService.put(userId, RecommendationKind.WORKOUT, workoutResponse, contextVersion);
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved workout recommendation to cache for user: " + userId);
+        } catch (Exception e) {
+            logService.logError("RECOMMENDATION_SERVICE", "Failed to save workout recommendation to cache", e.getMessage());
+            // Don't throw, cache failure is not critical
+        }
+
+        return workoutResponse;
+    }
+
+    /**
+     * Generates meal recommendations without reading or writing the cache; the caller decides what to store.
+     */
+    public MealRecommendationResponse generateMeal(String userId, MealRecommendationRequest request) {
+        UserContext user = activityDigestService.getUserContext(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        String mealPrompt = buildMealPrompt(user, request);
+        org.springframework.ai.chat.model.ChatResponse aiResponse =
+                llmGateway.call(LlmCallType.RECOMMENDATION, mealPrompt(user, request));
+        MealRecommendationResponse mealResponse = parseMealRecommendation(aiResponse.getResult().getOutput().getText());
 
+        // Validate recommendations are not empty
+        if (mealResponse.recommendations() == null || mealResponse.recommendations().isEmpty()) {
+            throw new RecommendationException("No meal recommendations were generated. Please try again.");
+        }
+        return mealResponse;
+    }
+
+    private Prompt mealPrompt(UserContext user, MealRecommendationRequest request) {
         OpenAiChatOptions options = OpenAiChatOptions.builder()
                 .temperature(0.3)
                 .maxTokens(1200)
                 .build();
 
-        Prompt prompt = new Prompt(
-                List.of(new UserMessage(mealPrompt)),
+        return new Prompt(
+                List.of(new UserMessage(buildMealPrompt(user, request))),
                 options
         );
+    }
 
-        var aiResponse = openAiChatModel.call(prompt);
-        String response = aiResponse.getResult().getOutput().getText();
+    /**
+     * Generates workout recommendations without reading or writing the cache; the caller decides what to store.
+     */
+    public WorkoutRecommendationResponse generateWorkout(String userId, WorkoutRecommendationRequest request) {
+        UserContext user = activityDigestService.getUserContext(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        MealRecommendationResponse mealResponse = parseMealRecommendation(response);
+        org.springframework.ai.chat.model.ChatResponse aiResponse =
+                llmGateway.call(LlmCallType.RECOMMENDATION, workoutPrompt(user, request));
+        WorkoutRecommendationResponse workoutResponse = parseWorkoutRecommendation(aiResponse.getResult().getOutput().getText());
 
         // Validate recommendations are not empty
-        if (mealResponse.recommendations() == null || mealResponse.recommendations().isEmpty()) {
-            throw new RecommendationException("No meal recommendations were generated. Please try again.");
+        if (workoutResponse.recommendations() == null || workoutResponse.recommendations().isEmpty()) {
+            throw new RecommendationException("No workout recommendations were generated. Please try again.");
         }
+        return workoutResponse;
+    }
 
-        // Save to cache for future requests (store in user entity)
-        try {
-            String cacheJson = objectMapper.writeValueAsString(mealResponse);
-            user.setMealRecommendationsCache(cacheJson);
-            user.setMealCacheExpiry(LocalDateTime.now().plusHours(2)); // 2-hour expiry
-            userRepository.save(user);
-            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved meal recommendation to cache for user: " + userId);
-        } catch (Exception e) {
-            logService.logError("RECOMMENDATION_SERVICE", "Failed to save meal recommendation to cache", e.getMessage());
-            // Don't throw, cache failure is not critical
-        }
+    private Prompt workoutPrompt(UserContext user, WorkoutRecommendationRequest request) {
+        OpenAiChatOptions options = OpenAiChatOptions.builder()
+                .temperature(0.3)
+                .maxTokens(1300)
+                .build();
 
-        return mealResponse;
+        return new Prompt(
+                List.of(new UserMessage(buildWorkoutPrompt(user, request))),
+                options
+        );
     }
 
-    public WorkoutRecommendationResponse recommendWorkout(String userId, WorkoutRecommendationRequest request) {
-        User user = userRepository.findById(userId)
+    /**
+     * Generates meal and workout recommendations from a single prompt, sharing the user context
+     * and history between both sections. Like the single-kind variants, nothing is cached here.
+     * A section that is missing, malformed or empty comes back as null so the caller can recover
+     * that kind alone; only when neither section is usable does this throw.
+     */
+    public HomeRecommendationResponse generateHome(String userId, MealRecommendationRequest mealRequest,
+                                                   WorkoutRecommendationRequest workoutRequest) {
+        UserContext user = activityDigestService.getUserContext(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        String workoutPrompt = buildWorkoutPrompt(user, request);
-
         OpenAiChatOptions options = OpenAiChatOptions.builder()
                 .temperature(0.3)
-                .maxTokens(1300)
+                .maxTokens(2500)
                 .build();
-
         Prompt prompt = new Prompt(
-                List.of(new UserMessage(workoutPrompt)),
+                List.of(new UserMessage(buildHomePrompt(user, mealRequest, workoutRequest))),
                 options
         );
 
-        var aiResponse = openAiChatModel.call(prompt);
-        String response = aiResponse.getResult().getOutput().getText();
-
-        WorkoutRecommendationResponse workoutResponse = parseWorkoutRecommendation(response);
+        org.springframework.ai.chat.model.ChatResponse aiResponse = llmGateway.call(LlmCallType.RECOMMENDATION, prompt);
+        HomeRecommendationResponse homeResponse = parseHomeRecommendation(aiResponse.getResult().getOutput().getText());
 
         // Validate recommendations are not empty
-        if (workoutResponse.recommendations() == null || workoutResponse.recommendations().isEmpty()) {
-            throw new RecommendationException("No workout recommendations were generated. Please try again.");
+        if (homeResponse.meal() == null && homeResponse.workout() == null) {
+            throw new RecommendationException("No recommendations were generated. Please try again.");
         }
+        return homeResponse;
+    }
 
-        // Save to cache for future requests (store in user entity)
+    private HomeRecommendationResponse recommendHome(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        long contextVersion = contextVersionService.current(userId);
+        HomeRecommendationResponse homeResponse;
         try {
-            String cacheJson = objectMapper.writeValueAsString(workoutResponse);
-            user.setWorkoutRecommendationsCache(cacheJson);
-            user.setWorkoutCacheExpiry(LocalDateTime.now().plusHours(2)); // 2-hour expiry
-            userRepository.save(user);
-            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved workout recommendation to cache for user: " + userId);
+            homeResponse = generateHome(userId,
+                    new MealRecommendationRequest(now, MealRecommendationRequest.MealType.AUTO, null),
+                    new WorkoutRecommendationRequest(
+                            now,
+                            30, // Default 30 minutes
+                            WorkoutRecommendationRequest.IntensityLevel.AUTO,
+                            null));
+        } catch (LlmUnavailableException e) {
+            Optional<MealRecommendationResponse> meal =
+                    recommendationCacheService.getStored(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+            Optional<WorkoutRecommendationResponse> workout =
+                    recommendationCacheService.getStored(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class);
+            if (meal.isEmpty() || workout.isEmpty()) {
+                throw e;
+            }
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_FALLBACK", "Served stored home recommendations while LLM is unavailable for user: " + userId);
+            return new HomeRecommendationResponse(meal.get(), workout.get());
+        }
+
+        // Cada seção válida vai para o cache do seu tipo, numa única transação
+        List<RecommendationCacheService.CacheWrite> writes = new ArrayList<>(2);
+        if (homeResponse.meal() != null) {
+            writes.add(new RecommendationCacheService.CacheWrite(userId, RecommendationKind.MEAL, homeResponse.meal(), contextVersion,
+                    MealRecommendationRequest.MealType.at(now)));
+        }
+        if (homeResponse.workout() != null) {
+            writes.add(new RecommendationCacheService.CacheWrite(userId, RecommendationKind.WORKOUT, homeResponse.workout(), contextVersion));
+        }
+        try {
+            recommendationCacheService.putAll(writes);
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved home recommendations to cache for user: " + userId);
         } catch (Exception e) {
-            logService.logError("RECOMMENDATION_SERVICE", "Failed to save workout recommendation to cache", e.getMessage());
-            // Don't throw, cache failure is not critical
+            logService.logError("RECOMMENDATION_SERVICE", "Failed to save home recommendations to cache", e.getMessage());
         }
 
-        return workoutResponse;
+        // Seção malformada: só o tipo afetado é gerado de novo (ou servido do cache se o modelo estiver indisponível)
+        if (homeResponse.meal() == null) {
+            return new HomeRecommendationResponse(getFreshOrGenerateMeal(userId), homeResponse.workout());
+        }
+        if (homeResponse.workout() == null) {
+            return new HomeRecommendationResponse(homeResponse.meal(), getFreshOrGenerateWorkout(userId));
+        }
+        return homeResponse;
     }
 
-    private String buildMealPrompt(User user, MealRecommendationRequest request) {
+    private String buildMealPrompt(UserContext user, MealRecommendationRequest request) {
         StringBuilder promptBuilder = new StringBuilder();
 
         promptBuilder.append("You are a nutrition expert. Generate personalized meal recommendations in JSON format.\n\n");
 
-        // Add user context
-        promptBuilder.append("USER CONTEXT:\n");
-        promptBuilder.append("Name: ").append(user.getName()).append("\n");
-        if (user.getProfile() != null && !user.getProfile().trim().isEmpty()) {
-            promptBuilder.append("Profile: ").append(user.getProfile()).append("\n");
-        }
-
-        // Add current time context
+        // Add user and current time context
+        appendUserContext(promptBuilder, user, request.currentTime());
         String timeOfDay = getTimeOfDay(request.currentTime());
-        promptBuilder.append("Current Time: ").append(request.currentTime().format(DateTimeFormatter.ofPattern("HH:mm")))
-                .append(" (").append(timeOfDay).append(")\n");
 
         // Add meal type
-        String mealType = determineMealType(request);
+        String mealType = determineMealType(request).name();
         promptBuilder.append("Meal Type: ").append(mealType).append("\n\n");
 
         // Add recent meal history
-        addRecentMealHistory(promptBuilder, user.getId());
+        addRecentMealHistory(promptBuilder, user.id());
 
         // Add recent measurements for calorie guidance
-        addRecentMeasurements(promptBuilder, user.getId());
+        addRecentMeasurements(promptBuilder, user.id());
 
         promptBuilder.append("\nTASK: Generate 2-3 meal recommendations suitable for ").append(mealType.toLowerCase())
                 .append(" at ").append(timeOfDay).append(".\n\n");
 
         promptBuilder.append("RESPONSE FORMAT (JSON):\n");
-        promptBuilder.append("{\n");
-        promptBuilder.append("  \"recommendations\": [\n");
-        promptBuilder.append("    {\n");
-        promptBuilder.append("      \"name\": \"Meal Name\",\n");
-        promptBuilder.append("      \"description\": \"Brief description\",\n");
-        promptBuilder.append("      \"estimatedCalories\": 500,\n");
-        promptBuilder.append("      \"estimatedCarbs\": 50,\n");
-        promptBuilder.append("      \"estimatedProtein\": 25,\n");
-        promptBuilder.append("      \"estimatedFat\": 15,\n");
-        promptBuilder.append("      \"preparationTime\": \"15 minutes\",\n");
-        promptBuilder.append("      \"ingredients\": [\"ingredient1\", \"ingredient2\"],\n");
-        promptBuilder.append("      \"suitabilityReason\": \"Why this meal fits the user's profile and time\"\n");
-        promptBuilder.append("    }\n");
-        promptBuilder.append("  ],\n");
-        promptBuilder.append("  \"reasoning\": \"Overall reasoning for recommendations\",\n");
-        promptBuilder.append("  \"optimalTime\": \"Best time to eat based on user's patterns\"\n");
-        promptBuilder.append("}\n\n");
+        appendMealFormat(promptBuilder);
+        promptBuilder.append("\n\n");
 
         promptBuilder.append("ANSWER IN BRAZILIAN PORTUGUESE. Respond only with valid JSON. No additional text.");
 
         return promptBuilder.toString();
     }
 
-    private String buildWorkoutPrompt(User user, WorkoutRecommendationRequest request) {
+    private String buildWorkoutPrompt(UserContext user, WorkoutRecommendationRequest request) {
         StringBuilder promptBuilder = new StringBuilder();
 
         promptBuilder.append("You are a fitness expert. Generate personalized workout recommendations in JSON format.\n\n");
 
-        // Add user context
-        promptBuilder.append("USER CONTEXT:\n");
-        promptBuilder.append("Name: ").append(user.getName()).append("\n");
-        if (user.getProfile() != null && !user.getProfile().trim().isEmpty()) {
-            promptBuilder.append("Profile: ").append(user.getProfile()).append("\n");
-        }
-
-        // Add current time context
+        // Add user and current time context
+        appendUserContext(promptBuilder, user, request.currentTime());
         String timeOfDay = getTimeOfDay(request.currentTime());
-        promptBuilder.append("Current Time: ").append(request.currentTime().format(DateTimeFormatter.ofPattern("HH:mm")))
-                .append(" (").append(timeOfDay).append(")\n");
 
         promptBuilder.append("Available Time: ").append(request.availableMinutes()).append(" minutes\n");
 
@@ -193,15 +298,95 @@ public class RecommendationService {
         promptBuilder.append("Preferred Intensity: ").append(intensity).append("\n\n");
 
         // Add recent exercise history
-        addRecentExerciseHistory(promptBuilder, user.getId());
+        addRecentExerciseHistory(promptBuilder, user.id());
 
         // Add recent measurements for fitness guidance
-        addRecentMeasurements(promptBuilder, user.getId());
+        addRecentMeasurements(promptBuilder, user.id());
 
         promptBuilder.append("\nTASK: Generate 1-2 workout recommendations suitable for ")
                 .append(timeOfDay).append(" with ").append(request.availableMinutes()).append(" minutes available.\n\n");
 
+        promptBuilder.append("RESPONSE FORMAT (JSON):\n");
+        appendWorkoutFormat(promptBuilder);
+        promptBuilder.append("\n\n");
+
+        promptBuilder.append("ANSWER IN BRAZILIAN PORTUGUESE. Respond only with valid JSON. No additional text.");
+
+        return promptBuilder.toString();
+    }
+
+    private String buildHomePrompt(UserContext user, MealRecommendationRequest mealRequest,
+                                   WorkoutRecommendationRequest workoutRequest) {
+        StringBuilder promptBuilder = new StringBuilder();
+
+        promptBuilder.append("You are a nutrition and fitness expert. Generate personalized meal and workout recommendations in JSON format.\n\n");
+
+        // Contexto e histórico entram uma única vez para as duas seções
+        appendUserContext(promptBuilder, user, mealRequest.currentTime());
+        String timeOfDay = getTimeOfDay(mealRequest.currentTime());
+
+        String mealType = determineMealType(mealRequest).name();
+        promptBuilder.append("Meal Type: ").append(mealType).append("\n");
+        promptBuilder.append("Available Time: ").append(workoutRequest.availableMinutes()).append(" minutes\n");
+        String intensity = workoutRequest.preferredIntensity() != null ?
+                workoutRequest.preferredIntensity().toString() : "AUTO";
+        promptBuilder.append("Preferred Intensity: ").append(intensity).append("\n\n");
+
+        addRecentMealHistory(promptBuilder, user.id());
+        addRecentExerciseHistory(promptBuilder, user.id());
+        addRecentMeasurements(promptBuilder, user.id());
+
+        promptBuilder.append("\nTASK: Generate 2-3 meal recommendations suitable for ").append(mealType.toLowerCase())
+                .append(" at ").append(timeOfDay)
+                .append(", and 1-2 workout recommendations suitable for ").append(timeOfDay)
+                .append(" with ").append(workoutRequest.availableMinutes()).append(" minutes available.\n\n");
+
         promptBuilder.append("RESPONSE FORMAT (JSON):\n");
+        promptBuilder.append("{\n");
+        promptBuilder.append("\"meal\": ");
+        appendMealFormat(promptBuilder);
+        promptBuilder.append(",\n");
+        promptBuilder.append("\"workout\": ");
+        appendWorkoutFormat(promptBuilder);
+        promptBuilder.append("\n}\n\n");
+
+        promptBuilder.append("ANSWER IN BRAZILIAN PORTUGUESE. Respond only with valid JSON. No additional text.");
+
+        return promptBuilder.toString();
+    }
+
+    private void appendUserContext(StringBuilder promptBuilder, UserContext user, LocalDateTime currentTime) {
+        promptBuilder.append("USER CONTEXT:\n");
+        promptBuilder.append("Name: ").append(user.name()).append("\n");
+        if (user.profile() != null && !user.profile().trim().isEmpty()) {
+            promptBuilder.append("Profile: ").append(user.profile()).append("\n");
+        }
+
+        promptBuilder.append("Current Time: ").append(currentTime.format(DateTimeFormatter.ofPattern("HH:mm")))
+                .append(" (").append(getTimeOfDay(currentTime)).append(")\n");
+    }
+
+    private void appendMealFormat(StringBuilder promptBuilder) {
+        promptBuilder.append("{\n");
+        promptBuilder.append("  \"recommendations\": [\n");
+        promptBuilder.append("    {\n");
+        promptBuilder.append("      \"name\": \"Meal Name\",\n");
+        promptBuilder.append("      \"description\": \"Brief description\",\n");
+        promptBuilder.append("      \"estimatedCalories\": 500,\n");
+        promptBuilder.append("      \"estimatedCarbs\": 50,\n");
+        promptBuilder.append("      \"estimatedProtein\": 25,\n");
+        promptBuilder.append("      \"estimatedFat\": 15,\n");
+        promptBuilder.append("      \"preparationTime\": \"15 minutes\",\n");
+        promptBuilder.append("      \"ingredients\": [\"ingredient1\", \"ingredient2\"],\n");
+        promptBuilder.append("      \"suitabilityReason\": \"Why this meal fits the user's profile and time\"\n");
+        promptBuilder.append("    }\n");
+        promptBuilder.append("  ],\n");
+        promptBuilder.append("  \"reasoning\": \"Overall reasoning for recommendations\",\n");
+        promptBuilder.append("  \"optimalTime\": \"Best time to eat based on user's patterns\"\n");
+        promptBuilder.append("}");
+    }
+
+    private void appendWorkoutFormat(StringBuilder promptBuilder) {
         promptBuilder.append("{\n");
         promptBuilder.append("  \"recommendations\": [\n");
         promptBuilder.append("    {\n");
@@ -227,19 +412,15 @@ public class RecommendationService {
         promptBuilder.append("  \"reasoning\": \"Overall reasoning for recommendations\",\n");
         promptBuilder.append("  \"optimalTime\": \"Best time to workout based on user's patterns\",\n");
         promptBuilder.append("  \"intensityRecommendation\": \"Recommended intensity for this time of day\"\n");
-        promptBuilder.append("}\n\n");
-
-        promptBuilder.append("ANSWER IN BRAZILIAN PORTUGUESE. Respond only with valid JSON. No additional text.");
-
-        return promptBuilder.toString();
+        promptBuilder.append("}");
     }
 
     private void addRecentMealHistory(StringBuilder promptBuilder, String userId) {
         try {
-            var meals = mealRegisterService.findByUserId(userId, PageRequest.of(0, 10));
-            if (meals.hasContent()) {
+            var meals = activityDigestService.getDigest(userId).recentMeals();
+            if (!meals.isEmpty()) {
                 promptBuilder.append("RECENT MEALS:\n");
-                meals.getContent().forEach(meal -> {
+                meals.stream().limit(10).forEach(meal -> {
                     promptBuilder.append("- ").append(meal.name())
                             .append(" (").append(meal.calories()).append(" kcal, at ")
                             .append(meal.timestamp().format(DateTimeFormatter.ofPattern("HH:mm")))
@@ -254,10 +435,10 @@ public class RecommendationService {
 
     private void addRecentExerciseHistory(StringBuilder promptBuilder, String userId) {
         try {
-            var exercises = exerciseRegisterService.findByUserId(userId, PageRequest.of(0, 8));
-            if (exercises.hasContent()) {
+            var exercises = activityDigestService.getDigest(userId).recentExercises();
+            if (!exercises.isEmpty()) {
                 promptBuilder.append("RECENT EXERCISES:\n");
-                exercises.getContent().forEach(exercise -> {
+                exercises.stream().limit(8).forEach(exercise -> {
                     promptBuilder.append("- ").append(exercise.name());
                     if (exercise.durationInMinutes() != null) {
                         promptBuilder.append(" (").append(exercise.durationInMinutes()).append(" min");
@@ -274,9 +455,9 @@ public class RecommendationService {
 
     private void addRecentMeasurements(StringBuilder promptBuilder, String userId) {
         try {
-            var measurements = measurementsRegisterService.findByUserId(userId, PageRequest.of(0, 3));
-            if (measurements.hasContent()) {
-                var latest = measurements.getContent().get(0);
+            var measurements = activityDigestService.getDigest(userId).recentMeasurements();
+            if (!measurements.isEmpty()) {
+                var latest = measurements.get(0);
                 promptBuilder.append("LATEST MEASUREMENTS:\n");
                 promptBuilder.append("Weight: ").append(latest.weightInKG()).append(" kg");
                 if (latest.heightInCM() != null) {
@@ -289,6 +470,99 @@ public class RecommendationService {
         }
     }
 
+    private MealRecommendationResponse getFreshOrGenerateMeal(String userId) {
+        // The cache is checked again inside the flight in case a generation finished in the meantime
+        return mealGenerations.execute(userId, () -> recommendationCacheService
+                .getFresh(userId, RecommendationKind.MEAL, MealRecommendationResponse.class)
+                .orElseGet(() -> recommendMeal(userId, new MealRecommendationRequest(
+                        LocalDateTime.now(), MealRecommendationRequest.MealType.AUTO, null))));
+    }
+
+    private WorkoutRecommendationResponse getFreshOrGenerateWorkout(String userId) {
+        // The cache is checked again inside the flight in case a generation finished in the meantime
+        return workoutGenerations.execute(userId, () -> recommendationCacheService
+                .getFresh(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class)
+                .orElseGet(() -> recommendWorkout(userId, new WorkoutRecommendationRequest(
+                        LocalDateTime.now(),
+                        30, // Default 30 minutes
+                        WorkoutRecommendationRequest.IntensityLevel.AUTO,
+                        null))));
+    }
+
+    private HomeRecommendationResponse getFreshOrGenerateHome(String userId) {
+        return homeGenerations.execute(userId, () -> {
+            Optional<MealRecommendationResponse> meal =
+                    recommendationCacheService.getFresh(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+            Optional<WorkoutRecommendationResponse> workout =
+                    recommendationCacheService.getFresh(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class);
+            if (meal.isPresent() && workout.isPresent()) {
+                return new HomeRecommendationResponse(meal.get(), workout.get());
+            }
+            // Se só uma seção ficou pronta enquanto esperava, gera apenas a outra
+            if (meal.isPresent()) {
+                return new HomeRecommendationResponse(meal.get(), getFreshOrGenerateWorkout(userId));
+            }
+            if (workout.isPresent()) {
+                return new HomeRecommendationResponse(getFreshOrGenerateMeal(userId), workout.get());
+            }
+            return recommendHome(userId);
+        });
+    }
+
+    /**
+     * Regenerates the meal recommendation ahead of a habitual meal time, building the prompt as if
+     * the request arrived at {@code targetTime}. Shares the single-flight with on-demand misses.
+     */
+    public void prewarmMealRecommendations(String userId, LocalDateTime targetTime) {
+        mealGenerations.execute(userId, () -> recommendMeal(userId, new MealRecommendationRequest(
+                targetTime, MealRecommendationRequest.MealType.AUTO, null)));
+    }
+
+    /**
+     * Regenerates the workout recommendation ahead of a habitual training time.
+     */
+    public void prewarmWorkoutRecommendations(String userId, LocalDateTime targetTime) {
+        workoutGenerations.execute(userId, () -> recommendWorkout(userId, new WorkoutRecommendationRequest(
+                targetTime,
+                30, // Default 30 minutes
+                WorkoutRecommendationRequest.IntensityLevel.AUTO,
+                null)));
+    }
+
+    /**
+     * Schedules at most one background regeneration per user and kind; when the lane is full
+     * the stale entry keeps being served and a later hit tries again.
+     */
+    private void refreshInBackground(String userId, RecommendationKind kind, Runnable refresh) {
+        refreshInBackground(userId, kind.name().toLowerCase(), refresh);
+    }
+
+    private void refreshInBackground(String userId, String kind, Runnable refresh) {
+        String key = userId + ":" + kind;
+        if (!pendingRefreshes.add(key)) {
+            return;
+        }
+        meterRegistry.counter("mindfit.recommendation.cache.stale_served", "kind", kind).increment();
+        try {
+            recommendationRefreshExecutor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (Exception e) {
+                    logService.logError("RECOMMENDATION_SERVICE", "Background refresh failed for " + key, e.getMessage());
+                } finally {
+                    pendingRefreshes.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingRefreshes.remove(key);
+            meterRegistry.counter("mindfit.recommendation.cache.refresh_rejected", "kind", kind).increment();
+        }
+    }
+
+    private void recordCoalesced(String kind) {
+        meterRegistry.counter("mindfit.recommendation.singleflight.coalesced", "kind", kind).increment();
+    }
+
     private String getTimeOfDay(LocalDateTime time) {
         int hour = time.getHour();
         if (hour < 6) return "early morning";
@@ -298,108 +572,278 @@ public class RecommendationService {
         return "night";
     }
 
-    private String determineMealType(MealRecommendationRequest request) {
+    private MealRecommendationRequest.MealType determineMealType(MealRecommendationRequest request) {
         if (request.mealType() != null && request.mealType() != MealRecommendationRequest.MealType.AUTO) {
-            return request.mealType().toString();
+            return request.mealType();
         }
 
         // Auto-determine based on time
-        int hour = request.currentTime().getHour();
-        if (hour < 10) return "BREAKFAST";
-        if (hour < 15) return "LUNCH";
-        if (hour < 19) return "DINNER";
-        return "SNACK";
+        return MealRecommendationRequest.MealType.at(request.currentTime());
     }
 
     private MealRecommendationResponse parseMealRecommendation(String jsonResponse) {
-        // Clean up the response to ensure it's valid JSON
-        String cleanJson = cleanupJsonResponse(jsonResponse);
-
-        // Validate JSON structure before parsing
-        if (!isValidJsonStructure(cleanJson)) {
-            logService.logError("RECOMMENDATION_SERVICE", "Invalid JSON structure detected", cleanJson);
-            throw new JsonParsingException("Invalid JSON structure received from AI");
-        }
-
+        IncrementalRecommendationParser<MealRecommendationResponse.RecommendedMeal> parser =
+                new IncrementalRecommendationParser<>(objectMapper, MealRecommendationResponse.RecommendedMeal.class);
+        parser.feed(jsonResponse);
         try {
-            TypeReference<MealRecommendationResponse> typeRef = new TypeReference<MealRecommendationResponse>() {};
-            MealRecommendationResponse response = objectMapper.readValue(cleanJson, typeRef);
-
-            // Validate the parsed response has required fields
-            if (response.recommendations() == null || response.recommendations().isEmpty()) {
-                logService.logError("RECOMMENDATION_SERVICE", "Parsed response has no recommendations", cleanJson);
-                throw new JsonParsingException("No recommendations in AI response");
-            }
-
-            return response;
-
-        } catch (JsonProcessingException e) {
+            return parser.finish(MealRecommendationResponse.class);
+        } catch (JsonParsingException e) {
             logService.logError("RECOMMENDATION_SERVICE", "Failed to parse meal recommendation JSON",
                 "Error: " + e.getMessage() + ", Response: " + jsonResponse);
-            throw new JsonParsingException("Unable to parse AI response. Please try again.", e);
+            throw e;
         }
     }
 
     private WorkoutRecommendationResponse parseWorkoutRecommendation(String jsonResponse) {
-        // Clean up the response to ensure it's valid JSON
-        String cleanJson = cleanupJsonResponse(jsonResponse);
-
-        // Validate JSON structure before parsing
-        if (!isValidJsonStructure(cleanJson)) {
-            logService.logError("RECOMMENDATION_SERVICE", "Invalid JSON structure detected", cleanJson);
-            throw new JsonParsingException("Invalid JSON structure received from AI");
+        IncrementalRecommendationParser<WorkoutRecommendationResponse.RecommendedWorkout> parser =
+                new IncrementalRecommendationParser<>(objectMapper, WorkoutRecommendationResponse.RecommendedWorkout.class);
+        parser.feed(jsonResponse);
+        try {
+            return parser.finish(WorkoutRecommendationResponse.class);
+        } catch (JsonParsingException e) {
+            logService.logError("RECOMMENDATION_SERVICE", "Failed to parse workout recommendation JSON",
+                "Error: " + e.getMessage() + ", Response: " + jsonResponse);
+            throw e;
         }
+    }
 
+    private HomeRecommendationResponse parseHomeRecommendation(String jsonResponse) {
         try {
-            TypeReference<WorkoutRecommendationResponse> typeRef = new TypeReference<WorkoutRecommendationResponse>() {};
-            WorkoutRecommendationResponse response = objectMapper.readValue(cleanJson, typeRef);
-
-            // Validate the parsed response has required fields
-            if (response.recommendations() == null || response.recommendations().isEmpty()) {
-                logService.logError("RECOMMENDATION_SERVICE", "Parsed response has no recommendations", cleanJson);
-                throw new JsonParsingException("No recommendations in AI response");
+            int start = jsonResponse != null ? jsonResponse.indexOf('{') : -1;
+            if (start < 0) {
+                throw new JsonParsingException("No JSON object in AI response");
             }
-
-            return response;
-
+            // Lê só o primeiro objeto; cercas de markdown depois dele são ignoradas
+            JsonNode root = objectMapper.readTree(jsonResponse.substring(start));
+            if (root == null || !root.isObject()) {
+                throw new JsonParsingException("No JSON object in AI response");
+            }
+            // Cada seção é lida por conta própria: uma seção inválida não descarta a outra
+            return new HomeRecommendationResponse(
+                    parseHomeSection(root, "meal", this::parseMealRecommendation, MealRecommendationResponse::recommendations),
+                    parseHomeSection(root, "workout", this::parseWorkoutRecommendation, WorkoutRecommendationResponse::recommendations));
         } catch (JsonProcessingException e) {
-            logService.logError("RECOMMENDATION_SERVICE", "Failed to parse workout recommendation JSON",
+            logService.logError("RECOMMENDATION_SERVICE", "Failed to parse home recommendation JSON",
                 "Error: " + e.getMessage() + ", Response: " + jsonResponse);
             throw new JsonParsingException("Unable to parse AI response. Please try again.", e);
         }
     }
 
+    /**
+     * Seção da resposta combinada, ou null se estiver ausente, malformada ou sem recomendações.
+     */
+    private <T> T parseHomeSection(JsonNode root, String section, Function<String, T> parser,
+                                   Function<T, List<?>> recommendations) {
+        if (!root.hasNonNull(section)) {
+            logService.logError("RECOMMENDATION_SERVICE", "Missing " + section + " section in home recommendation", root.toString());
+            return null;
+        }
+        try {
+            T response = parser.apply(root.get(section).toString());
+            List<?> items = recommendations.apply(response);
+            return items == null || items.isEmpty() ? null : response;
+        } catch (JsonParsingException e) {
+            // O parser da seção já registrou o erro
+            return null;
+        }
+    }
+
     /**
      * Get cached meal recommendations or generate new ones if cache is expired/missing
      * @param userId The user ID
      * @return Cached or freshly generated meal recommendations
      */
     public MealRecommendationResponse getCachedMealRecommendations(String userId) {
-        User user = userRepository.findById(userId)
+        // Cache hits are served from memory and tracked by the mindfit.recommendation.cache metric.
+        // Within the stale window an expired entry is still returned and regenerated in the background.
+        Optional<RecommendationCacheService.CachedRecommendation<MealRecommendationResponse>> cached =
+                recommendationCacheService.getServable(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+        if (cached.isPresent()) {
+            if (!cached.get().fresh()) {
+                refreshInBackground(userId, RecommendationKind.MEAL, () -> getFreshOrGenerateMeal(userId));
+            }
+            return cached.get().response();
+        }
+
+        // If no valid cache exists, generate new recommendations with auto meal type
+        return getFreshOrGenerateMeal(userId);
+    }
+
+    /**
+     * Get cached meal and workout recommendations for the home screen. When neither is cached,
+     * both are generated in one model round trip and split into the two caches.
+     * @param userId The user ID
+     * @return Cached or freshly generated meal and workout recommendations
+     */
+    public HomeRecommendationResponse getCachedHomeRecommendations(String userId) {
+        Optional<RecommendationCacheService.CachedRecommendation<MealRecommendationResponse>> meal =
+                recommendationCacheService.getServable(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+        Optional<RecommendationCacheService.CachedRecommendation<WorkoutRecommendationResponse>> workout =
+                recommendationCacheService.getServable(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class);
+
+        if (meal.isEmpty() && workout.isEmpty()) {
+            return getFreshOrGenerateHome(userId);
+        }
+        if (meal.isEmpty()) {
+            return new HomeRecommendationResponse(getFreshOrGenerateMeal(userId), getCachedWorkoutRecommendations(userId));
+        }
+        if (workout.isEmpty()) {
+            return new HomeRecommendationResponse(getCachedMealRecommendations(userId), getFreshOrGenerateWorkout(userId));
+        }
+
+        // Ambas expiradas: uma única regeneração combinada em segundo plano
+        if (!meal.get().fresh() && !workout.get().fresh()) {
+            refreshInBackground(userId, "home", () -> getFreshOrGenerateHome(userId));
+        } else if (!meal.get().fresh()) {
+            refreshInBackground(userId, RecommendationKind.MEAL, () -> getFreshOrGenerateMeal(userId));
+        } else if (!workout.get().fresh()) {
+            refreshInBackground(userId, RecommendationKind.WORKOUT, () -> getFreshOrGenerateWorkout(userId));
+        }
+        return new HomeRecommendationResponse(meal.get().response(), workout.get().response());
+    }
+
+    /**
+     * Streams meal recommendations: a cached answer is replayed at once (an expired one inside the
+     * stale window is regenerated in the background, as in {@link #getCachedMealRecommendations}),
+     * otherwise each recommendation is emitted as soon as the model finishes writing it and the full
+     * response is cached at the end. A stream shares the single-flight with the other generations:
+     * while one is running for the user, a second stream waits for it and replays its result.
+     */
+    public Flux<RecommendationStreamEvent> streamMealRecommendations(String userId) {
+        Optional<RecommendationCacheService.CachedRecommendation<MealRecommendationResponse>> cached =
+                recommendationCacheService.getServable(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+        if (cached.isPresent()) {
+            if (!cached.get().fresh()) {
+                refreshInBackground(userId, RecommendationKind.MEAL, () -> getFreshOrGenerateMeal(userId));
+            }
+            return replay(cached.get().response().recommendations(), cached.get().response());
+        }
+
+        long contextVersion = contextVersionService.current(userId);
+        UserContext user = activityDigestService.getUserContext(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        MealRecommendationRequest request = new MealRecommendationRequest(
+                LocalDateTime.now(), MealRecommendationRequest.MealType.AUTO, null);
+        Prompt prompt = mealPrompt(user, request);
 
-        // Check if cache is valid (exists and not expired)
-        if (user.getMealRecommendationsCache() != null &&
-            user.getMealCacheExpiry() != null &&
-            LocalDateTime.now().isBefore(user.getMealCacheExpiry())) {
+        return streamRecommendations(userId, RecommendationKind.MEAL, prompt, contextVersion, determineMealType(request), mealGenerations,
+                MealRecommendationResponse.RecommendedMeal.class, MealRecommendationResponse.class,
+                MealRecommendationResponse::recommendations);
+    }
 
-            try {
-                // Deserialize cached recommendations
-                MealRecommendationResponse cachedResponse = objectMapper.readValue(
-                    user.getMealRecommendationsCache(),
-                    MealRecommendationResponse.class
-                );
-                logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_HIT", "Retrieved meal recommendations from cache for user: " + userId);
-                return cachedResponse;
-            } catch (JsonProcessingException e) {
-                logService.logError("RECOMMENDATION_SERVICE", "Failed to deserialize cached meal recommendations", e.getMessage());
-                // Fall through to generate new recommendations
+    /**
+     * Streams workout recommendations; see {@link #streamMealRecommendations(String)}.
+     */
+    public Flux<RecommendationStreamEvent> streamWorkoutRecommendations(String userId) {
+        Optional<RecommendationCacheService.CachedRecommendation<WorkoutRecommendationResponse>> cached =
+                recommendationCacheService.getServable(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class);
+        if (cached.isPresent()) {
+            if (!cached.get().fresh()) {
+                refreshInBackground(userId, RecommendationKind.WORKOUT, () -> getFreshOrGenerateWorkout(userId));
             }
+            return replay(cached.get().response().recommendations(), cached.get().response());
         }
 
-        // If no valid cache exists, generate new recommendations with auto meal type
-        MealRecommendationRequest request = new MealRecommendationRequest(LocalDateTime.now(), MealRecommendationRequest.MealType.AUTO, null);
-        return recommendMeal(userId, request);
+        long contextVersion = contextVersionService.current(userId);
+        UserContext user = activityDigestService.getUserContext(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        Prompt prompt = workoutPrompt(user, new WorkoutRecommendationRequest(
+                LocalDateTime.now(),
+                30, // Default 30 minutes
+                WorkoutRecommendationRequest.IntensityLevel.AUTO,
+                null));
+
+        return streamRecommendations(userId, RecommendationKind.WORKOUT, prompt, contextVersion, null, workoutGenerations,
+                WorkoutRecommendationResponse.RecommendedWorkout.class, WorkoutRecommendationResponse.class,
+                WorkoutRecommendationResponse::recommendations);
+    }
+
+    private <T, R> Flux<RecommendationStreamEvent> streamRecommendations(String userId, RecommendationKind kind, Prompt prompt,
+                                                                         long contextVersion, MealRecommendationRequest.MealType mealPeriod,
+                                                                         SingleFlight<String, R> generations,
+                                                                         Class<T> itemType, Class<R> responseType,
+                                                                         Function<R, List<?>> itemsOf) {
+        return Flux.defer(() -> {
+            CompletableFuture<R> flight = new CompletableFuture<>();
+            CompletableFuture<R> running = generations.joinOrStart(userId, flight);
+            if (running != null) {
+                // Geração do mesmo usuário e tipo já em andamento (stream ou não): espera e repete o resultado.
+                // Cancelar este stream não cancela a geração dos outros
+                return Mono.fromFuture(running, true)
+                        .flatMapMany(response -> replay(itemsOf.apply(response), response))
+                        .onErrorResume(e -> streamFailure(userId, kind, responseType, itemsOf, e));
+            }
+
+            IncrementalRecommendationParser<T> parser = new IncrementalRecommendationParser<>(objectMapper, itemType);
+
+            // Parser e gravação no cache bloqueiam; saem da thread de I/O do cliente HTTP do modelo
+            Flux<RecommendationStreamEvent> items = llmGateway.stream(LlmCallType.RECOMMENDATION, prompt)
+                    .publishOn(Schedulers.boundedElastic())
+                    .concatMapIterable(chunk -> {
+                        int emitted = parser.items().size();
+                        parser.feed(textOf(chunk));
+                        return parser.items().subList(emitted, parser.items().size()).stream()
+                                .map(RecommendationStreamEvent::recommendation)
+                                .toList();
+                    });
+
+            Mono<RecommendationStreamEvent> complete = Mono.fromCallable(() -> {
+                R response = parser.finish(responseType);
+                try {
+                    recommendationCacheService.put(userId, kind, response, contextVersion, mealPeriod);
+                    logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_SAVE", "Saved streamed " + kind + " recommendation to cache for user: " + userId);
+                } catch (Exception e) {
+                    logService.logError("RECOMMENDATION_SERVICE", "Failed to save streamed " + kind + " recommendation to cache", e.getMessage());
+                }
+                flight.complete(response);
+                return RecommendationStreamEvent.complete(response);
+            });
+
+            return items.concatWith(complete)
+                    .doOnError(flight::completeExceptionally)
+                    // Cliente desconectou: quem esperava por este stream cai no fallback de indisponibilidade
+                    .doOnCancel(() -> flight.completeExceptionally(
+                            new LlmUnavailableException("Streamed " + kind + " recommendation was cancelled", 1)))
+                    .onErrorResume(e -> parser.items().isEmpty()
+                            ? streamFailure(userId, kind, responseType, itemsOf, e)
+                            : Flux.just(streamError(userId, kind, e)));
+        });
+    }
+
+    /**
+     * Falha antes de qualquer item enviado: com o modelo indisponível, a última recomendação salva
+     * é melhor que um erro.
+     */
+    private <R> Flux<RecommendationStreamEvent> streamFailure(String userId, RecommendationKind kind, Class<R> responseType,
+                                                             Function<R, List<?>> itemsOf, Throwable e) {
+        if (e instanceof LlmUnavailableException) {
+            Optional<R> stored = recommendationCacheService.getStored(userId, kind, responseType);
+            if (stored.isPresent()) {
+                logService.logError("RECOMMENDATION_SERVICE", "Streamed " + kind + " recommendation failed for user: " + userId, e.getMessage());
+                return replay(itemsOf.apply(stored.get()), stored.get());
+            }
+        }
+        return Flux.just(streamError(userId, kind, e));
+    }
+
+    private RecommendationStreamEvent streamError(String userId, RecommendationKind kind, Throwable e) {
+        logService.logError("RECOMMENDATION_SERVICE", "Streamed " + kind + " recommendation failed for user: " + userId, e.getMessage());
+        return RecommendationStreamEvent.error(e instanceof LlmUnavailableException
+                ? "Recommendations are temporarily unavailable. Please try again shortly."
+                : "Unable to parse AI response. Please try again.");
+    }
+
+    private static Flux<RecommendationStreamEvent> replay(List<?> items, Object response) {
+        return Flux.fromIterable(items)
+                .map(RecommendationStreamEvent::recommendation)
+                .concatWithValues(RecommendationStreamEvent.complete(response));
+    }
+
+    private static String textOf(org.springframework.ai.chat.model.ChatResponse chunk) {
+        if (chunk.getResult() == null || chunk.getResult().getOutput() == null) {
+            return null;
+        }
+        return chunk.getResult().getOutput().getText();
     }
 
     /**
@@ -408,36 +852,19 @@ public class RecommendationService {
      * @return Cached or freshly generated workout recommendations
      */
     public WorkoutRecommendationResponse getCachedWorkoutRecommendations(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-        // Check if cache is valid (exists and not expired)
-        if (user.getWorkoutRecommendationsCache() != null &&
-            user.getWorkoutCacheExpiry() != null &&
-            LocalDateTime.now().isBefore(user.getWorkoutCacheExpiry())) {
-
-            try {
-                // Deserialize cached recommendations
-                WorkoutRecommendationResponse cachedResponse = objectMapper.readValue(
-                    user.getWorkoutRecommendationsCache(),
-                    WorkoutRecommendationResponse.class
-                );
-                logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_HIT", "Retrieved workout recommendations from cache for user: " + userId);
-                return cachedResponse;
-            } catch (JsonProcessingException e) {
-                logService.logError("RECOMMENDATION_SERVICE", "Failed to deserialize cached workout recommendations", e.getMessage());
-                // Fall through to generate new recommendations
+        // Cache hits are served from memory and tracked by the mindfit.recommendation.cache metric.
+        // Within the stale window an expired entry is still returned and regenerated in the background.
+        Optional<RecommendationCacheService.CachedRecommendation<WorkoutRecommendationResponse>> cached =
+                recommendationCacheService.getServable(userId, RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class);
+        if (cached.isPresent()) {
+            if (!cached.get().fresh()) {
+                refreshInBackground(userId, RecommendationKind.WORKOUT, () -> getFreshOrGenerateWorkout(userId));
             }
+            return cached.get().response();
         }
 
         // If no valid cache exists, generate new recommendations with auto settings
-        WorkoutRecommendationRequest request = new WorkoutRecommendationRequest(
-            LocalDateTime.now(),
-            30, // Default 30 minutes
-            WorkoutRecommendationRequest.IntensityLevel.AUTO,
-            null
-        );
-        return recommendWorkout(userId, request);
+        return getFreshOrGenerateWorkout(userId);
     }
 
     /**
@@ -446,15 +873,8 @@ public class RecommendationService {
      */
     public void clearUserCache(String userId) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user != null) {
-                user.setMealRecommendationsCache(null);
-                user.setMealCacheExpiry(null);
-                user.setWorkoutRecommendationsCache(null);
-                user.setWorkoutCacheExpiry(null);
-                userRepository.save(user);
-                logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_CLEAR", "Cleared recommendation cache for user: " + userId);
-            }
+            recommendationCacheService.evict(userId);
+            logService.logApiCall("RECOMMENDATION_SERVICE", "CACHE_CLEAR", "Cleared recommendation cache for user: " + userId);
         } catch (Exception e) {
             logService.logError("RECOMMENDATION_SERVICE", "Failed to clear cache for user: " + userId, e.getMessage());
         }
@@ -467,24 +887,15 @@ public class RecommendationService {
      */
     public CacheStatus getCacheStatus(String userId) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                return new CacheStatus(false, null, false, null);
-            }
-
-            boolean mealCacheValid = user.getMealRecommendationsCache() != null &&
-                                   user.getMealCacheExpiry() != null &&
-                                   LocalDateTime.now().isBefore(user.getMealCacheExpiry());
-
-            boolean workoutCacheValid = user.getWorkoutRecommendationsCache() != null &&
-                                      user.getWorkoutCacheExpiry() != null &&
-                                      LocalDateTime.now().isBefore(user.getWorkoutCacheExpiry());
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime mealExpiry = recommendationCacheService.getExpiry(userId, RecommendationKind.MEAL).orElse(null);
+            LocalDateTime workoutExpiry = recommendationCacheService.getExpiry(userId, RecommendationKind.WORKOUT).orElse(null);
 
             return new CacheStatus(
-                mealCacheValid,
-                user.getMealCacheExpiry(),
-                workoutCacheValid,
-                user.getWorkoutCacheExpiry()
+                recommendationCacheService.isCurrentAt(userId, RecommendationKind.MEAL, now),
+                mealExpiry,
+                recommendationCacheService.isCurrentAt(userId, RecommendationKind.WORKOUT, now),
+                workoutExpiry
             );
         } catch (Exception e) {
             logService.logError("RECOMMENDATION_SERVICE", "Failed to get cache status for user: " + userId, e.getMessage());
@@ -500,7 +911,8 @@ public class RecommendationService {
      */
     public MealRecommendationResponse generateNewMealRecommendations(String userId, MealRecommendationRequest request) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
+            long contextVersion = contextVersionService.current(userId);
+            UserContext user = activityDigestService.getUserContext(userId).orElse(null);
             if (user == null) {
                 return MealRecommendationResponse.builder()
                         .recommendations(List.of())
@@ -520,17 +932,16 @@ public class RecommendationService {
                     options
             );
 
-            var aiResponse = openAiChatModel.call(prompt);
+            var aiResponse = llmGateway.call(LlmCallType.RECOMMENDATION, prompt);
             String response = aiResponse.getResult().getOutput().getText();
 
             MealRecommendationResponse mealResponse = parseMealRecommendation(response);
 
-            // Save to cache for future requests (store in user entity)
+            // Save to cache for future requests
             try {
-                String cacheJson = objectMapper.writeValueAsString(mealResponse);
-                user.setMealRecommendationsCache(cacheJson);
-                user.setMealCacheExpiry(LocalDateTime.now().plusHours(2)); // 2-hour expiry
-                userRepository.save(user);
+                // O prompt de novas recomendações usa a refeição do horário atual
+                recommendationCacheService.put(userId, RecommendationKind.MEAL, mealResponse, contextVersion,
+                        MealRecommendationRequest.MealType.at(LocalDateTime.now()));
                 logService.logApiCall("RECOMMENDATION_SERVICE", "NEW_MEAL_CACHE_SAVE", "Saved new meal recommendation to cache for user: " + userId);
             } catch (Exception e) {
                 logService.logError("RECOMMENDATION_SERVICE", "Failed to save new meal recommendation to cache", e.getMessage());
@@ -555,7 +966,8 @@ public class RecommendationService {
      */
     public WorkoutRecommendationResponse generateNewWorkoutRecommendations(String userId, WorkoutRecommendationRequest request) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
+            long contextVersion = contextVersionService.current(userId);
+            UserContext user = activityDigestService.getUserContext(userId).orElse(null);
             if (user == null) {
                 return WorkoutRecommendationResponse.builder()
                         .recommendations(List.of())
@@ -575,17 +987,14 @@ public class RecommendationService {
                     options
             );
 
-            var aiResponse = openAiChatModel.call(prompt);
+            var aiResponse = llmGateway.call(LlmCallType.RECOMMENDATION, prompt);
             String response = aiResponse.getResult().getOutput().getText();
 
             WorkoutRecommendationResponse workoutResponse = parseWorkoutRecommendation(response);
 
-            // Save to cache for future requests (store in user entity)
+            // Save to cache for future requests
             try {
-                String cacheJson = objectMapper.writeValueAsString(workoutResponse);
-                user.setWorkoutRecommendationsCache(cacheJson);
-                user.setWorkoutCacheExpiry(LocalDateTime.now().plusHours(2)); // 2-hour expiry
-                userRepository.save(user);
+                recommendationCacheService.put(userId, RecommendationKind.WORKOUT, workoutResponse, contextVersion);
                 logService.logApiCall("RECOMMENDATION_SERVICE", "NEW_WORKOUT_CACHE_SAVE", "Saved new workout recommendation to cache for user: " + userId);
             } catch (Exception e) {
                 logService.logError("RECOMMENDATION_SERVICE", "Failed to save new workout recommendation to cache", e.getMessage());
@@ -602,16 +1011,16 @@ public class RecommendationService {
         }
     }
 
-    private String buildNewMealPrompt(User user, MealRecommendationRequest request) {
+    private String buildNewMealPrompt(UserContext user, MealRecommendationRequest request) {
         StringBuilder promptBuilder = new StringBuilder();
 
         promptBuilder.append("You are a nutrition expert. Generate NEW and DIFFERENT personalized meal recommendations in JSON format.\n\n");
 
         // Add user context
         promptBuilder.append("USER CONTEXT:\n");
-        promptBuilder.append("Name: ").append(user.getName()).append("\n");
-        if (user.getProfile() != null && !user.getProfile().trim().isEmpty()) {
-            promptBuilder.append("Profile: ").append(user.getProfile()).append("\n");
+        promptBuilder.append("Name: ").append(user.name()).append("\n");
+        if (user.profile() != null && !user.profile().trim().isEmpty()) {
+            promptBuilder.append("Profile: ").append(user.profile()).append("\n");
         }
 
         // Add current time context
@@ -621,14 +1030,14 @@ public class RecommendationService {
                 .append(" (").append(timeOfDay).append(")\n");
 
         // Add meal type
-        String mealType = determineMealType(new MealRecommendationRequest(currentTime, MealRecommendationRequest.MealType.AUTO, null));
+        String mealType = determineMealType(new MealRecommendationRequest(currentTime, MealRecommendationRequest.MealType.AUTO, null)).name();
         promptBuilder.append("Meal Type: ").append(mealType).append("\n\n");
 
         // Add recent meal history
-        addRecentMealHistory(promptBuilder, user.getId());
+        addRecentMealHistory(promptBuilder, user.id());
 
         // Add recent measurements for calorie guidance
-        addRecentMeasurements(promptBuilder, user.getId());
+        addRecentMeasurements(promptBuilder, user.id());
 
         // Add current recommendations to avoid
         if (request != null && request.currentRecommendations() != null && !request.currentRecommendations().isEmpty()) {
@@ -669,16 +1078,16 @@ public class RecommendationService {
         return promptBuilder.toString();
     }
 
-    private String buildNewWorkoutPrompt(User user, WorkoutRecommendationRequest request) {
+    private String buildNewWorkoutPrompt(UserContext user, WorkoutRecommendationRequest request) {
         StringBuilder promptBuilder = new StringBuilder();
 
         promptBuilder.append("You are a fitness expert. Generate NEW and DIFFERENT personalized workout recommendations in JSON format.\n\n");
 
         // Add user context
         promptBuilder.append("USER CONTEXT:\n");
-        promptBuilder.append("Name: ").append(user.getName()).append("\n");
-        if (user.getProfile() != null && !user.getProfile().trim().isEmpty()) {
-            promptBuilder.append("Profile: ").append(user.getProfile()).append("\n");
+        promptBuilder.append("Name: ").append(user.name()).append("\n");
+        if (user.profile() != null && !user.profile().trim().isEmpty()) {
+            promptBuilder.append("Profile: ").append(user.profile()).append("\n");
         }
 
         // Add current time context
@@ -691,10 +1100,10 @@ public class RecommendationService {
         promptBuilder.append("Preferred Intensity: AUTO\n\n");
 
         // Add recent exercise history
-        addRecentExerciseHistory(promptBuilder, user.getId());
+        addRecentExerciseHistory(promptBuilder, user.id());
 
         // Add recent measurements for fitness guidance
-        addRecentMeasurements(promptBuilder, user.getId());
+        addRecentMeasurements(promptBuilder, user.id());
 
         // Add current recommendations to avoid
         if (request != null && request.currentRecommendations() != null && !request.currentRecommendations().isEmpty()) {
@@ -749,95 +1158,6 @@ public class RecommendationService {
         return promptBuilder.toString();
     }
 
-    /**
-     * Clean up AI response to ensure valid JSON
-     */
-    private String cleanupJsonResponse(String jsonResponse) {
-        String cleanJson = jsonResponse.trim();
-
-        // Remove markdown code blocks
-        if (cleanJson.startsWith("```json")) {
-            cleanJson = cleanJson.substring(7);
-        } else if (cleanJson.startsWith("```")) {
-            cleanJson = cleanJson.substring(3);
-        }
-
-        if (cleanJson.endsWith("```")) {
-            cleanJson = cleanJson.substring(0, cleanJson.length() - 3);
-        }
-
-        cleanJson = cleanJson.trim();
-
-        // Try to fix common JSON issues
-        // If response is truncated and doesn't end with }, try to close it
-        if (!cleanJson.endsWith("}") && !cleanJson.endsWith("]")) {
-            // Find the last complete object/array and try to close it
-            int lastBraceIndex = cleanJson.lastIndexOf('{');
-            int lastBracketIndex = cleanJson.lastIndexOf('[');
-
-            if (lastBraceIndex > lastBracketIndex && !cleanJson.substring(lastBraceIndex).contains("}")) {
-                // Try to complete the JSON object
-                cleanJson = attemptJsonCompletion(cleanJson);
-            }
-        }
-
-        return cleanJson;
-    }
-
-    /**
-     * Attempt to complete truncated JSON
-     */
-    private String attemptJsonCompletion(String truncatedJson) {
-        try {
-            // Simple heuristic: if we have an incomplete JSON, try to close it properly
-            StringBuilder completion = new StringBuilder(truncatedJson);
-
-            // Count open braces and brackets
-            int openBraces = 0;
-            int openBrackets = 0;
-
-            for (char c : truncatedJson.toCharArray()) {
-                if (c == '{') openBraces++;
-                else if (c == '}') openBraces--;
-                else if (c == '[') openBrackets++;
-                else if (c == ']') openBrackets--;
-            }
-
-            // Close any incomplete strings if needed
-            if (truncatedJson.matches(".*\"[^\"]*$")) {
-                completion.append("\"");
-            }
-
-            // Close objects and arrays
-            for (int i = 0; i < openBrackets; i++) {
-                completion.append("]");
-            }
-            for (int i = 0; i < openBraces; i++) {
-                completion.append("}");
-            }
-
-            return completion.toString();
-        } catch (Exception e) {
-            // If completion fails, return original
-            return truncatedJson;
-        }
-    }
-
-    /**
-     * Validate that JSON has the basic structure we expect
-     */
-    private boolean isValidJsonStructure(String json) {
-        try {
-            // Quick validation - check if it's valid JSON and has recommendations field
-            return json.contains("\"recommendations\"") &&
-                   json.contains("[") &&
-                   json.contains("{") &&
-                   (json.trim().startsWith("{") || json.trim().startsWith("["));
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     // Helper record for cache status
     public record CacheStatus(
         boolean mealCacheValid,
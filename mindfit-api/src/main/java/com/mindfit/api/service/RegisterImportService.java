@@ -0,0 +1,274 @@
+package com.mindfit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.ExerciseRegisterCreateRequest;
+import com.mindfit.api.dto.MealRegisterCreateRequest;
+import com.mindfit.api.dto.RegisterImportReport;
+import com.mindfit.api.enums.ImportFormat;
+import com.mindfit.api.mapper.ExerciseRegisterMapper;
+import com.mindfit.api.mapper.MealRegisterMapper;
+import com.mindfit.api.model.ExerciseRegister;
+import com.mindfit.api.model.MealRegister;
+import com.mindfit.api.repository.ExerciseRegisterRepository;
+import com.mindfit.api.repository.MealRegisterRepository;
+import com.mindfit.api.util.SecurityUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de registros de refeição e exercício a partir de CSV (com linha de cabeçalho
+ * usando os nomes dos campos da requisição de criação) ou NDJSON (um objeto JSON por linha).
+ * O corpo é lido linha a linha, cada linha é validada como uma criação avulsa e as válidas são
+ * gravadas em blocos, cada bloco numa transação com inserts em lote; linhas inválidas não
+ * interrompem a importação e voltam no relatório com o número da linha.
+ */
+@Service
+@RequiredArgsConstructor
+public class RegisterImportService {
+
+    private final MealRegisterRepository mealRegisterRepository;
+    private final ExerciseRegisterRepository exerciseRegisterRepository;
+    private final MealRegisterMapper mealRegisterMapper;
+    private final ExerciseRegisterMapper exerciseRegisterMapper;
+    private final ActivityDigestService activityDigestService;
+    private final ContextVersionService contextVersionService;
+    private final LogService logService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${app.register-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.register-import.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    @Value("${app.register-import.max-rows:200000}")
+    private int maxRows;
+
+    @Value("${app.register-import.max-reported-errors:200}")
+    private int maxReportedErrors;
+
+    public RegisterImportReport importMeals(String userId, ImportFormat format, InputStream body) throws IOException {
+        return importRows(userId, "meal", format, body, MealRegisterCreateRequest.class, row -> {
+            MealRegister mealRegister = mealRegisterMapper.toEntity(row);
+            mealRegister.setUserId(userId);
+            return mealRegister;
+        }, mealRegisterRepository);
+    }
+
+    public RegisterImportReport importExercises(String userId, ImportFormat format, InputStream body) throws IOException {
+        return importRows(userId, "exercise", format, body, ExerciseRegisterCreateRequest.class, row -> {
+            ExerciseRegister exerciseRegister = exerciseRegisterMapper.toEntity(row);
+            exerciseRegister.setUserId(userId);
+            return exerciseRegister;
+        }, exerciseRegisterRepository);
+    }
+
+    private <R, E> RegisterImportReport importRows(String userId, String kind, ImportFormat format, InputStream body,
+                                                   Class<R> rowType, Function<R, E> toEntity,
+                                                   JpaRepository<E, String> repository) throws IOException {
+        if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
+            throw new UnauthorizedException("Users can only create their own " + kind + " registers");
+        }
+
+        Progress progress = new Progress();
+        List<E> chunk = new ArrayList<>(chunkSize);
+        long chunkFirstLine = 0;
+        List<String> header = null;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && header == null) {
+                    header = splitCsvLine(stripBom(line)).stream().map(String::trim).toList();
+                    continue;
+                }
+                if (progress.received >= maxRows) {
+                    progress.truncated = true;
+                    break;
+                }
+                progress.received++;
+
+                R row;
+                try {
+                    row = format == ImportFormat.NDJSON
+                            ? objectMapper.readValue(line, rowType)
+                            : objectMapper.convertValue(toFields(header, splitCsvLine(line)), rowType);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    progress.reject(lineNumber, "Invalid " + format.name() + " row: " + rootMessage(e));
+                    continue;
+                }
+
+                Set<ConstraintViolation<R>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    progress.reject(lineNumber, violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+
+                if (chunk.isEmpty()) {
+                    chunkFirstLine = lineNumber;
+                }
+                chunk.add(toEntity.apply(row));
+                if (chunk.size() >= chunkSize) {
+                    flush(kind, chunk, chunkFirstLine, lineNumber, repository, progress);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(kind, chunk, chunkFirstLine, lineNumber, repository, progress);
+            }
+        } finally {
+            // Blocos já gravados continuam gravados mesmo se a leitura falhar no meio; um único ajuste
+            // de contexto para todo o lote, em vez de um por linha
+            if (progress.imported > 0) {
+                activityDigestService.evict(userId);
+                contextVersionService.bump(userId);
+            }
+        }
+        return new RegisterImportReport(progress.received, progress.imported, progress.rejected,
+                progress.truncated, progress.errors);
+    }
+
+    private <E> void flush(String kind, List<E> chunk, long firstLine, long lastLine,
+                           JpaRepository<E, String> repository, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                Integer previousBatchSize = session.getJdbcBatchSize();
+                session.setJdbcBatchSize(jdbcBatchSize);
+                try {
+                    repository.saveAll(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                } finally {
+                    session.setJdbcBatchSize(previousBatchSize);
+                }
+            });
+            progress.imported += chunk.size();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            // O flush explícito no EntityManager não passa pela tradução de exceções do repositório:
+            // violações de tamanho ou de constraint chegam aqui como PersistenceException do Hibernate
+            logService.logError("REGISTER_IMPORT", "Failed to import " + kind + " registers", e.getMessage());
+            progress.rejected += chunk.size();
+            progress.addError(firstLine, "Rows " + firstLine + "-" + lastLine + " were not saved: "
+                    + rootMessage(e));
+        }
+        chunk.clear();
+    }
+
+    private static Map<String, String> toFields(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("expected " + header.size() + " columns, found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            // Célula vazia equivale a campo ausente
+            if (!value.isEmpty()) {
+                fields.put(header.get(i), value);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Divide uma linha CSV respeitando aspas duplas ({@code ""} dentro de aspas é uma aspa literal).
+     * Campos com quebra de linha não são suportados.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        // Mensagens do Jackson trazem a origem e o caminho após a primeira linha
+        int newline = message.indexOf('\n');
+        return newline > 0 ? message.substring(0, newline) : message;
+    }
+
+    private final class Progress {
+        private int received;
+        private int imported;
+        private int rejected;
+        private boolean truncated;
+        private final List<RegisterImportReport.RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            rejected++;
+            addError(line, message);
+        }
+
+        private void addError(long line, String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RegisterImportReport.RowError(line, message));
+            }
+        }
+    }
+}
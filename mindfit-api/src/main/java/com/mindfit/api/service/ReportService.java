@@ -1,8 +1,17 @@
 package com.mindfit.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindfit.api.common.exception.BadRequestException;
+import com.mindfit.api.dto.ConsumptionTrendReportResponse;
 import com.mindfit.api.dto.UserConsumptionReportResponse;
+import com.mindfit.api.enums.ReportGranularity;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -10,17 +19,85 @@ import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Relatórios de consumo lidos do rollup daily_user_nutrition (V11). Os resultados ficam em memória
+ * por usuário e período, com a versão de contexto na chave: um novo registro de refeição ou exercício
+ * incrementa a versão e a próxima leitura recalcula.
+ */
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
-    private final JdbcTemplate jdbcTemplate;
+    // Três passos num único SELECT: dia do rollup -> período (TRUNC com formato em bind, então o texto
+    // do comando é sempre o mesmo) -> funções de janela sobre os períodos já agregados.
+    // %s é a função de truncamento (app.report.period-function)
+    private static final String TREND_SQL = """
+            SELECT period_start, calories_in, calories_out, carbo, protein, fat, exercise_minutes, active_days,
+                   calories_in - calories_out AS net_calories,
+                   SUM(calories_in - calories_out) OVER (ORDER BY period_start) AS cumulative_net,
+                   (calories_in - calories_out)
+                       - LAG(calories_in - calories_out) OVER (ORDER BY period_start) AS net_change,
+                   AVG(calories_in - calories_out)
+                       OVER (ORDER BY period_start ROWS BETWEEN 2 PRECEDING AND CURRENT ROW) AS moving_avg_net
+              FROM (
+                    SELECT period_start,
+                           SUM(calories_in) AS calories_in,
+                           SUM(calories_out) AS calories_out,
+                           SUM(carbo) AS carbo,
+                           SUM(protein) AS protein,
+                           SUM(fat) AS fat,
+                           SUM(exercise_minutes) AS exercise_minutes,
+                           COUNT(*) AS active_days
+                      FROM (
+                            SELECT %s(nutrition_date, ?) AS period_start,
+                                   calories_in, calories_out, carbo, protein, fat, exercise_minutes
+                              FROM daily_user_nutrition
+                             WHERE user_id = ?
+                               AND nutrition_date BETWEEN ? AND ?
+                           ) days
+                     GROUP BY period_start
+                   ) periods
+             ORDER BY period_start
+            """;
 
-    public UserConsumptionReportResponse generateConsumptionReport(String userId) {
-        SimpleJdbcCall call = new SimpleJdbcCall(jdbcTemplate)
+    // Pool de relatórios: procedures lentas não disputam conexões com as requisições interativas
+    @Qualifier("reportingJdbcTemplate")
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final ContextVersionService contextVersionService;
+
+    @Value("${app.report.period-function:TRUNC}")
+    private String periodFunction;
+
+    @Value("${app.report.max-range-days:1096}")
+    private long maxRangeDays;
+
+    @Value("${app.report.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${app.report.cache.ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    private SimpleJdbcCall consumptionReportCall;
+    private PreparedStatementCreatorFactory trendQuery;
+    private Cache<ReportKey, UserConsumptionReportResponse> consumptionReports;
+    private Cache<ReportKey, ConsumptionTrendReportResponse> trendReports;
+
+    @PostConstruct
+    void init() {
+        // Declarados uma vez: cada chamada só associa os parâmetros
+        consumptionReportCall = new SimpleJdbcCall(reportingJdbcTemplate)
                 .withProcedureName("sp_generate_user_consumption_report")
                 .declareParameters(
                         new SqlParameter("p_user_id", Types.VARCHAR),
@@ -29,8 +106,48 @@ public class ReportService {
                         new SqlOutParameter("o_net_calories", Types.NUMERIC)
                 )
                 .withoutProcedureColumnMetaDataAccess();
+        consumptionReportCall.compile();
+
+        trendQuery = new PreparedStatementCreatorFactory(TREND_SQL.formatted(periodFunction),
+                Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.DATE);
+
+        // O ttl limita a defasagem entre instâncias e de leituras feitas na réplica
+        consumptionReports = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+        trendReports = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    public UserConsumptionReportResponse generateConsumptionReport(String userId) {
+        ReportKey key = new ReportKey(userId, contextVersionService.current(userId), null, null, null);
+        return consumptionReports.get(key, k -> callConsumptionReport(userId));
+    }
+
+    /**
+     * Totais por dia, semana ISO ou mês entre {@code startDate} e {@code endDate} (inclusive, yyyy-MM-dd),
+     * com acumulado, variação em relação ao período anterior e média móvel de três períodos do saldo.
+     */
+    public ConsumptionTrendReportResponse generateTrendReport(String userId, String startDate, String endDate,
+                                                              ReportGranularity granularity) {
+        LocalDate start = parseDate(startDate);
+        LocalDate end = parseDate(endDate);
+        if (end.isBefore(start)) {
+            throw new BadRequestException("endDate must not be before startDate");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxRangeDays) {
+            throw new BadRequestException("Report range must not exceed " + maxRangeDays + " days");
+        }
 
-        Map<String, Object> result = call.execute(
+        ReportKey key = new ReportKey(userId, contextVersionService.current(userId), granularity, start, end);
+        return trendReports.get(key, k -> queryTrendReport(userId, start, end, granularity));
+    }
+
+    private UserConsumptionReportResponse callConsumptionReport(String userId) {
+        Map<String, Object> result = consumptionReportCall.execute(
                 new MapSqlParameterSource().addValue("p_user_id", userId)
         );
 
@@ -46,6 +163,54 @@ public class ReportService {
         );
     }
 
+    private ConsumptionTrendReportResponse queryTrendReport(String userId, LocalDate start, LocalDate end,
+                                                            ReportGranularity granularity) {
+        List<ConsumptionTrendReportResponse.Bucket> buckets = reportingJdbcTemplate.query(
+                trendQuery.newPreparedStatementCreator(List.of(
+                        granularity.truncFormat(), userId, Date.valueOf(start), Date.valueOf(end))),
+                (rs, rowNum) -> toBucket(rs));
+
+        BigDecimal consumed = BigDecimal.ZERO;
+        BigDecimal burned = BigDecimal.ZERO;
+        int activeDays = 0;
+        for (ConsumptionTrendReportResponse.Bucket bucket : buckets) {
+            consumed = consumed.add(bucket.caloriesConsumed());
+            burned = burned.add(bucket.caloriesBurned());
+            activeDays += bucket.activeDays();
+        }
+        return new ConsumptionTrendReportResponse(userId, start, end, granularity,
+                consumed, burned, consumed.subtract(burned), activeDays, buckets);
+    }
+
+    private ConsumptionTrendReportResponse.Bucket toBucket(ResultSet rs) throws SQLException {
+        BigDecimal movingAverage = rs.getBigDecimal("moving_avg_net");
+        return new ConsumptionTrendReportResponse.Bucket(
+                rs.getObject("period_start", LocalDate.class),
+                toBigDecimal(rs.getBigDecimal("calories_in")),
+                toBigDecimal(rs.getBigDecimal("calories_out")),
+                toBigDecimal(rs.getBigDecimal("net_calories")),
+                toBigDecimal(rs.getBigDecimal("carbo")),
+                toBigDecimal(rs.getBigDecimal("protein")),
+                toBigDecimal(rs.getBigDecimal("fat")),
+                toBigDecimal(rs.getBigDecimal("exercise_minutes")),
+                rs.getInt("active_days"),
+                toBigDecimal(rs.getBigDecimal("cumulative_net")),
+                rs.getBigDecimal("net_change"),
+                movingAverage == null ? null : movingAverage.setScale(2, RoundingMode.HALF_UP)
+        );
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException("startDate and endDate are required (yyyy-MM-dd)");
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + value + ". Expected yyyy-MM-dd");
+        }
+    }
+
     private BigDecimal toBigDecimal(Object value) {
         if (value == null) {
             return BigDecimal.ZERO;
@@ -58,4 +223,9 @@ public class ReportService {
         }
         return new BigDecimal(value.toString());
     }
+
+    // Sem granularidade e datas: relatório de totais gerais
+    private record ReportKey(String userId, long contextVersion, ReportGranularity granularity,
+                             LocalDate startDate, LocalDate endDate) {
+    }
 }
@@ -0,0 +1,43 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.model.SchedulerLock;
+import com.mindfit.api.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Trava de jobs agendados compartilhada entre instâncias pela tabela scheduler_locks.
+ * A trava não é liberada ao fim do job: vale por {@code holdFor}, o que também impede que uma
+ * instância com o relógio um pouco atrasado repita a mesma execução.
+ */
+@Service
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+    private static final String INSTANCE = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final SchedulerLockRepository schedulerLockRepository;
+
+    public boolean tryLock(String name, Duration holdFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(holdFor);
+        if (schedulerLockRepository.claim(name, now, lockedUntil, INSTANCE) == 1) {
+            return true;
+        }
+        if (schedulerLockRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            schedulerLockRepository.saveAndFlush(new SchedulerLock(name, lockedUntil, now, INSTANCE));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou a trava ao mesmo tempo
+            return false;
+        }
+    }
+}
@@ -4,13 +4,16 @@ import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
 import com.mindfit.api.dto.SensorReadingCreateRequest;
 import com.mindfit.api.dto.SensorReadingDto;
+import com.mindfit.api.dto.SensorReadingResponse;
 import com.mindfit.api.mapper.SensorReadingMapper;
 import com.mindfit.api.model.Sensor;
 import com.mindfit.api.model.SensorReading;
 import com.mindfit.api.repository.SensorReadingRepository;
 import com.mindfit.api.repository.SensorRepository;
 import com.mindfit.api.util.SecurityUtil;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,8 +27,9 @@ public class SensorReadingService {
     private final SensorReadingRepository sensorReadingRepository;
     private final SensorRepository sensorRepository;
     private final SensorReadingMapper sensorReadingMapper;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public Page<SensorReadingDto> findBySensorId(String sensorId, String startDate, String endDate, Pageable pageable) {
+    public Page<SensorReadingResponse> findBySensorId(String sensorId, String startDate, String endDate, Pageable pageable) {
         // Verify sensor exists and user has access
         Sensor sensor = sensorRepository.findById(sensorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Sensor not found with id: " + sensorId));
@@ -37,15 +41,14 @@ public class SensorReadingService {
         if (startDate != null && endDate != null) {
             LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
             LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            return sensorReadingRepository.findBySensorIdAndReadingTimestampBetween(sensorId, start, end, pageable)
-                    .map(sensorReadingMapper::toDto);
+            return sensorReadingRepository.findResponsesBySensorIdAndReadingTimestampBetween(sensorId, start, end,
+                    pageable);
         }
 
-        return sensorReadingRepository.findBySensorId(sensorId, pageable)
-                .map(sensorReadingMapper::toDto);
+        return sensorReadingRepository.findResponsesBySensorId(sensorId, pageable);
     }
 
-    public Page<SensorReadingDto> findBySensorId(String sensorId, Pageable pageable) {
+    public Page<SensorReadingResponse> findBySensorId(String sensorId, Pageable pageable) {
         return findBySensorId(sensorId, null, null, pageable);
     }
 
@@ -81,7 +84,17 @@ public class SensorReadingService {
             reading.setReadingTimestamp(LocalDateTime.now());
         }
 
-        reading = sensorReadingRepository.save(reading);
+        try {
+            reading = sensorReadingRepository.saveAndFlush(reading);
+        } catch (DataIntegrityViolationException e) {
+            // O sensor veio do cache de segundo nível e pode ter sido removido por outra instância:
+            // descarta a cópia local e responde 404 em vez de expor a violação da FK
+            entityManagerFactory.getCache().evict(Sensor.class, sensorId);
+            if (!sensorRepository.existsById(sensorId)) {
+                throw new ResourceNotFoundException("Sensor not found with id: " + sensorId);
+            }
+            throw e;
+        }
 
         return sensorReadingMapper.toDto(reading);
     }
@@ -4,6 +4,7 @@ import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
 import com.mindfit.api.dto.SensorCreateRequest;
 import com.mindfit.api.dto.SensorDto;
+import com.mindfit.api.dto.SensorResponse;
 import com.mindfit.api.dto.SensorUpdateRequest;
 import com.mindfit.api.mapper.SensorMapper;
 import com.mindfit.api.model.Sensor;
@@ -21,13 +22,12 @@ public class SensorService {
     private final SensorRepository sensorRepository;
     private final SensorMapper sensorMapper;
 
-    public Page<SensorDto> findByUserId(String userId, Pageable pageable) {
+    public Page<SensorResponse> findByUserId(String userId, Pageable pageable) {
         if (!SecurityUtil.isAdmin() && !userId.equals(SecurityUtil.getCurrentUserId())) {
             throw new UnauthorizedException("Users can only view their own sensors");
         }
 
-        return sensorRepository.findByUserId(userId, pageable)
-                .map(sensorMapper::toDto);
+        return sensorRepository.findResponsesByUserId(userId, pageable);
     }
 
     public SensorDto findById(String id) {
@@ -3,33 +3,55 @@ package com.mindfit.api.service;
 import com.mindfit.api.common.exception.BadRequestException;
 import com.mindfit.api.common.exception.ResourceNotFoundException;
 import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.config.PrimaryReadPins;
 import com.mindfit.api.dto.UserDto;
+import com.mindfit.api.dto.UserResponse;
 import com.mindfit.api.dto.UserUpdateRequest;
+import com.mindfit.api.enums.Role;
 import com.mindfit.api.model.User;
+import com.mindfit.api.repository.UserAiStateRepository;
 import com.mindfit.api.repository.UserRepository;
 import com.mindfit.api.mapper.UserMapper;
 import com.mindfit.api.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserAiStateRepository userAiStateRepository;
     private final UserMapper userMapper;
+    private final PrimaryReadPins primaryReadPins;
 
-    public Page<UserDto> findAll(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<UserResponse> findAll(Pageable pageable) {
         if (!SecurityUtil.isAdmin()) {
             throw new UnauthorizedException("Only admins can view all users");
         }
-        
-        return userRepository.findAll(pageable)
-                .map(userMapper::toDto);
+
+        Page<UserRepository.ListRow> rows = userRepository.findListRows(pageable);
+        Map<String, Set<Role>> roles = new HashMap<>();
+        if (rows.hasContent()) {
+            List<String> userIds = rows.getContent().stream().map(UserRepository.ListRow::id).toList();
+            for (UserRepository.RoleRow row : userRepository.findRolesByUserIds(userIds)) {
+                roles.computeIfAbsent(row.userId(), id -> EnumSet.noneOf(Role.class)).add(row.role());
+            }
+        }
+        return rows.map(row -> new UserResponse(row.id(), row.email(), row.name(),
+                roles.getOrDefault(row.id(), Set.of()), row.sex(), row.birthDate(), row.lastLogonDate(),
+                row.createdAt(), row.version()));
     }
 
     public UserDto findById(String id) {
@@ -40,7 +62,7 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         
-        return userMapper.toDto(user);
+        return userMapper.toDto(user, userAiStateRepository.findProfileByUserId(id).orElse(null));
     }
 
 
@@ -58,9 +80,15 @@ public class UserService {
             throw new BadRequestException("Email already exists");
         }
 
+        // Versão lida pelo cliente: se o cadastro mudou desde então, a edição foi feita sobre dados antigos
+        if (request.version() != null && !request.version().equals(targetUser.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
+
         userMapper.updateEntity(request, targetUser);
 
         targetUser = userRepository.save(targetUser);
+        primaryReadPins.pinCurrentUser();
         return userMapper.toDto(targetUser);
     }
     
@@ -104,6 +132,7 @@ public class UserService {
         }
         
         userRepository.deleteById(id);
+        primaryReadPins.pinCurrentUser();
     }
 
     public UserDto findByEmail(String email) {
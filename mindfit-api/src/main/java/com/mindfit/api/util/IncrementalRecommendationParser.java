@@ -0,0 +1,232 @@
+package com.mindfit.api.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.mindfit.api.common.exception.JsonParsingException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses a recommendation completion as it streams in, on top of Jackson's non-blocking parser.
+ * Each element of the {@code recommendations} array is handed to {@code onItem} as soon as its
+ * closing brace arrives; the remaining top-level fields are collected for {@link #finish(Class)}.
+ * Text before the first brace (markdown fences, prose) and after the root closes is ignored, and a
+ * truncated completion keeps every element and field that was complete before the cut.
+ * Not thread-safe: feed chunks from one thread, in order.
+ */
+public final class IncrementalRecommendationParser<T> {
+
+    private static final String ITEMS_FIELD = "recommendations";
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> itemType;
+    private final Consumer<T> onItem;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private final List<T> items = new ArrayList<>();
+    private final ObjectNode fields;
+
+    private boolean started;
+    private boolean done;
+    private String malformed;
+    private int depth;
+    private boolean rootIsArray;
+    private boolean inItems;
+    private String fieldName;
+
+    // Valor (campo do topo ou item) sendo copiado até fechar
+    private TokenBuffer capture;
+    private int captureDepth;
+    private boolean capturingItem;
+
+    public IncrementalRecommendationParser(ObjectMapper objectMapper, Class<T> itemType, Consumer<T> onItem) {
+        this.objectMapper = objectMapper;
+        this.itemType = itemType;
+        this.onItem = onItem;
+        this.fields = objectMapper.createObjectNode();
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public IncrementalRecommendationParser(ObjectMapper objectMapper, Class<T> itemType) {
+        this(objectMapper, itemType, item -> {});
+    }
+
+    /**
+     * Consumes the next chunk of the completion, emitting any recommendation it completes.
+     */
+    public void feed(String chunk) {
+        if (chunk == null || chunk.isEmpty() || done || malformed != null) {
+            return;
+        }
+        if (!started) {
+            int start = firstStructuralChar(chunk);
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            chunk = chunk.substring(start);
+        }
+
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            // Mantém o que já foi extraído; o restante da resposta é descartado
+            malformed = e.getMessage();
+        }
+    }
+
+    /**
+     * Recommendations completed so far, in order.
+     */
+    public List<T> items() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public boolean isComplete() {
+        return done;
+    }
+
+    /**
+     * Builds the response from the completed items and top-level fields, tolerating truncation.
+     *
+     * @throws JsonParsingException when no recommendation could be recovered
+     */
+    public <R> R finish(Class<R> responseType) {
+        if (!done && malformed == null) {
+            feeder.endOfInput();
+        }
+        if (items.isEmpty()) {
+            throw new JsonParsingException(malformed != null
+                    ? "Invalid JSON received from AI: " + malformed
+                    : "No recommendations in AI response");
+        }
+
+        ObjectNode root = fields.deepCopy();
+        ArrayNode array = root.putArray(ITEMS_FIELD);
+        items.forEach(item -> array.add(objectMapper.<JsonNode>valueToTree(item)));
+        try {
+            return objectMapper.treeToValue(root, responseType);
+        } catch (IOException e) {
+            throw new JsonParsingException("Unable to parse AI response. Please try again.", e);
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (capture != null) {
+                continueCapture(token);
+                continue;
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> onStart(token);
+                case END_OBJECT, END_ARRAY -> onEnd();
+                case FIELD_NAME -> fieldName = parser.currentName();
+                default -> {
+                    if (depth == 1 && !rootIsArray) {
+                        startCapture(token, false);
+                    }
+                }
+            }
+        }
+    }
+
+    private void onStart(JsonToken token) throws IOException {
+        if (depth == 0) {
+            depth = 1;
+            // Resposta sem envelope: a própria lista de recomendações
+            rootIsArray = token == JsonToken.START_ARRAY;
+            inItems = rootIsArray;
+            return;
+        }
+        if (inItems && depth == (rootIsArray ? 1 : 2) && token == JsonToken.START_OBJECT) {
+            startCapture(token, true);
+            return;
+        }
+        if (depth == 1 && !rootIsArray) {
+            if (ITEMS_FIELD.equals(fieldName) && token == JsonToken.START_ARRAY) {
+                inItems = true;
+                depth++;
+                return;
+            }
+            startCapture(token, false);
+            return;
+        }
+        depth++;
+    }
+
+    private void onEnd() {
+        depth--;
+        if (inItems && depth == (rootIsArray ? 0 : 1)) {
+            inItems = false;
+        }
+        if (depth == 0) {
+            done = true;
+        }
+    }
+
+    private void startCapture(JsonToken token, boolean item) throws IOException {
+        capture = new TokenBuffer(parser);
+        capturingItem = item;
+        captureDepth = 0;
+        continueCapture(token);
+    }
+
+    private void continueCapture(JsonToken token) throws IOException {
+        capture.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+            captureDepth++;
+        } else if (token.isStructEnd()) {
+            captureDepth--;
+        }
+        if (captureDepth > 0) {
+            return;
+        }
+
+        TokenBuffer completed = capture;
+        capture = null;
+        if (capturingItem) {
+            T item;
+            try {
+                item = objectMapper.readValue(completed.asParser(objectMapper), itemType);
+            } catch (JsonProcessingException e) {
+                // Item com tipos inválidos é descartado sem perder os demais
+                return;
+            }
+            items.add(item);
+            onItem.accept(item);
+        } else if (fieldName != null) {
+            fields.set(fieldName, objectMapper.readTree(completed.asParser(objectMapper)));
+        }
+    }
+
+    private static int firstStructuralChar(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mindfit.api.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the supplier,
+ * callers arriving while it is in flight wait for and share its result (or exception).
+ * Nothing is cached once the call completes.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            onCoalesced.run();
+            return await(existing);
+        }
+
+        try {
+            V value = supplier.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Non-blocking variant for callers that produce the value asynchronously, such as streams.
+     * Returns the call already in flight for the key, or registers {@code flight} as the call and
+     * returns null; the caller must then complete {@code flight}, which releases the key.
+     */
+    public CompletableFuture<V> joinOrStart(K key, CompletableFuture<V> flight) {
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            onCoalesced.run();
+            return existing;
+        }
+        flight.whenComplete((value, error) -> inFlight.remove(key, flight));
+        return null;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mindfit.api.util;
+
+/**
+ * Cheap token estimate for prompt budgeting.
+ * Uses the usual ~4 characters per token approximation for GPT tokenizers,
+ * which is close enough to keep prompts under a budget without a tokenizer dependency.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Truncates the text so that its estimate fits in the given number of tokens.
+     */
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || maxTokens <= 0) {
+            return "";
+        }
+        int maxChars = maxTokens * CHARS_PER_TOKEN;
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, Math.max(0, maxChars - 1)) + "…";
+    }
+}
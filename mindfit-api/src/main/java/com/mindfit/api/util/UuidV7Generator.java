@@ -0,0 +1,50 @@
+package com.mindfit.api.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48 bits of Unix milliseconds, then a 12-bit counter
+ * that keeps ids generated in the same millisecond increasing, then 62 random bits.
+ * New rows land at the right edge of primary and foreign key indexes instead of a random leaf,
+ * and the canonical string form sorts in generation order, so the existing VARCHAR2(36) columns
+ * keep working alongside older random ids.
+ */
+public final class UuidV7Generator implements UuidValueGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MAX = 0xFFF;
+
+    private static long lastMillis;
+    private static int counter;
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7Generator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = RANDOM.nextInt(COUNTER_MAX / 2);
+            } else if (++counter > COUNTER_MAX) {
+                // Contador esgotado (ou relógio voltou): avança o milissegundo para manter a ordem
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        long msb = (millis << 16) | (0x7L << 12) | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
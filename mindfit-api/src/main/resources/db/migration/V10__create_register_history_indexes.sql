@@ -0,0 +1,30 @@
+-- Newest-first history per user: (user_id, timestamp DESC) followed by the columns the list DTOs
+-- and the AI context query read, so recent-history and date-range pages are index range scans
+-- without a sort. exercise_registers.description is a CLOB and cannot be indexed; exercise pages
+-- still visit the table, but only for the rows of the requested page
+
+-- Every write path sets timestamp; backfill older rows so ordering no longer needs created_at
+UPDATE meal_registers SET timestamp = created_at WHERE timestamp IS NULL;
+UPDATE exercise_registers SET timestamp = created_at WHERE timestamp IS NULL;
+UPDATE measurements_registers SET timestamp = created_at WHERE timestamp IS NULL;
+
+ALTER TABLE meal_registers MODIFY (timestamp NOT NULL);
+ALTER TABLE exercise_registers MODIFY (timestamp NOT NULL);
+ALTER TABLE measurements_registers MODIFY (timestamp NOT NULL);
+
+CREATE INDEX idx_meal_user_ts ON meal_registers (
+    user_id, timestamp DESC, id, name, calories, carbo, protein, fat, created_at, updated_at
+);
+
+CREATE INDEX idx_exercise_user_ts ON exercise_registers (
+    user_id, timestamp DESC, id, name, duration_in_minutes, calories_burnt, created_at, updated_at
+);
+
+CREATE INDEX idx_measurements_user_ts ON measurements_registers (
+    user_id, timestamp DESC, id, weight_in_kg, height_in_cm, created_at, updated_at
+);
+
+-- The composite indexes lead with user_id and also serve the foreign keys
+DROP INDEX idx_meal_user;
+DROP INDEX idx_exercise_user;
+DROP INDEX idx_measurements_user;
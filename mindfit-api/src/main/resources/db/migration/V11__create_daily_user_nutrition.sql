@@ -0,0 +1,172 @@
+-- Daily nutrition rollup per user: calories in (meals) and out (exercises), macros and exercise
+-- minutes per calendar day, kept in step with the registers by row triggers in the same
+-- transaction as the write. Reports read a row per day instead of scanning the full history.
+-- meal_count / exercise_count track how many registers feed each day, so a day whose registers
+-- were all deleted or moved is removed
+
+CREATE TABLE daily_user_nutrition (
+    user_id VARCHAR2(36) NOT NULL,
+    nutrition_date DATE NOT NULL,
+    meal_count NUMBER(10) DEFAULT 0 NOT NULL,
+    calories_in NUMBER DEFAULT 0 NOT NULL,
+    carbo NUMBER DEFAULT 0 NOT NULL,
+    protein NUMBER DEFAULT 0 NOT NULL,
+    fat NUMBER DEFAULT 0 NOT NULL,
+    exercise_count NUMBER(10) DEFAULT 0 NOT NULL,
+    calories_out NUMBER DEFAULT 0 NOT NULL,
+    exercise_minutes NUMBER DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_daily_user_nutrition PRIMARY KEY (user_id, nutrition_date),
+    CONSTRAINT fk_daily_user_nutrition_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ORGANIZATION INDEX;
+
+-- Applies a delta to one user/day, creating the row on first use
+CREATE OR REPLACE PROCEDURE sp_apply_daily_nutrition(
+    p_user_id          IN VARCHAR2,
+    p_nutrition_date   IN DATE,
+    p_meals            IN NUMBER,
+    p_calories_in      IN NUMBER,
+    p_carbo            IN NUMBER,
+    p_protein          IN NUMBER,
+    p_fat              IN NUMBER,
+    p_exercises        IN NUMBER,
+    p_calories_out     IN NUMBER,
+    p_exercise_minutes IN NUMBER
+)
+IS
+BEGIN
+    UPDATE daily_user_nutrition
+       SET meal_count       = meal_count + p_meals,
+           calories_in      = calories_in + p_calories_in,
+           carbo            = carbo + p_carbo,
+           protein          = protein + p_protein,
+           fat              = fat + p_fat,
+           exercise_count   = exercise_count + p_exercises,
+           calories_out     = calories_out + p_calories_out,
+           exercise_minutes = exercise_minutes + p_exercise_minutes
+     WHERE user_id = p_user_id
+       AND nutrition_date = p_nutrition_date;
+
+    IF SQL%ROWCOUNT = 0 THEN
+        BEGIN
+            INSERT INTO daily_user_nutrition (
+                user_id, nutrition_date, meal_count, calories_in, carbo, protein, fat,
+                exercise_count, calories_out, exercise_minutes
+            ) VALUES (
+                p_user_id, p_nutrition_date, p_meals, p_calories_in, p_carbo, p_protein, p_fat,
+                p_exercises, p_calories_out, p_exercise_minutes
+            );
+        EXCEPTION
+            -- Another session created the same day between the UPDATE and the INSERT
+            WHEN DUP_VAL_ON_INDEX THEN
+                UPDATE daily_user_nutrition
+                   SET meal_count       = meal_count + p_meals,
+                       calories_in      = calories_in + p_calories_in,
+                       carbo            = carbo + p_carbo,
+                       protein          = protein + p_protein,
+                       fat              = fat + p_fat,
+                       exercise_count   = exercise_count + p_exercises,
+                       calories_out     = calories_out + p_calories_out,
+                       exercise_minutes = exercise_minutes + p_exercise_minutes
+                 WHERE user_id = p_user_id
+                   AND nutrition_date = p_nutrition_date;
+        END;
+    ELSIF p_meals < 0 OR p_exercises < 0 THEN
+        DELETE FROM daily_user_nutrition
+         WHERE user_id = p_user_id
+           AND nutrition_date = p_nutrition_date
+           AND meal_count = 0
+           AND exercise_count = 0;
+    END IF;
+END sp_apply_daily_nutrition;
+/
+
+-- Backfill from the existing history before the triggers start applying deltas
+INSERT INTO daily_user_nutrition (
+    user_id, nutrition_date, meal_count, calories_in, carbo, protein, fat,
+    exercise_count, calories_out, exercise_minutes
+)
+SELECT user_id,
+       nutrition_date,
+       SUM(meal_count),
+       SUM(calories_in),
+       SUM(carbo),
+       SUM(protein),
+       SUM(fat),
+       SUM(exercise_count),
+       SUM(calories_out),
+       SUM(exercise_minutes)
+  FROM (
+        SELECT user_id, TRUNC(timestamp) AS nutrition_date,
+               COUNT(*) AS meal_count, NVL(SUM(calories), 0) AS calories_in, NVL(SUM(carbo), 0) AS carbo,
+               NVL(SUM(protein), 0) AS protein, NVL(SUM(fat), 0) AS fat,
+               0 AS exercise_count, 0 AS calories_out, 0 AS exercise_minutes
+          FROM meal_registers
+         GROUP BY user_id, TRUNC(timestamp)
+        UNION ALL
+        SELECT user_id, TRUNC(timestamp),
+               0, 0, 0, 0, 0,
+               COUNT(*), NVL(SUM(calories_burnt), 0), NVL(SUM(duration_in_minutes), 0)
+          FROM exercise_registers
+         GROUP BY user_id, TRUNC(timestamp)
+       )
+ GROUP BY user_id, nutrition_date;
+
+-- Only the columns that feed the rollup fire the trigger; renames and updated_at do not
+CREATE OR REPLACE TRIGGER trg_meal_registers_daily_nutrition
+AFTER INSERT OR DELETE OR UPDATE OF user_id, timestamp, calories, carbo, protein, fat ON meal_registers
+FOR EACH ROW
+BEGIN
+    IF DELETING OR UPDATING THEN
+        sp_apply_daily_nutrition(:OLD.user_id, TRUNC(:OLD.timestamp),
+            -1, -NVL(:OLD.calories, 0), -NVL(:OLD.carbo, 0), -NVL(:OLD.protein, 0), -NVL(:OLD.fat, 0),
+            0, 0, 0);
+    END IF;
+    IF INSERTING OR UPDATING THEN
+        sp_apply_daily_nutrition(:NEW.user_id, TRUNC(:NEW.timestamp),
+            1, NVL(:NEW.calories, 0), NVL(:NEW.carbo, 0), NVL(:NEW.protein, 0), NVL(:NEW.fat, 0),
+            0, 0, 0);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER trg_exercise_registers_daily_nutrition
+AFTER INSERT OR DELETE OR UPDATE OF user_id, timestamp, calories_burnt, duration_in_minutes ON exercise_registers
+FOR EACH ROW
+BEGIN
+    IF DELETING OR UPDATING THEN
+        sp_apply_daily_nutrition(:OLD.user_id, TRUNC(:OLD.timestamp),
+            0, 0, 0, 0, 0,
+            -1, -NVL(:OLD.calories_burnt, 0), -NVL(:OLD.duration_in_minutes, 0));
+    END IF;
+    IF INSERTING OR UPDATING THEN
+        sp_apply_daily_nutrition(:NEW.user_id, TRUNC(:NEW.timestamp),
+            0, 0, 0, 0, 0,
+            1, NVL(:NEW.calories_burnt, 0), NVL(:NEW.duration_in_minutes, 0));
+    END IF;
+END;
+/
+
+-- Lifetime totals now add up one row per day instead of every register
+CREATE OR REPLACE PROCEDURE sp_generate_user_consumption_report(
+    p_user_id        IN  VARCHAR2,
+    o_total_calories OUT NUMBER,
+    o_total_burned   OUT NUMBER,
+    o_net_calories   OUT NUMBER
+)
+IS
+BEGIN
+    SELECT NVL(SUM(calories_in), 0), NVL(SUM(calories_out), 0)
+      INTO o_total_calories, o_total_burned
+      FROM daily_user_nutrition
+     WHERE user_id = p_user_id;
+
+    o_net_calories := o_total_calories - o_total_burned;
+EXCEPTION
+    WHEN NO_DATA_FOUND THEN
+        o_total_calories := 0;
+        o_total_burned := 0;
+        o_net_calories := 0;
+    WHEN OTHERS THEN
+        RAISE_APPLICATION_ERROR(-20010, 'Erro ao gerar relatório: ' || SQLERRM);
+END sp_generate_user_consumption_report;
+/
@@ -0,0 +1,15 @@
+-- Cluster-wide locks for scheduled jobs: an instance runs the job only if it moves locked_until
+-- forward from a value already in the past, so the other instances skip that run
+CREATE TABLE scheduler_locks (
+    name VARCHAR2(64) NOT NULL,
+    locked_until TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR2(255) NOT NULL,
+    CONSTRAINT pk_scheduler_locks PRIMARY KEY (name)
+);
+
+-- Habitual-hour scan of the pre-warm job: registers at a given hour of day since a date. The
+-- expression matches EXTRACT(HOUR FROM timestamp) in the query, and user_id / timestamp complete
+-- the index so the GROUP BY runs without visiting the tables
+CREATE INDEX idx_meal_hour_ts ON meal_registers (EXTRACT(HOUR FROM timestamp), timestamp, user_id);
+CREATE INDEX idx_exercise_hour_ts ON exercise_registers (EXTRACT(HOUR FROM timestamp), timestamp, user_id);
@@ -0,0 +1,6 @@
+-- Meal period (BREAKFAST, LUNCH, DINNER, SNACK) the cached meal recommendation was prompted for
+-- An expired meal entry is only revalidated while the current period is still the same; NULL
+-- (workouts and rows cached before this column) is never revalidated for meals
+ALTER TABLE recommendation_cache ADD (
+    meal_period VARCHAR2(20)
+);
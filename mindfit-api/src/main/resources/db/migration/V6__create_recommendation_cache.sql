@@ -0,0 +1,35 @@
+-- Dedicated storage for AI recommendation caches
+-- Cache reads and writes no longer touch the users row (previously CLOB columns on users)
+
+CREATE TABLE recommendation_cache (
+    user_id VARCHAR2(36) NOT NULL,
+    kind VARCHAR2(20) NOT NULL,
+    payload CLOB NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_recommendation_cache PRIMARY KEY (user_id, kind),
+    CONSTRAINT fk_recommendation_cache_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_recommendation_cache_kind CHECK (kind IN ('MEAL', 'WORKOUT'))
+);
+
+-- Copy existing caches so users keep their current recommendations after the upgrade
+INSERT INTO recommendation_cache (user_id, kind, payload, expires_at)
+SELECT id, 'MEAL', meal_recommendations_cache, meal_cache_expiry
+  FROM users
+ WHERE meal_recommendations_cache IS NOT NULL
+   AND meal_cache_expiry IS NOT NULL;
+
+INSERT INTO recommendation_cache (user_id, kind, payload, expires_at)
+SELECT id, 'WORKOUT', workout_recommendations_cache, workout_cache_expiry
+  FROM users
+ WHERE workout_recommendations_cache IS NOT NULL
+   AND workout_cache_expiry IS NOT NULL;
+
+CREATE OR REPLACE TRIGGER trg_recommendation_cache_updated_at
+BEFORE UPDATE ON recommendation_cache
+FOR EACH ROW
+BEGIN
+    :NEW.updated_at := CURRENT_TIMESTAMP;
+END;
+/
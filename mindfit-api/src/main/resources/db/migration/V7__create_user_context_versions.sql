@@ -0,0 +1,26 @@
+-- Per-user context version: bumped whenever a meal, exercise or measurement register changes
+-- Recommendation caches and the AI profile record the version they were generated from and are
+-- only regenerated when it moves
+
+CREATE TABLE user_context_versions (
+    user_id VARCHAR2(36) NOT NULL,
+    context_version NUMBER(19) DEFAULT 0 NOT NULL,
+    profile_version NUMBER(19),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_user_context_versions PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_context_versions_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Existing profiles count as built from the initial version
+INSERT INTO user_context_versions (user_id, context_version, profile_version)
+SELECT id, 0, CASE WHEN profile IS NOT NULL THEN 0 END
+  FROM users;
+
+ALTER TABLE recommendation_cache ADD (
+    context_version NUMBER(19) DEFAULT 0 NOT NULL,
+    generated_at TIMESTAMP
+);
+
+UPDATE recommendation_cache SET generated_at = updated_at;
+
+ALTER TABLE recommendation_cache MODIFY (generated_at NOT NULL);
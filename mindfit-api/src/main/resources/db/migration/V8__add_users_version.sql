@@ -0,0 +1,6 @@
+-- Optimistic lock column for users: full-entity saves check it, while hot single-column writes
+-- (last logon, AI profile) go through targeted UPDATE statements
+
+ALTER TABLE users ADD (
+    version NUMBER(19) DEFAULT 0 NOT NULL
+);
@@ -0,0 +1,24 @@
+-- Move the AI profile out of users into its own table, so authentication and user listings
+-- read a row without LOB locators. The legacy recommendation cache columns have been superseded
+-- by recommendation_cache and are dropped
+
+CREATE TABLE user_ai_state (
+    user_id VARCHAR2(36) NOT NULL,
+    profile CLOB,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_user_ai_state PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_ai_state_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+INSERT INTO user_ai_state (user_id, profile, updated_at)
+SELECT id, profile, updated_at
+  FROM users
+ WHERE profile IS NOT NULL;
+
+ALTER TABLE users DROP (
+    profile,
+    meal_recommendations_cache,
+    meal_cache_expiry,
+    workout_recommendations_cache,
+    workout_cache_expiry
+);
@@ -0,0 +1,136 @@
+package com.mindfit.api.config;
+
+import com.mindfit.api.model.User;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Um segundo banco H2 em memória faz o papel da réplica; a consulta de atraso lê uma tabela
+ * que só existe nele.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:routing_replica;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.hikari.username=sa",
+        "app.datasource.replica.hikari.password=",
+        "app.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "app.datasource.replica.max-lag-seconds=5",
+        "app.datasource.replica.check-interval-ms=600000"
+})
+class ReplicaRoutingTest {
+
+    private static final String CURRENT_DATABASE = "SELECT DATABASE()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("reportingJdbcTemplate")
+    private JdbcTemplate reportingJdbcTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PrimaryReadPins primaryReadPins;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds NUMBER)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag (seconds) VALUES (0)");
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.execute("DROP TABLE replica_lag");
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        // When
+        String readOnly = inTransaction(true);
+        String readWrite = inTransaction(false);
+
+        // Then
+        assertThat(readOnly).isEqualToIgnoringCase("routing_replica");
+        assertThat(readWrite).isEqualToIgnoringCase("routing_primary");
+        assertThat(jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class)).isEqualToIgnoringCase("routing_primary");
+        assertThat(reportingJdbcTemplate.queryForObject(CURRENT_DATABASE, String.class)).isEqualToIgnoringCase("routing_replica");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        // Given
+        replica.update("UPDATE replica_lag SET seconds = 60");
+
+        // When
+        replicaLagMonitor.check();
+
+        // Then
+        assertThat(replicaLagMonitor.isUsable()).isFalse();
+        assertThat(inTransaction(true)).isEqualToIgnoringCase("routing_primary");
+        assertThat(reportingJdbcTemplate.queryForObject(CURRENT_DATABASE, String.class)).isEqualToIgnoringCase("routing_primary");
+    }
+
+    @Test
+    void shouldKeepRecentWriterOnPrimary() {
+        // Given
+        authenticate("writer");
+        primaryReadPins.pinCurrentUser();
+
+        // When
+        String writerRead = inTransaction(true);
+        String writerReport = reportingJdbcTemplate.queryForObject(CURRENT_DATABASE, String.class);
+        authenticate("reader");
+        String otherRead = inTransaction(true);
+
+        // Then
+        assertThat(writerRead).isEqualToIgnoringCase("routing_primary");
+        assertThat(writerReport).isEqualToIgnoringCase("routing_primary");
+        assertThat(otherRead).isEqualToIgnoringCase("routing_replica");
+    }
+
+    private static void authenticate(String userId) {
+        User user = TestDataBuilder.user().email(userId + "@test.com").build();
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user, null, "ROLE_USER"));
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+    }
+}
@@ -0,0 +1,389 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.model.ExerciseRegister;
+import com.mindfit.api.model.MealRegister;
+import com.mindfit.api.util.TestDataBuilder;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regras de delta do rollup daily_user_nutrition (V11). O H2 não executa PL/SQL: {@link RollupTrigger}
+ * repete o fluxo de sp_apply_daily_nutrition e dos gatilhos (UPDATE; INSERT no primeiro registro do dia;
+ * novo UPDATE quando outra sessão criou o dia antes; DELETE do dia sem registros; UPDATE OF só nas colunas
+ * do rollup) executando os comandos SQL extraídos da própria migração. O backfill também roda com o texto
+ * da migração. Os comandos ficam fora da transação do teste porque o caso de chave duplicada usa outra conexão.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DailyUserNutritionRollupTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 10, 8, 0);
+    private static final String ROLLUP = """
+            SELECT meal_count, calories_in, carbo, protein, fat, exercise_count, calories_out, exercise_minutes
+              FROM daily_user_nutrition
+             WHERE user_id = ? AND nutrition_date = ?
+            """;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRegisterRepository mealRegisterRepository;
+
+    @Autowired
+    private ExerciseRegisterRepository exerciseRegisterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(TestDataBuilder.user().email("rollup@test.com").build()).getId();
+        createTriggers();
+    }
+
+    @AfterEach
+    void dropTriggers() {
+        RollupTrigger.beforeInsert = () -> { };
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_meal_registers_daily_nutrition");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_exercise_registers_daily_nutrition");
+    }
+
+    @Test
+    void shouldAccumulateMealsAndExercisesOfTheSameDay() {
+        // When
+        saveMeal(userId, MONDAY);
+        saveMeal(userId, MONDAY.plusHours(4));
+        saveExercise(userId, MONDAY.plusHours(10));
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).containsExactly(2L, 1000L, 100L, 40L, 30L, 1L, 200L, 30L);
+    }
+
+    @Test
+    void shouldMoveMealAcrossDaysAndDropTheEmptiedDay() {
+        // Given
+        MealRegister meal = saveMeal(userId, MONDAY);
+
+        // When
+        jdbcTemplate.update("UPDATE meal_registers SET timestamp = ? WHERE id = ?",
+                Timestamp.valueOf(MONDAY.plusDays(1)), meal.getId());
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).isEmpty();
+        assertThat(rollup(userId, MONDAY.plusDays(1))).containsExactly(1L, 500L, 50L, 20L, 15L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void shouldMoveMealAcrossUsers() {
+        // Given
+        String otherUserId = userRepository.save(TestDataBuilder.user().email("rollup-other@test.com").build()).getId();
+        MealRegister meal = saveMeal(userId, MONDAY);
+        saveMeal(userId, MONDAY.plusHours(2));
+
+        // When
+        jdbcTemplate.update("UPDATE meal_registers SET user_id = ? WHERE id = ?", otherUserId, meal.getId());
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).containsExactly(1L, 500L, 50L, 20L, 15L, 0L, 0L, 0L);
+        assertThat(rollup(otherUserId, MONDAY)).containsExactly(1L, 500L, 50L, 20L, 15L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void shouldKeepDayWhileAnotherRegisterStillFeedsIt() {
+        // Given
+        MealRegister meal = saveMeal(userId, MONDAY);
+        ExerciseRegister exercise = saveExercise(userId, MONDAY.plusHours(1));
+
+        // When
+        mealRegisterRepository.deleteById(meal.getId());
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).containsExactly(0L, 0L, 0L, 0L, 0L, 1L, 200L, 30L);
+
+        // When
+        exerciseRegisterRepository.deleteById(exercise.getId());
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreUpdatesOutsideTheRollupColumns() {
+        // Given
+        MealRegister meal = saveMeal(userId, MONDAY);
+        RollupTrigger.beforeInsert = () -> {
+            throw new AssertionError("rename must not touch the rollup");
+        };
+
+        // When
+        int renamed = jdbcTemplate.update("UPDATE meal_registers SET name = 'Renamed' WHERE id = ?", meal.getId());
+
+        // Then
+        assertThat(renamed).isEqualTo(1);
+        assertThat(rollup(userId, MONDAY)).containsExactly(1L, 500L, 50L, 20L, 15L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void shouldRetryUpdateWhenAnotherSessionCreatedTheDay() {
+        // Given: outra sessão cria o dia entre o UPDATE sem linhas e o INSERT
+        RollupTrigger.beforeInsert = () -> jdbcTemplate.update("""
+                INSERT INTO daily_user_nutrition (user_id, nutrition_date, meal_count, calories_in, carbo, protein,
+                                                  fat, exercise_count, calories_out, exercise_minutes)
+                VALUES (?, ?, 1, 300, 0, 0, 0, 0, 0, 0)
+                """, userId, Date.valueOf(MONDAY.toLocalDate()));
+
+        // When
+        saveMeal(userId, MONDAY);
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).containsExactly(2L, 800L, 50L, 20L, 15L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void shouldBackfillExistingHistory() {
+        // Given
+        dropTriggers();
+        saveMeal(userId, MONDAY);
+        saveMeal(userId, MONDAY.plusHours(5));
+        saveExercise(userId, MONDAY.plusDays(1));
+
+        // When
+        jdbcTemplate.update(V11.BACKFILL);
+
+        // Then
+        assertThat(rollup(userId, MONDAY)).containsExactly(2L, 1000L, 100L, 40L, 30L, 0L, 0L, 0L);
+        assertThat(rollup(userId, MONDAY.plusDays(1))).containsExactly(0L, 0L, 0L, 0L, 0L, 1L, 200L, 30L);
+    }
+
+    private void createTriggers() {
+        for (String table : List.of("meal_registers", "exercise_registers")) {
+            jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS trg_" + table + "_daily_nutrition"
+                    + " AFTER INSERT, UPDATE, DELETE ON " + table
+                    + " FOR EACH ROW CALL '" + RollupTrigger.class.getName() + "'");
+        }
+    }
+
+    private MealRegister saveMeal(String owner, LocalDateTime timestamp) {
+        return mealRegisterRepository.save(TestDataBuilder.mealRegister().userId(owner).timestamp(timestamp).build());
+    }
+
+    private ExerciseRegister saveExercise(String owner, LocalDateTime timestamp) {
+        return exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister().userId(owner).timestamp(timestamp).build());
+    }
+
+    private List<Long> rollup(String owner, LocalDateTime day) {
+        return jdbcTemplate.query(ROLLUP, rs -> {
+            List<Long> values = new ArrayList<>();
+            if (rs.next()) {
+                for (int column = 1; column <= 8; column++) {
+                    values.add(rs.getBigDecimal(column).longValueExact());
+                }
+            }
+            return values;
+        }, owner, Date.valueOf(day.toLocalDate()));
+    }
+
+    /**
+     * Equivalente H2 dos gatilhos trg_*_daily_nutrition: mesmo delta de sp_apply_daily_nutrition,
+     * com os comandos SQL da migração.
+     */
+    public static class RollupTrigger implements Trigger {
+
+        static volatile Runnable beforeInsert = () -> { };
+
+        private int userIdColumn;
+        private int timestampColumn;
+        private int[] measureColumns;
+        private boolean meals;
+
+        @Override
+        public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) throws SQLException {
+            meals = tableName.equalsIgnoreCase("meal_registers");
+            List<String> columns = new ArrayList<>();
+            try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+            userIdColumn = columns.indexOf("user_id");
+            timestampColumn = columns.indexOf("timestamp");
+            List<String> measures = meals
+                    ? List.of("calories", "carbo", "protein", "fat")
+                    : List.of("calories_burnt", "duration_in_minutes");
+            measureColumns = measures.stream().mapToInt(columns::indexOf).toArray();
+        }
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            // UPDATE OF user_id, timestamp e medidas: alterações só em outras colunas não disparam
+            if (oldRow != null && newRow != null && !rollupColumnsChanged(oldRow, newRow)) {
+                return;
+            }
+            if (oldRow != null) {
+                apply(conn, oldRow, BigDecimal.ONE.negate());
+            }
+            if (newRow != null) {
+                apply(conn, newRow, BigDecimal.ONE);
+            }
+        }
+
+        private boolean rollupColumnsChanged(Object[] oldRow, Object[] newRow) {
+            if (!Objects.equals(oldRow[userIdColumn], newRow[userIdColumn])
+                    || !Objects.equals(oldRow[timestampColumn], newRow[timestampColumn])) {
+                return true;
+            }
+            for (int column : measureColumns) {
+                if (!Objects.equals(oldRow[column], newRow[column])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void apply(Connection conn, Object[] row, BigDecimal sign) throws SQLException {
+            Map<String, Object> p = new HashMap<>();
+            p.put("p_user_id", row[userIdColumn]);
+            p.put("p_nutrition_date", Date.valueOf(day(row[timestampColumn])));
+            BigDecimal zero = BigDecimal.ZERO;
+            p.put("p_meals", meals ? sign : zero);
+            p.put("p_calories_in", meals ? measure(row, 0, sign) : zero);
+            p.put("p_carbo", meals ? measure(row, 1, sign) : zero);
+            p.put("p_protein", meals ? measure(row, 2, sign) : zero);
+            p.put("p_fat", meals ? measure(row, 3, sign) : zero);
+            p.put("p_exercises", meals ? zero : sign);
+            p.put("p_calories_out", meals ? zero : measure(row, 0, sign));
+            p.put("p_exercise_minutes", meals ? zero : measure(row, 1, sign));
+
+            // sp_apply_daily_nutrition
+            if (V11.UPDATE.execute(conn, p) == 0) {
+                beforeInsert.run();
+                try {
+                    V11.INSERT.execute(conn, p);
+                } catch (SQLException e) {
+                    // DUP_VAL_ON_INDEX
+                    if (!"23505".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    V11.UPDATE.execute(conn, p);
+                }
+            } else if (sign.signum() < 0) {
+                V11.DELETE.execute(conn, p);
+            }
+        }
+
+        // NVL(valor, 0) com o sinal do delta
+        private BigDecimal measure(Object[] row, int index, BigDecimal sign) {
+            Object value = row[measureColumns[index]];
+            return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString()).multiply(sign);
+        }
+
+        // TRUNC(timestamp)
+        private static LocalDate day(Object value) {
+            return value instanceof Timestamp timestamp
+                    ? timestamp.toLocalDateTime().toLocalDate()
+                    : ((LocalDateTime) value).toLocalDate();
+        }
+    }
+
+    /**
+     * Comandos de V11__create_daily_user_nutrition.sql: os parâmetros p_* da procedure viram binds.
+     */
+    static final class V11 {
+
+        private static final Pattern PARAMETER = Pattern.compile("\\bp_\\w+");
+
+        static final String BACKFILL;
+        static final Statement UPDATE;
+        static final Statement INSERT;
+        static final Statement DELETE;
+
+        static {
+            String migration = read("db/migration/V11__create_daily_user_nutrition.sql");
+            String procedure = between(migration, "PROCEDURE sp_apply_daily_nutrition", "END sp_apply_daily_nutrition;");
+            UPDATE = Statement.of(find(procedure, "UPDATE daily_user_nutrition.*?;"));
+            INSERT = Statement.of(find(procedure, "INSERT INTO daily_user_nutrition.*?\\);"));
+            DELETE = Statement.of(find(procedure, "DELETE FROM daily_user_nutrition.*?;"));
+            String backfill = find(between(migration, "-- Backfill", "CREATE OR REPLACE TRIGGER"),
+                    "INSERT INTO daily_user_nutrition.*?;");
+            BACKFILL = backfill.substring(0, backfill.length() - 1);
+        }
+
+        record Statement(String sql, List<String> parameters) {
+
+            static Statement of(String plsql) {
+                Matcher matcher = PARAMETER.matcher(plsql.substring(0, plsql.length() - 1));
+                List<String> parameters = new ArrayList<>();
+                StringBuilder sql = new StringBuilder();
+                while (matcher.find()) {
+                    parameters.add(matcher.group());
+                    matcher.appendReplacement(sql, "?");
+                }
+                matcher.appendTail(sql);
+                return new Statement(sql.toString(), parameters);
+            }
+
+            int execute(Connection conn, Map<String, Object> values) throws SQLException {
+                try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, values.get(parameters.get(i)));
+                    }
+                    return statement.executeUpdate();
+                }
+            }
+        }
+
+        private static String read(String path) {
+            try {
+                return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String between(String text, String start, String end) {
+            int from = text.indexOf(start);
+            return text.substring(from, text.indexOf(end, from));
+        }
+
+        private static String find(String text, String regex) {
+            Matcher matcher = Pattern.compile(regex, Pattern.DOTALL).matcher(text);
+            if (!matcher.find()) {
+                throw new IllegalStateException("Statement not found in V11: " + regex);
+            }
+            return matcher.group();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mindfit.api.repository;
 
 import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.ExerciseRegisterResponse;
 import com.mindfit.api.model.ExerciseRegister;
 import com.mindfit.api.model.User;
 import com.mindfit.api.util.TestDataBuilder;
@@ -8,8 +9,12 @@ import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -71,4 +76,60 @@ class ExerciseRegisterRepositoryTest extends AbstractIntegrationTest {
         // Then
         assertThat(updated.getUpdatedAt()).isAfter(original);
     }
+
+    @Test
+    void shouldFindExerciseRegistersNewestFirst() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2025, 5, 20, 12, 0);
+        for (int i = 0; i < 4; i++) {
+            exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister()
+                    .userId(testUser.getId())
+                    .name("Exercise " + i)
+                    .timestamp(now.minusHours(3 - i))
+                    .build());
+        }
+
+        // When
+        Page<ExerciseRegisterResponse> recent = exerciseRegisterRepository.findResponsesByUserId(
+                testUser.getId(), PageRequest.of(0, 2));
+        Page<ExerciseRegisterResponse> inRange = exerciseRegisterRepository.findResponsesByUserIdAndTimestampBetween(
+                testUser.getId(), now.minusHours(3), now.minusHours(2), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(recent.getContent()).extracting(ExerciseRegisterResponse::name).containsExactly("Exercise 3", "Exercise 2");
+        assertThat(recent.getTotalElements()).isEqualTo(4);
+        assertThat(inRange.getContent()).extracting(ExerciseRegisterResponse::name).containsExactly("Exercise 1", "Exercise 0");
+    }
+
+    @Test
+    void shouldPageAfterKeysetCursorIncludingTimestampTies() {
+        // Given
+        LocalDateTime evening = LocalDateTime.of(2025, 5, 20, 18, 0);
+        for (int i = 0; i < 3; i++) {
+            exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister()
+                    .userId(testUser.getId())
+                    .name("Set " + i)
+                    .timestamp(evening)
+                    .build());
+        }
+        exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister()
+                .userId(testUser.getId())
+                .name("Morning run")
+                .timestamp(evening.minusHours(10))
+                .build());
+
+        // When
+        List<ExerciseRegisterResponse> first = exerciseRegisterRepository.findResponsesByUserId(
+                testUser.getId(), Limit.of(2));
+        ExerciseRegisterResponse last = first.get(first.size() - 1);
+        List<ExerciseRegisterResponse> second = exerciseRegisterRepository.findResponsesAfter(
+                testUser.getId(), last.timestamp(), last.id(), Limit.of(10));
+
+        // Then
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(2);
+        assertThat(second).extracting(ExerciseRegisterResponse::id).doesNotContainAnyElementsOf(
+                first.stream().map(ExerciseRegisterResponse::id).toList());
+        assertThat(second.get(1).name()).isEqualTo("Morning run");
+    }
 }
@@ -0,0 +1,243 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.CursorPage;
+import com.mindfit.api.enums.LogType;
+import com.mindfit.api.enums.Role;
+import com.mindfit.api.mapper.ExerciseRegisterMapper;
+import com.mindfit.api.mapper.LogMapper;
+import com.mindfit.api.mapper.MealRegisterMapper;
+import com.mindfit.api.mapper.MeasurementsRegisterMapper;
+import com.mindfit.api.mapper.SensorMapper;
+import com.mindfit.api.mapper.SensorReadingMapper;
+import com.mindfit.api.mapper.UserMapper;
+import com.mindfit.api.model.Log;
+import com.mindfit.api.model.MealRegister;
+import com.mindfit.api.model.Sensor;
+import com.mindfit.api.model.SensorReading;
+import com.mindfit.api.model.User;
+import com.mindfit.api.service.ExerciseRegisterService;
+import com.mindfit.api.service.LogService;
+import com.mindfit.api.service.MealRegisterService;
+import com.mindfit.api.service.MeasurementsRegisterService;
+import com.mindfit.api.service.SensorReadingService;
+import com.mindfit.api.service.SensorService;
+import com.mindfit.api.service.UserService;
+import com.mindfit.api.util.RegisterCursor;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Allocation benchmark for the list endpoints: entity page mapped to *Dto and then to *Response
+ * (previous read path) vs. the column projections the services now return. Disabled by default; run with
+ * {@code -Dbenchmark.projections=true [-Dbenchmark.page-size=20] [-Dbenchmark.iterations=2000]}.
+ * Reports bytes allocated by the calling thread per page, SQL logging off. The data set is small
+ * ({@value #ROWS} rows per table on the embedded test database); the scale is logged before the results.
+ */
+@EnabledIfSystemProperty(named = "benchmark.projections", matches = "true")
+@TestPropertySource(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.mindfit=WARN", "logging.level.com.mindfit.api.repository.ListProjectionBenchmarkTest=INFO"})
+class ListProjectionBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ListProjectionBenchmarkTest.class);
+
+    private static final int ROWS = 200;
+
+    @Autowired private MealRegisterRepository mealRegisterRepository;
+    @Autowired private ExerciseRegisterRepository exerciseRegisterRepository;
+    @Autowired private MeasurementsRegisterRepository measurementsRegisterRepository;
+    @Autowired private SensorRepository sensorRepository;
+    @Autowired private SensorReadingRepository sensorReadingRepository;
+    @Autowired private LogRepository logRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Autowired private MealRegisterMapper mealRegisterMapper;
+    @Autowired private ExerciseRegisterMapper exerciseRegisterMapper;
+    @Autowired private MeasurementsRegisterMapper measurementsRegisterMapper;
+    @Autowired private SensorMapper sensorMapper;
+    @Autowired private SensorReadingMapper sensorReadingMapper;
+    @Autowired private LogMapper logMapper;
+    @Autowired private UserMapper userMapper;
+
+    @Autowired private MealRegisterService mealRegisterService;
+    @Autowired private ExerciseRegisterService exerciseRegisterService;
+    @Autowired private MeasurementsRegisterService measurementsRegisterService;
+    @Autowired private SensorService sensorService;
+    @Autowired private SensorReadingService sensorReadingService;
+    @Autowired private LogService logService;
+    @Autowired private UserService userService;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private DataSource dataSource;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void benchmarkAllocatedBytesPerPage() {
+        // Given
+        User owner = seed();
+        String userId = owner.getId();
+        Pageable page = PageRequest.of(0, Integer.getInteger("benchmark.page-size", 20));
+        // Leitura anterior: página de entidades ordenada pelo Pageable
+        Pageable newestFirst = PageRequest.of(0, page.getPageSize(), Sort.by(Sort.Direction.DESC, "timestamp"));
+        int iterations = Integer.getInteger("benchmark.iterations", 2000);
+        String sensorId = sensorRepository.findBySensorType("HEART_RATE").get(0).getId();
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(owner, null, "ROLE_ADMIN"));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        log.info("{} rows per table on {}, page size {}, {} iterations per read path",
+                ROWS, databaseProduct(), page.getPageSize(), iterations);
+
+        // When / Then
+        report("meals", iterations, readOnly,
+                () -> mealRegisterRepository.findByUserId(userId, newestFirst)
+                        .map(mealRegisterMapper::toDto).map(mealRegisterMapper::toResponse),
+                () -> mealRegisterService.findByUserId(userId, page));
+        report("meals feed", iterations, readOnly,
+                () -> CursorPage.of(entityManager.createQuery("""
+                                        SELECT m FROM MealRegister m WHERE m.userId = :userId
+                                         ORDER BY m.timestamp DESC, m.id ASC
+                                        """, MealRegister.class)
+                                .setParameter("userId", userId)
+                                .setMaxResults(page.getPageSize() + 1)
+                                .getResultList(), page.getPageSize(),
+                        row -> new RegisterCursor(row.getTimestamp(), row.getId()).encode(),
+                        row -> mealRegisterMapper.toResponse(mealRegisterMapper.toDto(row))),
+                () -> mealRegisterService.findFeed(userId, null, page.getPageSize()));
+        report("exercises", iterations, readOnly,
+                () -> exerciseRegisterRepository.findByUserId(userId, newestFirst)
+                        .map(exerciseRegisterMapper::toDto).map(exerciseRegisterMapper::toResponse),
+                () -> exerciseRegisterService.findByUserId(userId, page));
+        report("measurements", iterations, readOnly,
+                () -> measurementsRegisterRepository.findByUserId(userId, newestFirst)
+                        .map(measurementsRegisterMapper::toDto).map(measurementsRegisterMapper::toResponse),
+                () -> measurementsRegisterService.findByUserId(userId, page));
+        report("sensors", iterations, readOnly,
+                () -> sensorRepository.findByUserId(userId, page)
+                        .map(sensorMapper::toDto).map(sensorMapper::toResponse),
+                () -> sensorService.findByUserId(userId, page));
+        report("readings", iterations, readOnly,
+                () -> sensorRepository.findById(sensorId).map(sensor -> sensorReadingRepository
+                        .findBySensorId(sensor.getId(), page)
+                        .map(sensorReadingMapper::toDto).map(sensorReadingMapper::toResponse)),
+                () -> sensorReadingService.findBySensorId(sensorId, page));
+        report("logs", iterations, readOnly,
+                () -> logRepository.findAll(page).map(logMapper::toDto).map(logMapper::toResponse),
+                () -> logService.findAll(page));
+        report("users", iterations, readOnly,
+                () -> userRepository.findAll(page).map(userMapper::toDto).map(userMapper::toResponse),
+                () -> userService.findAll(page));
+    }
+
+    private void report(String name, int iterations, TransactionTemplate readOnly,
+                        Supplier<Object> entities, Supplier<Object> projections) {
+        long before = allocatedPerPage(iterations, readOnly, entities);
+        long after = allocatedPerPage(iterations, readOnly, projections);
+        log.info(String.format("%-13s entities+mappers %,9d B/page   projections %,9d B/page   (%.0f%%)",
+                name, before, after, 100.0 * (after - before) / before));
+    }
+
+    private String databaseProduct() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName();
+        } catch (SQLException e) {
+            return "unknown database";
+        }
+    }
+
+    private long allocatedPerPage(int iterations, TransactionTemplate readOnly, Supplier<Object> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < iterations; i++) {
+            readOnly.execute(status -> read.get());
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            readOnly.execute(status -> read.get());
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / iterations;
+    }
+
+    private User seed() {
+        User owner = userRepository.save(TestDataBuilder.user().email("benchmark-owner@test.com")
+                .roles(Set.of(Role.ADMIN)).build());
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            users.add(TestDataBuilder.user().email("benchmark-" + i + "@test.com")
+                    .roles(i % 10 == 0 ? Set.of(Role.USER, Role.ADMIN) : Set.of(Role.USER)).build());
+        }
+        userRepository.saveAll(users);
+
+        Sensor sensor = new Sensor();
+        sensor.setUserId(owner.getId());
+        sensor.setSensorType("HEART_RATE");
+        sensor.setLocation("wrist");
+        sensor = sensorRepository.save(sensor);
+        for (int i = 1; i < ROWS / 10; i++) {
+            Sensor other = new Sensor();
+            other.setUserId(owner.getId());
+            other.setSensorType("STEPS");
+            other.setLocation("pocket " + i);
+            sensorRepository.save(other);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime timestamp = now.minusMinutes(i);
+            mealRegisterRepository.save(TestDataBuilder.mealRegister().userId(owner.getId())
+                    .name("Meal " + i).timestamp(timestamp).build());
+            exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister().userId(owner.getId())
+                    .name("Exercise " + i).timestamp(timestamp).build());
+            measurementsRegisterRepository.save(TestDataBuilder.measurementsRegister().userId(owner.getId())
+                    .timestamp(timestamp).build());
+
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(sensor.getId());
+            reading.setReadingValue(60.0 + i % 40);
+            reading.setReadingType("BPM");
+            reading.setUnit("bpm");
+            reading.setReadingTimestamp(timestamp);
+            sensorReadingRepository.save(reading);
+
+            Log log = new Log();
+            log.setType(LogType.INFO);
+            log.setCategory("API");
+            log.setName("GET /benchmark/" + i);
+            log.setStackTrace("details " + i);
+            log.setTimestamp(timestamp);
+            logRepository.save(log);
+        }
+        return owner;
+    }
+}
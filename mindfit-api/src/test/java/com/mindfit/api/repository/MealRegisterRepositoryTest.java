@@ -1,17 +1,22 @@
 package com.mindfit.api.repository;
 
 import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.MealRegisterResponse;
 import com.mindfit.api.model.MealRegister;
 import com.mindfit.api.model.User;
 import com.mindfit.api.util.TestDataBuilder;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -101,6 +106,90 @@ class MealRegisterRepositoryTest extends AbstractIntegrationTest {
                 .containsExactlyInAnyOrder("Meal 1", "Meal 2");
     }
 
+    @Test
+    void shouldFindMealRegistersNewestFirst() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2025, 5, 20, 12, 0);
+        for (int i = 0; i < 4; i++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .name("Meal " + i)
+                    .timestamp(now.minusHours(3 - i))
+                    .build());
+        }
+
+        // When
+        Page<MealRegisterResponse> recent = mealRegisterRepository.findResponsesByUserId(
+                testUser.getId(), PageRequest.of(0, 2));
+        Page<MealRegisterResponse> inRange = mealRegisterRepository.findResponsesByUserIdAndTimestampBetween(
+                testUser.getId(), now.minusHours(3), now.minusHours(2), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(recent.getContent()).extracting(MealRegisterResponse::name).containsExactly("Meal 3", "Meal 2");
+        assertThat(recent.getTotalElements()).isEqualTo(4);
+        assertThat(inRange.getContent()).extracting(MealRegisterResponse::name).containsExactly("Meal 1", "Meal 0");
+    }
+
+    @Test
+    void shouldPageAfterKeysetCursorIncludingTimestampTies() {
+        // Given
+        LocalDateTime noon = LocalDateTime.of(2025, 5, 20, 12, 0);
+        for (int i = 0; i < 3; i++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .name("Lunch " + i)
+                    .timestamp(noon)
+                    .build());
+        }
+        mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                .userId(testUser.getId())
+                .name("Breakfast")
+                .timestamp(noon.minusHours(4))
+                .build());
+
+        // When
+        List<MealRegisterResponse> first = mealRegisterRepository.findResponsesByUserId(
+                testUser.getId(), Limit.of(2));
+        MealRegisterResponse last = first.get(first.size() - 1);
+        List<MealRegisterResponse> second = mealRegisterRepository.findResponsesAfter(
+                testUser.getId(), last.timestamp(), last.id(), Limit.of(10));
+
+        // Then
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(2);
+        assertThat(second).extracting(MealRegisterResponse::id).doesNotContainAnyElementsOf(
+                first.stream().map(MealRegisterResponse::id).toList());
+        assertThat(second.get(1).name()).isEqualTo("Breakfast");
+    }
+
+    @Test
+    void shouldListResponsesWithoutManagingEntities() {
+        // Given
+        LocalDateTime noon = LocalDateTime.of(2025, 5, 20, 12, 0);
+        for (int i = 0; i < 3; i++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .name("Meal " + i)
+                    .timestamp(noon.plusHours(i))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Page<MealRegisterResponse> page = mealRegisterRepository.findResponsesByUserId(
+                testUser.getId(), PageRequest.of(0, 2));
+        MealRegisterResponse last = page.getContent().get(1);
+        List<MealRegisterResponse> after = mealRegisterRepository.findResponsesAfter(
+                testUser.getId(), last.timestamp(), last.id(), Limit.of(10));
+
+        // Then
+        assertThat(page.getContent()).extracting(MealRegisterResponse::name).containsExactly("Meal 2", "Meal 1");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(after).extracting(MealRegisterResponse::name).containsExactly("Meal 0");
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     void shouldDeleteMealRegister() {
         // Given
@@ -115,4 +204,35 @@ class MealRegisterRepositoryTest extends AbstractIntegrationTest {
         // Then
         assertThat(mealRegisterRepository.findById(savedMeal.getId())).isEmpty();
     }
+
+    @Test
+    void shouldFindUsersWhoHabituallyRegisterAtHour() {
+        // Given
+        User occasionalUser = userRepository.save(TestDataBuilder.user()
+                .email("occasional@test.com")
+                .build());
+        LocalDate today = LocalDate.now();
+        for (int day = 1; day <= 4; day++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .timestamp(today.minusDays(day).atTime(12, 20))
+                    .build());
+        }
+        mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                .userId(occasionalUser.getId())
+                .timestamp(today.minusDays(1).atTime(12, 5))
+                .build());
+        mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                .userId(occasionalUser.getId())
+                .timestamp(today.minusDays(1).atTime(12, 45))
+                .build());
+        entityManager.flush();
+
+        // When
+        List<String> userIds = mealRegisterRepository.findHabitualUserIdsAtHour(
+                today.minusDays(30).atStartOfDay(), 12, 2);
+
+        // Then
+        assertThat(userIds).containsExactly(testUser.getId());
+    }
 }
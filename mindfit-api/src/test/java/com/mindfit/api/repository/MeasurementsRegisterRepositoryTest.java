@@ -0,0 +1,92 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.MeasurementsRegisterResponse;
+import com.mindfit.api.model.User;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeasurementsRegisterRepositoryTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MeasurementsRegisterRepository measurementsRegisterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = TestDataBuilder.user()
+                .email("measurementstest@test.com")
+                .build();
+        testUser = userRepository.save(testUser);
+    }
+
+    @Test
+    void shouldFindMeasurementsRegistersNewestFirst() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2025, 5, 20, 8, 0);
+        for (int i = 0; i < 4; i++) {
+            measurementsRegisterRepository.save(TestDataBuilder.measurementsRegister()
+                    .userId(testUser.getId())
+                    .weightInKG(70.0 + i)
+                    .timestamp(now.minusDays(3 - i))
+                    .build());
+        }
+
+        // When
+        Page<MeasurementsRegisterResponse> recent = measurementsRegisterRepository.findResponsesByUserId(
+                testUser.getId(), PageRequest.of(0, 2));
+        Page<MeasurementsRegisterResponse> inRange = measurementsRegisterRepository.findResponsesByUserIdAndTimestampBetween(
+                testUser.getId(), now.minusDays(3), now.minusDays(2), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(recent.getContent()).extracting(MeasurementsRegisterResponse::weightInKG).containsExactly(73.0, 72.0);
+        assertThat(recent.getTotalElements()).isEqualTo(4);
+        assertThat(inRange.getContent()).extracting(MeasurementsRegisterResponse::weightInKG).containsExactly(71.0, 70.0);
+    }
+
+    @Test
+    void shouldPageAfterKeysetCursorIncludingTimestampTies() {
+        // Given
+        LocalDateTime morning = LocalDateTime.of(2025, 5, 20, 8, 0);
+        for (int i = 0; i < 3; i++) {
+            measurementsRegisterRepository.save(TestDataBuilder.measurementsRegister()
+                    .userId(testUser.getId())
+                    .weightInKG(80.0 + i)
+                    .timestamp(morning)
+                    .build());
+        }
+        measurementsRegisterRepository.save(TestDataBuilder.measurementsRegister()
+                .userId(testUser.getId())
+                .weightInKG(90.0)
+                .timestamp(morning.minusDays(7))
+                .build());
+
+        // When
+        List<MeasurementsRegisterResponse> first = measurementsRegisterRepository.findResponsesByUserId(
+                testUser.getId(), Limit.of(2));
+        MeasurementsRegisterResponse last = first.get(first.size() - 1);
+        List<MeasurementsRegisterResponse> second = measurementsRegisterRepository.findResponsesAfter(
+                testUser.getId(), last.timestamp(), last.id(), Limit.of(10));
+
+        // Then
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(2);
+        assertThat(second).extracting(MeasurementsRegisterResponse::id).doesNotContainAnyElementsOf(
+                first.stream().map(MeasurementsRegisterResponse::id).toList());
+        assertThat(second.get(1).weightInKG()).isEqualTo(90.0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.model.User;
+import com.mindfit.api.model.UserAiState;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserAiStateRepositoryTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserAiStateRepository userAiStateRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(TestDataBuilder.user()
+                .email("aistate@test.com")
+                .build());
+    }
+
+    @Test
+    void shouldReplaceExistingProfile() {
+        // Given
+        userAiStateRepository.saveAndFlush(new UserAiState(testUser.getId(), "Prefere treinos curtos"));
+
+        // When
+        int updated = userAiStateRepository.updateProfile(testUser.getId(), "Treina pela manhã");
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(userAiStateRepository.findProfileByUserId(testUser.getId())).contains("Treina pela manhã");
+    }
+
+    @Test
+    void shouldReportNoRowsWhenStateIsMissing() {
+        // When
+        int updated = userAiStateRepository.updateProfile(testUser.getId(), "Treina pela manhã");
+
+        // Then
+        assertThat(updated).isZero();
+        assertThat(userAiStateRepository.findProfileByUserId(testUser.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,135 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.MealRegisterDto;
+import com.mindfit.api.dto.UserContext;
+import com.mindfit.api.model.User;
+import com.mindfit.api.model.UserAiState;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserContextRepositoryTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserContextRepository userContextRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRegisterRepository mealRegisterRepository;
+
+    @Autowired
+    private ExerciseRegisterRepository exerciseRegisterRepository;
+
+    @Autowired
+    private MeasurementsRegisterRepository measurementsRegisterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserAiStateRepository userAiStateRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = TestDataBuilder.user()
+                .email("contexttest@test.com")
+                .name("Context User")
+                .build();
+        testUser = userRepository.save(testUser);
+        userAiStateRepository.save(new UserAiState(testUser.getId(), "Likes running"));
+    }
+
+    @Test
+    void shouldLoadUserAndNewestRegistersInOneQuery() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .name("Meal " + i)
+                    .timestamp(now.minusDays(40 + i))
+                    .build());
+        }
+        exerciseRegisterRepository.save(TestDataBuilder.exerciseRegister()
+                .userId(testUser.getId())
+                .name("Run")
+                .timestamp(now.minusHours(1))
+                .build());
+        measurementsRegisterRepository.save(TestDataBuilder.measurementsRegister()
+                .userId(testUser.getId())
+                .weightInKG(72.5)
+                .heightInCM(178)
+                .build());
+        entityManager.flush();
+
+        // When
+        Optional<UserContext> context = userContextRepository.findContext(
+                testUser.getId(), 2, 5, 5, now.minusDays(30), 100);
+
+        // Then
+        assertThat(context).isPresent();
+        assertThat(context.get().name()).isEqualTo("Context User");
+        assertThat(context.get().profile()).isEqualTo("Likes running");
+        assertThat(context.get().meals()).extracting(MealRegisterDto::name)
+                .containsExactly("Meal 0", "Meal 1");
+        assertThat(context.get().exercises()).hasSize(1);
+        assertThat(context.get().measurements()).hasSize(1);
+        assertThat(context.get().measurements().get(0).weightInKG()).isEqualTo(72.5);
+    }
+
+    @Test
+    void shouldIncludeWindowRegistersBeyondRecentLimit() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 4; i++) {
+            mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                    .userId(testUser.getId())
+                    .timestamp(now.minusDays(i))
+                    .build());
+        }
+        entityManager.flush();
+
+        // When
+        Optional<UserContext> context = userContextRepository.findContext(
+                testUser.getId(), 1, 1, 1, now.minusDays(30), 100);
+
+        // Then
+        assertThat(context).isPresent();
+        assertThat(context.get().meals()).hasSize(4);
+    }
+
+    @Test
+    void shouldReturnOnlyUserRowWhenLimitsAreZero() {
+        // Given
+        mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                .userId(testUser.getId())
+                .build());
+        entityManager.flush();
+
+        // When
+        Optional<UserContext> context = userContextRepository.findUser(testUser.getId());
+
+        // Then
+        assertThat(context).isPresent();
+        assertThat(context.get().email()).isEqualTo("contexttest@test.com");
+        assertThat(context.get().profile()).isEqualTo("Likes running");
+        assertThat(context.get().meals()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownUser() {
+        assertThat(userContextRepository.findUser("missing-user")).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.mindfit.api.repository;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.model.User;
+import com.mindfit.api.model.UserContextVersion;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserContextVersionRepositoryTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserContextVersionRepository userContextVersionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(TestDataBuilder.user()
+                .email("versiontest@test.com")
+                .build());
+    }
+
+    @Test
+    void shouldIncrementExistingContextVersion() {
+        // Given
+        userContextVersionRepository.saveAndFlush(new UserContextVersion(testUser.getId(), 3));
+
+        // When
+        int updated = userContextVersionRepository.incrementContextVersion(testUser.getId());
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(userContextVersionRepository.findById(testUser.getId()))
+                .get()
+                .extracting(UserContextVersion::getContextVersion)
+                .isEqualTo(4L);
+    }
+
+    @Test
+    void shouldReportNoRowsWhenVersionIsMissing() {
+        // When
+        int updated = userContextVersionRepository.incrementContextVersion(testUser.getId());
+
+        // Then
+        assertThat(updated).isZero();
+        assertThat(userContextVersionRepository.findById(testUser.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldRecordProfileVersion() {
+        // Given
+        userContextVersionRepository.saveAndFlush(new UserContextVersion(testUser.getId(), 2));
+
+        // When
+        userContextVersionRepository.updateProfileVersion(testUser.getId(), 2);
+
+        // Then
+        assertThat(userContextVersionRepository.findById(testUser.getId()))
+                .get()
+                .extracting(UserContextVersion::getProfileVersion)
+                .isEqualTo(2L);
+    }
+}
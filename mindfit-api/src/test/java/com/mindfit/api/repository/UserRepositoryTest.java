@@ -1,13 +1,29 @@
 package com.mindfit.api.repository;
 
 import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.enums.Role;
+import com.mindfit.api.model.Sensor;
 import com.mindfit.api.model.User;
 import com.mindfit.api.util.TestDataBuilder;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -19,6 +35,20 @@ class UserRepositoryTest extends AbstractIntegrationTest {
     @Autowired
     private EntityManager entityManager;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
     @Test
     void shouldSaveUserWithCreatedAtAndUpdatedAt() {
         // Given
@@ -100,4 +130,100 @@ class UserRepositoryTest extends AbstractIntegrationTest {
         assertThat(userRepository.existsByEmail("exists@test.com")).isTrue();
         assertThat(userRepository.existsByEmail("notexists@test.com")).isFalse();
     }
+
+    @Test
+    void shouldUpdateLastLogonWithoutTouchingOtherColumns() {
+        // Given
+        User user = userRepository.saveAndFlush(TestDataBuilder.user()
+                .email("targeted@test.com")
+                .name("Targeted User")
+                .build());
+        Long originalVersion = user.getVersion();
+        LocalDateTime logon = LocalDateTime.of(2025, 3, 10, 8, 30);
+
+        // When
+        int logonRows = userRepository.updateLastLogonDate(user.getId(), logon);
+
+        // Then
+        assertThat(logonRows).isEqualTo(1);
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(reloaded.getLastLogonDate()).isEqualTo(logon);
+        assertThat(reloaded.getName()).isEqualTo("Targeted User");
+        assertThat(reloaded.getVersion()).isEqualTo(originalVersion);
+    }
+
+    @Test
+    void shouldListUsersAndRolesWithoutManagingEntities() {
+        // Given
+        User admin = userRepository.save(TestDataBuilder.user()
+                .email("listed-admin@test.com")
+                .roles(Set.of(Role.USER, Role.ADMIN))
+                .build());
+        User user = userRepository.save(TestDataBuilder.user()
+                .email("listed-user@test.com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Page<UserRepository.ListRow> rows = userRepository.findListRows(PageRequest.of(0, 10, Sort.by("email")));
+        List<UserRepository.RoleRow> roles = userRepository.findRolesByUserIds(List.of(admin.getId(), user.getId()));
+
+        // Then
+        assertThat(rows.getContent()).extracting(UserRepository.ListRow::email)
+                .containsExactly("listed-admin@test.com", "listed-user@test.com");
+        assertThat(roles).containsExactlyInAnyOrder(
+                new UserRepository.RoleRow(admin.getId(), Role.USER),
+                new UserRepository.RoleRow(admin.getId(), Role.ADMIN),
+                new UserRepository.RoleRow(user.getId(), Role.USER));
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldReadAuthStateFromDatabaseOnEveryLookup() {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user()
+                .email("not-cached@test.com")
+                .build());
+        userRepository.findById(user.getId()).orElseThrow();
+
+        // When: alteração feita por outra instância, direto no banco
+        jdbcTemplate.update("UPDATE users SET enabled = ?, version = version + 1 WHERE id = ?", false, user.getId());
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'ADMIN')", user.getId());
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isFalse();
+        assertThat(reloaded.isEnabled()).isFalse();
+        assertThat(reloaded.getRoles()).contains(Role.ADMIN);
+        assertThat(reloaded.getVersion()).isEqualTo(user.getVersion() + 1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldKeepCachedSensorsWhenUpdatingLastLogon() {
+        // Given
+        User loggingIn = userRepository.save(TestDataBuilder.user()
+                .email("logging-in@test.com")
+                .build());
+        Sensor sensor = new Sensor();
+        sensor.setUserId(loggingIn.getId());
+        sensor.setSensorType("HEART_RATE");
+        sensor = sensorRepository.save(sensor);
+        CacheRegionStatistics sensors = statistics().getDomainDataRegionStatistics("sensors");
+        long hitsBefore = sensors.getHitCount();
+
+        // When
+        userRepository.updateLastLogonDate(loggingIn.getId(), LocalDateTime.of(2025, 3, 10, 8, 30));
+        sensorRepository.findById(sensor.getId()).orElseThrow();
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Sensor.class, sensor.getId())).isTrue();
+        assertThat(sensors.getHitCount() - hitsBefore).isEqualTo(1);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
 }
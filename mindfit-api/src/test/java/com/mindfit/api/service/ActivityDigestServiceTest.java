@@ -0,0 +1,181 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.MealRegisterDto;
+import com.mindfit.api.dto.UserActivityDigest;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.MealRegisterRepository;
+import com.mindfit.api.repository.UserContextRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ActivityDigestServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private ActivityDigestService activityDigestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRegisterRepository mealRegisterRepository;
+
+    @Autowired
+    private ContextVersionService contextVersionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoSpyBean
+    private UserContextRepository userContextRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        activityDigestService.setClock(clockAt(TODAY));
+        testUser = userRepository.save(TestDataBuilder.user()
+                .email("digest@test.com")
+                .build());
+    }
+
+    @AfterEach
+    void restoreClock() {
+        activityDigestService.setClock(Clock.systemDefaultZone());
+    }
+
+    @Test
+    void shouldApplySavedMealsWithoutReloading() {
+        // Given
+        saveMeal(TODAY.atTime(8, 0), 400);
+        activityDigestService.getDigest(testUser.getId());
+        MealRegisterDto lunch = new MealRegisterDto("lunch-id", testUser.getId(), "Lunch",
+                TODAY.atTime(12, 30), 700, 80.0, 40.0, 20.0, null, null);
+
+        // When: mesma ordem dos serviços de registro
+        activityDigestService.onMealSaved(lunch);
+        contextVersionService.bump(testUser.getId());
+        UserActivityDigest digest = activityDigestService.getDigest(testUser.getId());
+
+        // Then
+        assertThat(digest.recentMeals()).hasSize(2);
+        assertThat(digest.recentMeals().get(0).id()).isEqualTo("lunch-id");
+        assertThat(digest.dailyTotals()).singleElement()
+                .extracting(UserActivityDigest.DailyTotals::caloriesConsumed).isEqualTo(1100);
+    }
+
+    @Test
+    void shouldRebaseWindowsWhenTheDayChanges() {
+        // Given
+        saveMeal(TODAY.atTime(8, 0), 400);
+        assertThat(activityDigestService.getDigest(testUser.getId()).dailyTotals()).hasSize(1);
+
+        // When
+        activityDigestService.setClock(clockAt(TODAY.plusDays(8)));
+        UserActivityDigest afterAWeek = activityDigestService.getDigest(testUser.getId());
+        activityDigestService.setClock(clockAt(TODAY.plusDays(31)));
+        UserActivityDigest afterAMonth = activityDigestService.getDigest(testUser.getId());
+
+        // Then
+        assertThat(afterAWeek.dailyTotals()).isEmpty();
+        assertThat(afterAWeek.mealHourHistogram().get(8)).isEqualTo(1);
+        assertThat(afterAMonth.mealHourHistogram().get(8)).isZero();
+        assertThat(afterAMonth.recentMeals()).hasSize(1);
+    }
+
+    @Test
+    void shouldReloadFromDatabaseAfterEvict() {
+        // Given
+        saveMeal(TODAY.atTime(8, 0), 400);
+        activityDigestService.getDigest(testUser.getId());
+        saveMeal(TODAY.atTime(19, 0), 600);
+
+        // When
+        UserActivityDigest cached = activityDigestService.getDigest(testUser.getId());
+        activityDigestService.evict(testUser.getId());
+        UserActivityDigest reloaded = activityDigestService.getDigest(testUser.getId());
+
+        // Then
+        assertThat(cached.recentMeals()).hasSize(1);
+        assertThat(reloaded.recentMeals()).hasSize(2);
+    }
+
+    @Test
+    void shouldReloadWhenContextVersionChangesElsewhere() {
+        // Given
+        saveMeal(TODAY.atTime(8, 0), 400);
+        activityDigestService.getDigest(testUser.getId());
+
+        // When: gravação feita por outra instância, visível só pela versão de contexto
+        saveMeal(TODAY.atTime(19, 0), 600);
+        contextVersionService.bump(testUser.getId());
+        UserActivityDigest digest = activityDigestService.getDigest(testUser.getId());
+
+        // Then
+        assertThat(digest.recentMeals()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotCacheDigestLoadedAcrossAMutation() {
+        // Given: uma refeição é registrada enquanto a carga do banco está em andamento
+        saveMeal(TODAY.atTime(8, 0), 400);
+        MealRegisterDto lunch = new MealRegisterDto("lunch-id", testUser.getId(), "Lunch",
+                TODAY.atTime(12, 30), 700, 80.0, 40.0, 20.0, null, null);
+        doAnswer(invocation -> {
+            Object loaded = invocation.callRealMethod();
+            activityDigestService.onMealSaved(lunch);
+            return loaded;
+        }).doCallRealMethod()
+                .when(userContextRepository).findContext(eq(testUser.getId()), anyInt(), anyInt(), anyInt(), any(), anyInt());
+
+        // When
+        activityDigestService.getDigest(testUser.getId());
+        activityDigestService.getDigest(testUser.getId());
+
+        // Then
+        verify(userContextRepository, times(2))
+                .findContext(eq(testUser.getId()), anyInt(), anyInt(), anyInt(), any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnEmptyContextForUnknownUser() {
+        // Given / When / Then
+        assertThat(activityDigestService.getUserContext("missing-user")).isEmpty();
+        assertThat(activityDigestService.getDigest("missing-user").recentMeals()).isEmpty();
+    }
+
+    private void saveMeal(LocalDateTime timestamp, int calories) {
+        mealRegisterRepository.save(TestDataBuilder.mealRegister()
+                .userId(testUser.getId())
+                .timestamp(timestamp)
+                .calories(calories)
+                .build());
+        entityManager.flush();
+    }
+
+    private static Clock clockAt(LocalDate date) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Clock.fixed(date.atTime(12, 0).atZone(zone).toInstant(), zone);
+    }
+}
@@ -0,0 +1,266 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.ChatRequest;
+import com.mindfit.api.model.User;
+import com.mindfit.api.model.UserAiState;
+import com.mindfit.api.repository.UserAiStateRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import com.mindfit.api.util.TokenEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ChatbotServiceTest extends AbstractIntegrationTest {
+
+    private static final String PROFILE_HEADER = "USER PROFILE (use this information to personalize your responses):\n";
+    private static final String SUMMARY = "Goal: gain muscle on a vegetarian diet.";
+
+    @MockitoBean
+    private ChatModel chatModel;
+
+    @Autowired
+    private ChatbotService chatbotService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAiStateRepository userAiStateRepository;
+
+    @Autowired
+    private ThreadPoolTaskExecutor chatSummaryExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.chatbot.prompt-token-budget}")
+    private int promptTokenBudget;
+
+    @Value("${app.chatbot.profile-token-budget}")
+    private int profileTokenBudget;
+
+    // Conteúdo do SystemMessage de cada chamada de chat, na ordem
+    private final List<String> systemContents = new CopyOnWriteArrayList<>();
+
+    private String reply = "Eat more protein.";
+
+    @AfterEach
+    void awaitBackgroundCompactions() throws InterruptedException {
+        // O contexto é compartilhado: uma compactação tardia chamaria o modelo simulado do próximo teste
+        awaitIdle(chatSummaryExecutor);
+    }
+
+    @Test
+    void shouldKeepSystemContentWithinPromptBudgetAndTruncateProfile() {
+        // Given: perfil acima da sua cota e compactação sempre vazia, de modo que os turnos se acumulam
+        String userId = userWithProfile("budget@test.com", "Prefers plant-based meals and trains five times a week. ".repeat(80));
+        stubModel(() -> "  ");
+        reply = "proteina ".repeat(120);
+        String lastPrompt = null;
+
+        // When
+        for (int i = 1; i <= 8; i++) {
+            lastPrompt = question(i);
+            chatbotService.chat(userId, new ChatRequest(lastPrompt));
+        }
+
+        // Then
+        String systemContent = systemContents.get(systemContents.size() - 1);
+        assertThat(TokenEstimator.estimate(systemContent) + TokenEstimator.estimate(lastPrompt))
+                .isLessThanOrEqualTo(promptTokenBudget);
+        String profile = section(systemContent, PROFILE_HEADER);
+        assertThat(TokenEstimator.estimate(profile)).isLessThanOrEqualTo(profileTokenBudget);
+        assertThat(profile).startsWith("Prefers plant-based meals").endsWith("…");
+        // Os turnos mais recentes entram e os mais antigos ficam de fora do orçamento
+        assertThat(systemContent).contains("Question 7 ").doesNotContain("Question 1 ");
+    }
+
+    @Test
+    void shouldFoldOnlyTurnsOlderThanRecentTurnsKept() throws Exception {
+        // Given
+        String userId = userWithProfile("fold@test.com", "Vegetarian.");
+        List<String> summaryPrompts = new CopyOnWriteArrayList<>();
+        stubModel(() -> SUMMARY, summaryPrompts);
+        double compactionsBefore = compactions();
+
+        // When: o terceiro turno passa do gatilho e os dois turnos mais recentes são mantidos
+        for (int i = 1; i <= 3; i++) {
+            chatbotService.chat(userId, new ChatRequest(question(i)));
+        }
+        awaitCompactions(compactionsBefore + 1);
+        chatbotService.chat(userId, new ChatRequest(question(4)));
+
+        // Then: o quarto turno pode agendar outra compactação; a primeira resumiu só o turno mais antigo
+        assertThat(summaryPrompts.get(0)).contains("Question 1 ").doesNotContain("Question 2 ", "Question 3 ");
+        String systemContent = systemContents.get(systemContents.size() - 1);
+        assertThat(systemContent)
+                .contains("Summary of earlier conversation:\n" + SUMMARY)
+                .contains("Question 2 ", "Question 3 ")
+                .doesNotContain("Question 1 ");
+    }
+
+    @Test
+    void shouldKeepTurnsWhenCompactionFails() {
+        // Given
+        String userId = userWithProfile("fold-failed@test.com", "Vegetarian.");
+        stubModel(() -> {
+            throw new IllegalStateException("provider down");
+        });
+
+        // When
+        for (int i = 1; i <= 3; i++) {
+            chatbotService.chat(userId, new ChatRequest(question(i)));
+        }
+        verify(chatModel, timeout(5_000)).call(argThat(ChatbotServiceTest::isSummaryPrompt));
+        chatbotService.chat(userId, new ChatRequest(question(4)));
+
+        // Then
+        assertThat(systemContents.get(systemContents.size() - 1))
+                .doesNotContain("Summary of earlier conversation")
+                .contains("Question 1 ", "Question 2 ", "Question 3 ");
+    }
+
+    @Test
+    void shouldKeepTurnsAndAllowLaterCompactionWhenExecutorRejectsIt() throws Exception {
+        // Given: executor de resumos lotado
+        String userId = userWithProfile("fold-rejected@test.com", "Vegetarian.");
+        List<String> summaryPrompts = new CopyOnWriteArrayList<>();
+        stubModel(() -> SUMMARY, summaryPrompts);
+        CountDownLatch releaseExecutor = new CountDownLatch(1);
+        try {
+            saturate(chatSummaryExecutor, releaseExecutor);
+
+            // When
+            for (int i = 1; i <= 4; i++) {
+                chatbotService.chat(userId, new ChatRequest(question(i)));
+            }
+
+            // Then: nada foi resumido e os turnos continuam no prompt
+            verify(chatModel, never()).call(argThat(ChatbotServiceTest::isSummaryPrompt));
+            assertThat(systemContents.get(systemContents.size() - 1)).contains("Question 1 ", "Question 3 ");
+        } finally {
+            releaseExecutor.countDown();
+        }
+        awaitIdle(chatSummaryExecutor);
+
+        // Then: a rejeição liberou a conversa, e o próximo turno agenda a compactação
+        chatbotService.chat(userId, new ChatRequest(question(5)));
+        verify(chatModel, timeout(5_000)).call(argThat(ChatbotServiceTest::isSummaryPrompt));
+        assertThat(summaryPrompts).singleElement()
+                .satisfies(prompt -> assertThat(prompt).contains("Question 1 ", "Question 2 "));
+    }
+
+    private String userWithProfile(String email, String profile) {
+        User user = userRepository.save(TestDataBuilder.user().email(email).build());
+        userAiStateRepository.save(new UserAiState(user.getId(), profile));
+        return user.getId();
+    }
+
+    private void stubModel(Callable<String> summary) {
+        stubModel(summary, new CopyOnWriteArrayList<>());
+    }
+
+    /**
+     * Responde ao chat com {@link #reply}, aos resumos com {@code summary} e à detecção de intenção com "none".
+     */
+    private void stubModel(Callable<String> summary, List<String> summaryPrompts) {
+        doAnswer(invocation -> {
+            Prompt prompt = invocation.getArgument(0);
+            if (prompt.getInstructions().get(0) instanceof SystemMessage system) {
+                systemContents.add(system.getText());
+                return completion(reply);
+            }
+            if (isSummaryPrompt(prompt)) {
+                summaryPrompts.add(prompt.getContents());
+                return completion(summary.call());
+            }
+            return completion("none");
+        }).when(chatModel).call(any(Prompt.class));
+    }
+
+    private double compactions() {
+        return meterRegistry.counter("mindfit.chatbot.history.compactions").count();
+    }
+
+    private void awaitCompactions(double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (compactions() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(compactions()).isEqualTo(expected);
+    }
+
+    /**
+     * Ocupa as threads e a fila do executor com tarefas presas até {@code release}.
+     */
+    private static void saturate(ThreadPoolTaskExecutor executor, CountDownLatch release) {
+        for (int i = 0; i < 100; i++) {
+            try {
+                executor.execute(() -> awaitQuietly(release));
+            } catch (TaskRejectedException e) {
+                return;
+            }
+        }
+        throw new AssertionError("Executor did not reject any task");
+    }
+
+    private static void awaitIdle(ThreadPoolTaskExecutor executor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.getThreadPoolExecutor().getCompletedTaskCount() < executor.getThreadPoolExecutor().getTaskCount()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isSummaryPrompt(Prompt prompt) {
+        return prompt != null && prompt.getContents().startsWith("Update the running summary");
+    }
+
+    private static String question(int number) {
+        return "Question " + number + " " + "how much protein should I eat after training? ".repeat(22);
+    }
+
+    private static String section(String content, String header) {
+        int start = content.indexOf(header) + header.length();
+        return content.substring(start, content.indexOf("\n\n", start));
+    }
+
+    private static ChatResponse completion(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
@@ -0,0 +1,189 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.LlmUnavailableException;
+import com.mindfit.api.enums.LlmCallType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Faixa de uma chamada e fila de uma posição, para lotar o executor com poucas tarefas
+@TestPropertySource(properties = {
+        "app.llm.max-in-flight=1",
+        "app.llm.queue-capacity=1",
+        "app.llm.max-streams=1",
+        "app.llm.deadlines.chat-ms=300",
+        "app.llm.circuit-breaker.failure-threshold=3",
+        "app.llm.circuit-breaker.open-ms=200"})
+class LlmGatewayTest extends AbstractIntegrationTest {
+
+    private static final Prompt PROMPT = new Prompt("hello");
+
+    @MockitoBean
+    private ChatModel chatModel;
+
+    @Autowired
+    private LlmGateway llmGateway;
+
+    @Autowired
+    private ThreadPoolTaskExecutor llmExecutor;
+
+    @BeforeEach
+    void resetCircuitBreaker() {
+        // O gateway é um singleton do contexto: cada teste começa com o circuito fechado
+        llmGateway.init();
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresAndCloseAfterOneSuccessfulProbe() throws Exception {
+        // Given
+        when(chatModel.call(any(Prompt.class))).thenThrow(new IllegalStateException("provider down"));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT))
+                    .isInstanceOf(LlmUnavailableException.class)
+                    .hasMessageContaining("provider down");
+        }
+
+        // When / Then: aberto, rejeita sem chamar o provedor
+        assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("circuit breaker is open");
+        verify(chatModel, times(3)).call(any(Prompt.class));
+
+        // When / Then: passado o intervalo, só uma chamada de teste passa
+        Thread.sleep(300);
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            probeStarted.countDown();
+            releaseProbe.await(5, TimeUnit.SECONDS);
+            return completion("ok");
+        }).when(chatModel).call(any(Prompt.class));
+        CompletableFuture<ChatResponse> probe = CompletableFuture.supplyAsync(() -> llmGateway.call(LlmCallType.INTENT, PROMPT));
+        assertThat(probeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("circuit breaker is open");
+
+        // When / Then: o sucesso da chamada de teste fecha o circuito
+        releaseProbe.countDown();
+        assertThat(probe.get(5, TimeUnit.SECONDS).getResult().getOutput().getText()).isEqualTo("ok");
+        assertThat(llmGateway.call(LlmCallType.CHAT, PROMPT).getResult().getOutput().getText()).isEqualTo("ok");
+    }
+
+    @Test
+    void shouldMapDeadlineOverrunToUnavailable() {
+        // Given
+        CountDownLatch never = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            never.await(5, TimeUnit.SECONDS);
+            return completion("late");
+        });
+
+        // When / Then
+        assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("300 ms deadline");
+    }
+
+    @Test
+    void shouldRejectWhenLaneIsFullWithoutLeavingProbeInFlight() throws Exception {
+        // Given: circuito aberto e vencido, de modo que a próxima chamada é a chamada de teste
+        when(chatModel.call(any(Prompt.class))).thenThrow(new IllegalStateException("provider down"));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT)).isInstanceOf(LlmUnavailableException.class);
+        }
+        Thread.sleep(300);
+        // Uma tarefa em execução e outra na fila lotam a faixa
+        CountDownLatch releaseLane = new CountDownLatch(1);
+        CountDownLatch laneBusy = new CountDownLatch(1);
+        llmExecutor.execute(() -> {
+            laneBusy.countDown();
+            awaitQuietly(releaseLane);
+        });
+        assertThat(laneBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        llmExecutor.execute(() -> awaitQuietly(releaseLane));
+
+        // When
+        try {
+            assertThatThrownBy(() -> llmGateway.call(LlmCallType.CHAT, PROMPT))
+                    .isInstanceOf(LlmUnavailableException.class)
+                    .hasMessageContaining("execution lane is full")
+                    .satisfies(e -> assertThat(((LlmUnavailableException) e).getRetryAfterSeconds()).isEqualTo(1));
+        } finally {
+            releaseLane.countDown();
+        }
+
+        awaitIdleLane();
+
+        // Then: a permissão de teste foi devolvida, então a próxima chamada ainda pode testar o provedor
+        doReturn(completion("ok")).when(chatModel).call(any(Prompt.class));
+        assertThat(llmGateway.call(LlmCallType.CHAT, PROMPT).getResult().getOutput().getText()).isEqualTo("ok");
+    }
+
+    @Test
+    void shouldReleaseStreamPermitWhenStreamIsCancelled() {
+        // Given
+        when(chatModel.stream(any(Prompt.class))).thenReturn(Flux.never());
+        Disposable abandoned = llmGateway.stream(LlmCallType.CHAT, PROMPT).subscribe();
+
+        // Enquanto o único stream está aberto, outro é recusado
+        assertThatThrownBy(() -> llmGateway.stream(LlmCallType.CHAT, PROMPT).blockLast(Duration.ofSeconds(5)))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("streaming lane is full");
+
+        // When
+        abandoned.dispose();
+
+        // Then
+        when(chatModel.stream(any(Prompt.class))).thenReturn(Flux.just(completion("chunk")));
+        assertThat(llmGateway.stream(LlmCallType.CHAT, PROMPT).collectList().block(Duration.ofSeconds(5)))
+                .singleElement()
+                .satisfies(chunk -> assertThat(chunk.getResult().getOutput().getText()).isEqualTo("chunk"));
+    }
+
+    private void awaitIdleLane() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (llmExecutor.getThreadPoolExecutor().getCompletedTaskCount() < llmExecutor.getThreadPoolExecutor().getTaskCount()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ChatResponse completion(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
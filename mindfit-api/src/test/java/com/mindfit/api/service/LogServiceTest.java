@@ -0,0 +1,84 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Os logs são gravados pelo logWriterExecutor e pelo pool de segundo plano, fora da transação do teste:
+ * as verificações esperam o executor ficar ocioso. Uma thread e fila de um item tornam o descarte previsível.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"app.log-writer.threads=1", "app.log-writer.queue-capacity=1"})
+class LogServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor logWriterExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldWriteLogOffTheCallingThread() throws InterruptedException {
+        // When
+        logService.logError("TEST", "Import failed", "stack trace");
+        drain();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM logs WHERE type = 'ERROR' AND category = 'TEST' AND name = 'Import failed'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropLogsWhenTheQueueIsFull() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        logWriterExecutor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        logService.logWarning("TEST", "queued", "fits in the queue");
+        logService.logWarning("TEST", "dropped", "queue is full");
+        release.countDown();
+        drain();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM logs WHERE category = 'TEST'", String.class))
+                .containsExactly("queued");
+    }
+
+    private void drain() throws InterruptedException {
+        ThreadPoolExecutor executor = logWriterExecutor.getThreadPoolExecutor();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getCompletedTaskCount() < executor.getTaskCount() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
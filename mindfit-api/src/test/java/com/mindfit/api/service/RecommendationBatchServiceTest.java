@@ -0,0 +1,165 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.LlmUnavailableException;
+import com.mindfit.api.common.exception.ResourceNotFoundException;
+import com.mindfit.api.common.exception.UnauthorizedException;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.RecommendationBatchRequest;
+import com.mindfit.api.dto.RecommendationBatchStatus;
+import com.mindfit.api.enums.RecommendationBatchState;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.RecommendationCacheRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// As tarefas rodam no executor de lotes, fora da transação do teste: os usuários são commitados
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecommendationBatchServiceTest extends AbstractIntegrationTest {
+
+    @MockitoBean
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private RecommendationBatchService recommendationBatchService;
+
+    @Autowired
+    private RecommendationCacheRepository recommendationCacheRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ThreadPoolTaskExecutor recommendationBatchExecutor;
+
+    @BeforeEach
+    void authenticateAsAdmin() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldGenerateAndCacheRecommendationsReportingFailures() {
+        // Given
+        User ok = userRepository.save(TestDataBuilder.user().email("batch-ok@test.com").build());
+        User failing = userRepository.save(TestDataBuilder.user().email("batch-failing@test.com").build());
+        when(recommendationService.generateMeal(eq(ok.getId()), any()))
+                .thenReturn(new MealRecommendationResponse(List.of(), "Balanced", null));
+        when(recommendationService.generateMeal(eq(failing.getId()), any()))
+                .thenThrow(new IllegalStateException("Model returned no recommendations"));
+
+        // When
+        RecommendationBatchStatus started = recommendationBatchService.start(new RecommendationBatchRequest(
+                List.of(ok.getId(), failing.getId()), null, false, Set.of(RecommendationKind.MEAL)));
+        RecommendationBatchStatus finished = recommendationBatchService.streamProgress(started.id())
+                .blockLast(Duration.ofSeconds(30));
+
+        // Then
+        assertThat(finished.state()).isEqualTo(RecommendationBatchState.COMPLETED);
+        assertThat(finished.total()).isEqualTo(2);
+        assertThat(finished.succeeded()).isEqualTo(1);
+        assertThat(finished.failed()).isEqualTo(1);
+        assertThat(finished.failures()).singleElement()
+                .satisfies(failure -> assertThat(failure.userId()).isEqualTo(failing.getId()));
+        assertThat(recommendationCacheRepository.findByUserIdsAndKinds(
+                List.of(ok.getId(), failing.getId()), List.of(RecommendationKind.MEAL)))
+                .singleElement()
+                .satisfies(row -> assertThat(row.getUserId()).isEqualTo(ok.getId()));
+    }
+
+    @Test
+    void shouldRetryUnavailableModelWithoutHoldingBatchThread() throws InterruptedException {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("batch-retry@test.com").build());
+        CountDownLatch firstAttempt = new CountDownLatch(1);
+        when(recommendationService.generateMeal(eq(user.getId()), any()))
+                .thenAnswer(invocation -> {
+                    firstAttempt.countDown();
+                    throw new LlmUnavailableException("LLM execution lane is full", 0);
+                })
+                .thenReturn(new MealRecommendationResponse(List.of(), "Balanced", null));
+
+        // When
+        RecommendationBatchStatus started = recommendationBatchService.start(new RecommendationBatchRequest(
+                List.of(user.getId()), null, false, Set.of(RecommendationKind.MEAL)));
+        // Durante a espera da nova tentativa (retry-backoff-ms) nenhuma thread do lote fica ocupada
+        assertThat(firstAttempt.await(10, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(500);
+        int activeWhileWaiting = recommendationBatchExecutor.getActiveCount();
+        RecommendationBatchStatus finished = recommendationBatchService.streamProgress(started.id())
+                .blockLast(Duration.ofSeconds(30));
+
+        // Then
+        assertThat(activeWhileWaiting).isZero();
+        assertThat(finished.state()).isEqualTo(RecommendationBatchState.COMPLETED);
+        assertThat(finished.succeeded()).isEqualTo(1);
+        assertThat(finished.failed()).isZero();
+        verify(recommendationService, times(2)).generateMeal(eq(user.getId()), any());
+    }
+
+    @Test
+    void shouldRejectJobThatDoesNotFitTheQueue() {
+        // Given
+        int capacity = recommendationBatchExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        List<String> userIds = IntStream.rangeClosed(0, capacity)
+                .mapToObj(i -> "batch-user-" + i)
+                .toList();
+
+        // When / Then
+        assertThatThrownBy(() -> recommendationBatchService.start(new RecommendationBatchRequest(
+                userIds, null, false, Set.of(RecommendationKind.MEAL))))
+                .isInstanceOf(LlmUnavailableException.class);
+        verifyNoInteractions(recommendationService);
+    }
+
+    @Test
+    void shouldRejectNonAdmins() {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("user", null, "ROLE_USER"));
+
+        // When / Then
+        assertThatThrownBy(() -> recommendationBatchService.start(new RecommendationBatchRequest(
+                List.of("any-user"), null, false, Set.of(RecommendationKind.MEAL))))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void shouldReportUnknownJobAsNotFound() {
+        // Given / When / Then
+        assertThatThrownBy(() -> recommendationBatchService.getStatus("missing-job"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mindfit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.MealRecommendationRequest.MealType;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.WorkoutRecommendationResponse;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.model.RecommendationCache;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.RecommendationCacheRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecommendationCacheServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private RecommendationCacheService recommendationCacheService;
+
+    @Autowired
+    private RecommendationCacheRepository recommendationCacheRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ContextVersionService contextVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldUpdateExistingAndInsertNewRowsReadingThemInOneQuery() {
+        // Given
+        User first = userRepository.save(TestDataBuilder.user().email("batch-first@test.com").build());
+        User second = userRepository.save(TestDataBuilder.user().email("batch-second@test.com").build());
+        recommendationCacheService.put(first.getId(), RecommendationKind.MEAL, meal("Old oats"), 1);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        recommendationCacheService.putAll(List.of(
+                new RecommendationCacheService.CacheWrite(first.getId(), RecommendationKind.MEAL, meal("New oats"), 2),
+                new RecommendationCacheService.CacheWrite(second.getId(), RecommendationKind.MEAL, meal("Salad"), 5),
+                new RecommendationCacheService.CacheWrite(second.getId(), RecommendationKind.WORKOUT,
+                        new WorkoutRecommendationResponse(List.of(), "Rest day", null, null), 5)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        RecommendationCache updated = recommendationCacheRepository
+                .findById(new RecommendationCache.Key(first.getId(), RecommendationKind.MEAL)).orElseThrow();
+        assertThat(updated.getContextVersion()).isEqualTo(2);
+        assertThat(updated.getPayload()).contains("New oats");
+        assertThat(recommendationCacheRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCapRevalidatedExpiryAtMaxAge() throws Exception {
+        // Given: vencida há um minuto, gerada há 5 h (idade máxima de 6 h, validade de 2 h)
+        User user = userRepository.save(TestDataBuilder.user().email("revalidate-cap@test.com").build());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime generatedAt = now.minusHours(5);
+        store(user.getId(), RecommendationKind.WORKOUT, new WorkoutRecommendationResponse(List.of(), "Rest day", null, null),
+                generatedAt, now.minusMinutes(1), null);
+
+        // When
+        boolean fresh = recommendationCacheService.getFresh(user.getId(), RecommendationKind.WORKOUT,
+                WorkoutRecommendationResponse.class).isPresent();
+
+        // Then: estendida só até gerada + idade máxima, não por mais uma validade inteira
+        assertThat(fresh).isTrue();
+        assertThat(recommendationCacheService.getExpiry(user.getId(), RecommendationKind.WORKOUT))
+                .contains(generatedAt.plusMinutes(360));
+    }
+
+    @Test
+    void shouldRevalidateMealOnlyWithinTheMealPeriodItWasGeneratedFor() throws Exception {
+        // Given
+        User sameMeal = userRepository.save(TestDataBuilder.user().email("revalidate-same@test.com").build());
+        User otherMeal = userRepository.save(TestDataBuilder.user().email("revalidate-other@test.com").build());
+        LocalDateTime now = LocalDateTime.now();
+        MealType current = MealType.at(now);
+        MealType other = current == MealType.LUNCH ? MealType.DINNER : MealType.LUNCH;
+        store(sameMeal.getId(), RecommendationKind.MEAL, meal("Oats"), now.minusHours(3), now.minusMinutes(1), current);
+        store(otherMeal.getId(), RecommendationKind.MEAL, meal("Oats"), now.minusHours(3), now.minusMinutes(1), other);
+
+        // When
+        boolean sameMealFresh = recommendationCacheService.getFresh(sameMeal.getId(), RecommendationKind.MEAL,
+                MealRecommendationResponse.class).isPresent();
+        boolean otherMealFresh = recommendationCacheService.getFresh(otherMeal.getId(), RecommendationKind.MEAL,
+                MealRecommendationResponse.class).isPresent();
+
+        // Then
+        assertThat(sameMealFresh).isTrue();
+        assertThat(otherMealFresh).isFalse();
+        assertThat(recommendationCacheService.isCurrentAt(otherMeal.getId(), RecommendationKind.MEAL, now)).isFalse();
+    }
+
+    private void store(String userId, RecommendationKind kind, Object response, LocalDateTime generatedAt,
+                       LocalDateTime expiresAt, MealType mealPeriod) throws JsonProcessingException {
+        RecommendationCache row = new RecommendationCache();
+        row.setUserId(userId);
+        row.setKind(kind);
+        row.setPayload(objectMapper.writeValueAsString(response));
+        row.setGeneratedAt(generatedAt);
+        row.setExpiresAt(expiresAt);
+        row.setContextVersion(contextVersionService.current(userId));
+        row.setMealPeriod(mealPeriod != null ? mealPeriod.name() : null);
+        recommendationCacheRepository.save(row);
+    }
+
+    private static MealRecommendationResponse meal(String name) {
+        return new MealRecommendationResponse(List.of(new MealRecommendationResponse.RecommendedMeal(
+                name, null, 300, null, null, null, null, List.of(), null)), "Balanced", null);
+    }
+}
@@ -0,0 +1,437 @@
+package com.mindfit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.LlmUnavailableException;
+import com.mindfit.api.dto.HomeRecommendationResponse;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.RecommendationStreamEvent;
+import com.mindfit.api.dto.WorkoutRecommendationResponse;
+import com.mindfit.api.enums.RecommendationKind;
+import com.mindfit.api.model.RecommendationCache;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.RecommendationCacheRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Streams e atualizações em segundo plano rodam fora da thread do teste: os dados são commitados
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecommendationServiceTest extends AbstractIntegrationTest {
+
+    private static final String MEAL_COMPLETION = """
+            {"recommendations": [{"name": "Grilled chicken bowl", "estimatedCalories": 550, "ingredients": ["chicken", "rice"]}],
+             "reasoning": "High protein after training"}
+            """;
+
+    private static final String WORKOUT_COMPLETION = """
+            {"recommendations": [{"name": "Morning run", "durationMinutes": 30, "estimatedCaloriesBurn": 300, "exercises": []}],
+             "reasoning": "Light cardio on a rest day"}
+            """;
+
+    private static final String HOME_PROMPT_PREFIX = "You are a nutrition and fitness expert.";
+    private static final String WORKOUT_PROMPT_PREFIX = "You are a fitness expert.";
+
+    private static final int CONCURRENT_CALLERS = 8;
+
+    @MockitoBean
+    private ChatModel chatModel;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private ContextVersionService contextVersionService;
+
+    @Autowired
+    private RecommendationCacheService recommendationCacheService;
+
+    @Autowired
+    private RecommendationCacheRepository recommendationCacheRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ThreadPoolTaskExecutor recommendationRefreshExecutor;
+
+    @AfterEach
+    void awaitBackgroundRefreshes() throws InterruptedException {
+        // O contexto é compartilhado: uma atualização tardia chamaria o modelo simulado do próximo teste
+        awaitIdle(recommendationRefreshExecutor);
+    }
+
+    @Test
+    void shouldCallModelOnceForConcurrentMissesAndShareTheResult() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("flight-shared@test.com").build());
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return completion(MEAL_COMPLETION);
+        });
+        double coalescedBefore = coalesced();
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+
+        try {
+            // When: todos perdem o cache; o modelo só responde depois que os demais entraram na espera
+            List<Future<MealRecommendationResponse>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+                results.add(callers.submit(() -> recommendationService.getCachedMealRecommendations(user.getId())));
+            }
+            awaitCoalesced(coalescedBefore + CONCURRENT_CALLERS - 1);
+            release.countDown();
+
+            // Then
+            MealRecommendationResponse first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<MealRecommendationResponse> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            verify(chatModel, times(1)).call(any(Prompt.class));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateFailureToEveryWaiterAndReleaseTheKey() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("flight-failed@test.com").build());
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("provider down");
+        });
+        double coalescedBefore = coalesced();
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+
+        try {
+            // When
+            List<Future<MealRecommendationResponse>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+                results.add(callers.submit(() -> recommendationService.getCachedMealRecommendations(user.getId())));
+            }
+            awaitCoalesced(coalescedBefore + CONCURRENT_CALLERS - 1);
+            release.countDown();
+
+            // Then: todos recebem a falha da única chamada
+            for (Future<MealRecommendationResponse> result : results) {
+                assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(LlmUnavailableException.class);
+            }
+            verify(chatModel, times(1)).call(any(Prompt.class));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // Then: a chave foi liberada e a próxima chamada gera de novo
+        doReturn(completion(MEAL_COMPLETION)).when(chatModel).call(any(Prompt.class));
+        assertThat(recommendationService.getCachedMealRecommendations(user.getId()).recommendations()).hasSize(1);
+        verify(chatModel, times(2)).call(any(Prompt.class));
+    }
+
+    @Test
+    void shouldShareOneModelStreamBetweenConcurrentStreamsOfTheSameUser() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("stream-shared@test.com").build());
+        Sinks.Many<ChatResponse> chunks = Sinks.many().unicast().onBackpressureBuffer();
+        when(chatModel.stream(any(Prompt.class))).thenReturn(chunks.asFlux());
+
+        // When
+        CompletableFuture<List<RecommendationStreamEvent>> first =
+                recommendationService.streamMealRecommendations(user.getId()).collectList().toFuture();
+        CompletableFuture<List<RecommendationStreamEvent>> second =
+                recommendationService.streamMealRecommendations(user.getId()).collectList().toFuture();
+        chunks.tryEmitNext(completion(MEAL_COMPLETION));
+        chunks.tryEmitComplete();
+
+        // Then
+        List<RecommendationStreamEvent> firstEvents = first.get(10, TimeUnit.SECONDS);
+        List<RecommendationStreamEvent> secondEvents = second.get(10, TimeUnit.SECONDS);
+        verify(chatModel, times(1)).stream(any(Prompt.class));
+        assertThat(firstEvents).extracting(RecommendationStreamEvent::event).containsExactly("recommendation", "complete");
+        assertThat(secondEvents).isEqualTo(firstEvents);
+    }
+
+    @Test
+    void shouldStreamStaleEntryAndRefreshItInBackground() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("stream-stale@test.com").build());
+        MealRecommendationResponse stale = staleMeal();
+        storeExpired(user.getId(), RecommendationKind.MEAL, stale, 5);
+        when(chatModel.call(any(Prompt.class))).thenReturn(completion(MEAL_COMPLETION));
+
+        // When
+        List<RecommendationStreamEvent> events = recommendationService.streamMealRecommendations(user.getId())
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(events).extracting(RecommendationStreamEvent::event).containsExactly("recommendation", "complete");
+        assertThat(events.get(1).data()).isEqualTo(stale);
+        verify(chatModel, timeout(5_000)).call(any(Prompt.class));
+        verify(chatModel, never()).stream(any(Prompt.class));
+    }
+
+    @Test
+    void shouldServeEntryInsideStaleWindowAndRefreshItOnce() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("stale-inside@test.com").build());
+        MealRecommendationResponse stale = staleMeal();
+        storeExpired(user.getId(), RecommendationKind.MEAL, stale, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return completion(MEAL_COMPLETION);
+        });
+        double staleServedBefore = staleServed();
+
+        // When: vários acessos enquanto a atualização ainda está em andamento
+        List<MealRecommendationResponse> served = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            served.add(recommendationService.getCachedMealRecommendations(user.getId()));
+        }
+        release.countDown();
+
+        // Then
+        assertThat(served).containsOnly(stale);
+        assertThat(staleServed()).isEqualTo(staleServedBefore + 1);
+        verify(chatModel, timeout(5_000).times(1)).call(any(Prompt.class));
+        assertThat(awaitFreshMeal(user.getId()).recommendations())
+                .extracting(MealRecommendationResponse.RecommendedMeal::name)
+                .containsExactly("Grilled chicken bowl");
+        verify(chatModel, times(1)).call(any(Prompt.class));
+    }
+
+    @Test
+    void shouldRegenerateSynchronouslyOutsideStaleWindow() throws Exception {
+        // Given: vencida há mais que a janela de 12 horas
+        User user = userRepository.save(TestDataBuilder.user().email("stale-outside@test.com").build());
+        storeExpired(user.getId(), RecommendationKind.MEAL, staleMeal(), 13);
+        when(chatModel.call(any(Prompt.class))).thenReturn(completion(MEAL_COMPLETION));
+        double staleServedBefore = staleServed();
+
+        // When
+        MealRecommendationResponse response = recommendationService.getCachedMealRecommendations(user.getId());
+
+        // Then
+        assertThat(response.recommendations())
+                .extracting(MealRecommendationResponse.RecommendedMeal::name)
+                .containsExactly("Grilled chicken bowl");
+        verify(chatModel, times(1)).call(any(Prompt.class));
+        assertThat(staleServed()).isEqualTo(staleServedBefore);
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.MEAL, MealRecommendationResponse.class))
+                .contains(response);
+    }
+
+    @Test
+    void shouldKeepServingStaleEntryWhenBackgroundRefreshFindsModelUnavailable() throws Exception {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("stale-unavailable@test.com").build());
+        MealRecommendationResponse stale = staleMeal();
+        storeExpired(user.getId(), RecommendationKind.MEAL, stale, 5);
+        when(chatModel.call(any(Prompt.class))).thenThrow(new IllegalStateException("provider down"));
+
+        // When
+        MealRecommendationResponse first = recommendationService.getCachedMealRecommendations(user.getId());
+        awaitIdle(recommendationRefreshExecutor);
+        MealRecommendationResponse second = recommendationService.getCachedMealRecommendations(user.getId());
+        awaitIdle(recommendationRefreshExecutor);
+
+        // Then: a falha da atualização não apaga nem substitui a entrada, e o acesso seguinte tenta de novo
+        assertThat(first).isEqualTo(stale);
+        assertThat(second).isEqualTo(stale);
+        verify(chatModel, times(2)).call(any(Prompt.class));
+        assertThat(recommendationCacheService.getServable(user.getId(), RecommendationKind.MEAL, MealRecommendationResponse.class))
+                .hasValueSatisfying(cached -> {
+                    assertThat(cached.response()).isEqualTo(stale);
+                    assertThat(cached.fresh()).isFalse();
+                });
+    }
+
+    @Test
+    void shouldSplitOneHomeCompletionIntoBothCaches() {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("home-split@test.com").build());
+        when(chatModel.call(any(Prompt.class))).thenReturn(completion(home(MEAL_COMPLETION, WORKOUT_COMPLETION)));
+
+        // When
+        HomeRecommendationResponse response = recommendationService.getCachedHomeRecommendations(user.getId());
+        HomeRecommendationResponse cached = recommendationService.getCachedHomeRecommendations(user.getId());
+
+        // Then: uma chamada ao modelo alimenta os dois caches, e o segundo acesso não chama de novo
+        verify(chatModel, times(1)).call(any(Prompt.class));
+        assertThat(response.meal().recommendations())
+                .extracting(MealRecommendationResponse.RecommendedMeal::name).containsExactly("Grilled chicken bowl");
+        assertThat(response.workout().recommendations())
+                .extracting(WorkoutRecommendationResponse.RecommendedWorkout::name).containsExactly("Morning run");
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.MEAL, MealRecommendationResponse.class))
+                .contains(response.meal());
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class))
+                .contains(response.workout());
+        assertThat(cached).isEqualTo(response);
+    }
+
+    @Test
+    void shouldRegenerateOnlyTheMalformedHalfOfAHomeCompletion() {
+        // Given: a seção de treino da resposta combinada não tem recomendações válidas
+        User user = userRepository.save(TestDataBuilder.user().email("home-malformed@test.com").build());
+        doAnswer(invocation -> {
+            String prompt = invocation.<Prompt>getArgument(0).getContents();
+            if (prompt.startsWith(HOME_PROMPT_PREFIX)) {
+                return completion(home(MEAL_COMPLETION, "{\"recommendations\": \"none today\"}"));
+            }
+            assertThat(prompt).startsWith(WORKOUT_PROMPT_PREFIX);
+            return completion(WORKOUT_COMPLETION);
+        }).when(chatModel).call(any(Prompt.class));
+
+        // When
+        HomeRecommendationResponse response = recommendationService.getCachedHomeRecommendations(user.getId());
+
+        // Then: a refeição vem da resposta combinada e só o treino é gerado de novo
+        verify(chatModel, times(2)).call(any(Prompt.class));
+        assertThat(response.meal().recommendations())
+                .extracting(MealRecommendationResponse.RecommendedMeal::name).containsExactly("Grilled chicken bowl");
+        assertThat(response.workout().recommendations())
+                .extracting(WorkoutRecommendationResponse.RecommendedWorkout::name).containsExactly("Morning run");
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.MEAL, MealRecommendationResponse.class))
+                .contains(response.meal());
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.WORKOUT, WorkoutRecommendationResponse.class))
+                .contains(response.workout());
+    }
+
+    @Test
+    void shouldFallBackToStoredEntryForTheMalformedHalfWhenModelIsUnavailable() throws Exception {
+        // Given: treino salvo fora da janela de revalidação e seção de treino ausente na resposta combinada
+        User user = userRepository.save(TestDataBuilder.user().email("home-fallback@test.com").build());
+        WorkoutRecommendationResponse stored = new WorkoutRecommendationResponse(List.of(new WorkoutRecommendationResponse.RecommendedWorkout(
+                "Old stretching", null, 20, 80, null, List.of(), null)), "Recovery", null, null);
+        storeExpired(user.getId(), RecommendationKind.WORKOUT, stored, 13);
+        doAnswer(invocation -> {
+            if (invocation.<Prompt>getArgument(0).getContents().startsWith(HOME_PROMPT_PREFIX)) {
+                return completion("{\"meal\": " + MEAL_COMPLETION + "}");
+            }
+            throw new IllegalStateException("provider down");
+        }).when(chatModel).call(any(Prompt.class));
+
+        // When
+        HomeRecommendationResponse response = recommendationService.getCachedHomeRecommendations(user.getId());
+
+        // Then
+        assertThat(response.meal().recommendations())
+                .extracting(MealRecommendationResponse.RecommendedMeal::name).containsExactly("Grilled chicken bowl");
+        assertThat(response.workout()).isEqualTo(stored);
+        assertThat(recommendationCacheService.getFresh(user.getId(), RecommendationKind.MEAL, MealRecommendationResponse.class))
+                .contains(response.meal());
+    }
+
+    private MealRecommendationResponse awaitFreshMeal(String userId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Optional<MealRecommendationResponse> fresh = Optional.empty();
+        while (fresh.isEmpty() && System.currentTimeMillis() < deadline) {
+            fresh = recommendationCacheService.getFresh(userId, RecommendationKind.MEAL, MealRecommendationResponse.class);
+            if (fresh.isEmpty()) {
+                Thread.sleep(10);
+            }
+        }
+        return fresh.orElseThrow(() -> new AssertionError("Background refresh did not store a fresh entry"));
+    }
+
+    private double staleServed() {
+        return meterRegistry.counter("mindfit.recommendation.cache.stale_served", "kind", "meal").count();
+    }
+
+    private static String home(String meal, String workout) {
+        return "{\"meal\": " + meal + ", \"workout\": " + workout + "}";
+    }
+
+    private static MealRecommendationResponse staleMeal() {
+        return new MealRecommendationResponse(List.of(new MealRecommendationResponse.RecommendedMeal(
+                "Yesterday oats", null, 300, null, null, null, null, List.of(), null)), "Balanced", null);
+    }
+
+    private static void awaitIdle(ThreadPoolTaskExecutor executor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.getThreadPoolExecutor().getCompletedTaskCount() < executor.getThreadPoolExecutor().getTaskCount()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("mindfit.recommendation.singleflight.coalesced", "kind", "meal").count();
+    }
+
+    private void awaitCoalesced(double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (coalesced() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(coalesced()).isEqualTo(expected);
+    }
+
+    /**
+     * Grava diretamente na tabela uma entrada vencida há {@code expiredHoursAgo} horas e gerada antes
+     * da idade máxima, que portanto não pode ser revalidada.
+     */
+    private void storeExpired(String userId, RecommendationKind kind, Object response, long expiredHoursAgo)
+            throws JsonProcessingException {
+        LocalDateTime now = LocalDateTime.now();
+        RecommendationCache row = new RecommendationCache();
+        row.setUserId(userId);
+        row.setKind(kind);
+        row.setPayload(objectMapper.writeValueAsString(response));
+        row.setExpiresAt(now.minusHours(expiredHoursAgo));
+        row.setGeneratedAt(now.minusHours(expiredHoursAgo + 2));
+        row.setContextVersion(contextVersionService.current(userId));
+        recommendationCacheRepository.save(row);
+    }
+
+    private static ChatResponse completion(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
@@ -0,0 +1,158 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.dto.RegisterImportReport;
+import com.mindfit.api.enums.ImportFormat;
+import com.mindfit.api.model.MealRegister;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.MealRegisterRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada bloco é gravado na própria transação, então o teste não abre uma: um bloco com falha não pode
+ * marcar para rollback os blocos já gravados.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"app.register-import.chunk-size=2", "app.register-import.max-rows=6"})
+class RegisterImportServiceTest extends AbstractIntegrationTest {
+
+    private static final String HEADER = "name,timestamp,calories,carbo,protein,fat";
+
+    @Autowired
+    private RegisterImportService registerImportService;
+
+    @Autowired
+    private ContextVersionService contextVersionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRegisterRepository mealRegisterRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(TestDataBuilder.user().email("importer@test.com").build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(testUser, null, "ROLE_USER"));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldImportCsvWithBomAndQuotedFieldsRejectingInvalidRows() throws IOException {
+        // Given
+        String csv = String.join("\n",
+                "\uFEFF" + HEADER,
+                "\"Rice, beans and \"\"feijoada\"\"\",2025-03-10T12:00:00,900,100,40,30",
+                "Oats,2025-03-10T08:00:00,350,,,,extra",
+                "Snack,2025-03-10T16:00:00,-5,,,",
+                "",
+                "Soup,2025-03-10T20:00:00,400,,,");
+
+        // When
+        RegisterImportReport report = importMeals(ImportFormat.CSV, csv);
+
+        // Then
+        assertThat(report.received()).isEqualTo(4);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.truncated()).isFalse();
+        assertThat(report.errors()).extracting(RegisterImportReport.RowError::line).containsExactly(3L, 4L);
+        assertThat(report.errors().get(0).message()).contains("expected 6 columns, found 7");
+        assertThat(report.errors().get(1).message()).contains("calories");
+        assertThat(mealRegisterRepository.findAll()).extracting(MealRegister::getName)
+                .containsExactlyInAnyOrder("Rice, beans and \"feijoada\"", "Soup");
+    }
+
+    @Test
+    void shouldStopAtMaxRowsAndReportTruncation() throws IOException {
+        // Given
+        String ndjson = IntStream.rangeClosed(1, 8)
+                .mapToObj(i -> "{\"name\":\"Meal " + i + "\",\"timestamp\":\"2025-03-10T08:00:00\",\"calories\":" + (100 + i) + "}")
+                .collect(Collectors.joining("\n"));
+
+        // When
+        RegisterImportReport report = importMeals(ImportFormat.NDJSON, ndjson);
+
+        // Then
+        assertThat(report.received()).isEqualTo(6);
+        assertThat(report.imported()).isEqualTo(6);
+        assertThat(report.truncated()).isTrue();
+        assertThat(mealRegisterRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldReportFailedChunkAsLineRangeAndKeepOtherChunks() throws IOException {
+        // Given
+        String tooLong = "x".repeat(150);
+        String csv = String.join("\n",
+                HEADER,
+                "Breakfast,2025-03-10T08:00:00,300,,,",
+                "Lunch,2025-03-10T12:00:00,700,,,",
+                tooLong + ",2025-03-10T15:00:00,200,,,",
+                "Dinner,2025-03-10T20:00:00,600,,,",
+                "Supper,2025-03-10T22:00:00,150,,,");
+        long versionBefore = contextVersionService.current(testUser.getId());
+
+        // When
+        RegisterImportReport report = importMeals(ImportFormat.CSV, csv);
+
+        // Then
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(4);
+            assertThat(error.message()).startsWith("Rows 4-5 were not saved");
+        });
+        assertThat(mealRegisterRepository.findAll()).extracting(MealRegister::getName)
+                .containsExactlyInAnyOrder("Breakfast", "Lunch", "Supper");
+        assertThat(contextVersionService.current(testUser.getId())).isGreaterThan(versionBefore);
+    }
+
+    @Test
+    void shouldRejectMalformedJsonLines() throws IOException {
+        // Given
+        String ndjson = String.join("\n",
+                "{\"name\":\"Toast\",\"timestamp\":\"2025-03-10T08:00:00\",\"calories\":250}",
+                "{\"name\":\"Broken\",");
+
+        // When
+        RegisterImportReport report = importMeals(ImportFormat.NDJSON, ndjson);
+
+        // Then
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(2);
+            assertThat(error.message()).startsWith("Invalid NDJSON row");
+        });
+    }
+
+    private RegisterImportReport importMeals(ImportFormat format, String body) throws IOException {
+        return registerImportService.importMeals(testUser.getId(), format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.BadRequestException;
+import com.mindfit.api.dto.ConsumptionTrendReportResponse;
+import com.mindfit.api.enums.ReportGranularity;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * O relatório lê pelo pool de relatórios, que não enxerga a transação do teste: os dados são commitados.
+ * O H2 só tem TRUNC(data); REPORT_TRUNC reproduz os formatos DD, IW e MM do Oracle.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.report.period-function=REPORT_TRUNC")
+public class ReportServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ContextVersionService contextVersionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createPeriodFunction() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS REPORT_TRUNC FOR '"
+                + ReportServiceTest.class.getName() + ".truncate'");
+    }
+
+    public static LocalDate truncate(LocalDate date, String format) {
+        return switch (format) {
+            case "IW" -> date.with(DayOfWeek.MONDAY);
+            case "MM" -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+
+    @Test
+    void shouldBucketDailyRollupByIsoWeek() {
+        // Given
+        String userId = userRepository.save(TestDataBuilder.user().email("weekly@test.com").build()).getId();
+        day(userId, "2025-03-01", 1000, 0);
+        day(userId, "2025-03-03", 2000, 300);
+        day(userId, "2025-03-05", 1800, 0);
+        day(userId, "2025-03-12", 2200, 500);
+        day(userId, "2025-03-20", 9999, 0);
+
+        // When
+        ConsumptionTrendReportResponse report = reportService.generateTrendReport(
+                userId, "2025-03-01", "2025-03-16", ReportGranularity.WEEKLY);
+
+        // Then
+        assertThat(report.buckets()).extracting(ConsumptionTrendReportResponse.Bucket::periodStart)
+                .containsExactly(LocalDate.of(2025, 2, 24), LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 10));
+        assertThat(report.buckets()).extracting(ConsumptionTrendReportResponse.Bucket::activeDays)
+                .containsExactly(1, 2, 1);
+        assertThat(report.buckets()).extracting(ConsumptionTrendReportResponse.Bucket::cumulativeNetCalories)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("1000"), new BigDecimal("4500"), new BigDecimal("6200"));
+        assertThat(report.buckets().get(0).netCaloriesChange()).isNull();
+        assertThat(report.buckets().get(2).netCaloriesChange()).isEqualByComparingTo("-1800");
+        assertThat(report.totalCaloriesConsumed()).isEqualByComparingTo("7000");
+        assertThat(report.totalCaloriesBurned()).isEqualByComparingTo("800");
+        assertThat(report.netCalories()).isEqualByComparingTo("6200");
+        assertThat(report.activeDays()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldServeCachedReportUntilContextVersionChanges() {
+        // Given
+        User user = userRepository.save(TestDataBuilder.user().email("cached-report@test.com").build());
+        day(user.getId(), "2025-03-03", 2000, 300);
+        ConsumptionTrendReportResponse first = reportService.generateTrendReport(
+                user.getId(), "2025-03-01", "2025-03-31", ReportGranularity.MONTHLY);
+        day(user.getId(), "2025-03-04", 1500, 0);
+
+        // When
+        ConsumptionTrendReportResponse cached = reportService.generateTrendReport(
+                user.getId(), "2025-03-01", "2025-03-31", ReportGranularity.MONTHLY);
+        contextVersionService.bump(user.getId());
+        ConsumptionTrendReportResponse refreshed = reportService.generateTrendReport(
+                user.getId(), "2025-03-01", "2025-03-31", ReportGranularity.MONTHLY);
+
+        // Then
+        assertThat(cached).isSameAs(first);
+        assertThat(refreshed.buckets()).hasSize(1);
+        assertThat(refreshed.totalCaloriesConsumed()).isEqualByComparingTo("3500");
+    }
+
+    @Test
+    void shouldRejectInvertedRange() {
+        // Given / When / Then
+        assertThatThrownBy(() -> reportService.generateTrendReport(
+                "any-user", "2025-03-31", "2025-03-01", ReportGranularity.DAILY))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    // Sem triggers no H2: o rollup é preenchido direto
+    private void day(String userId, String date, int caloriesIn, int caloriesOut) {
+        jdbcTemplate.update("""
+                INSERT INTO daily_user_nutrition (user_id, nutrition_date, meal_count, calories_in, carbo, protein,
+                                                  fat, exercise_count, calories_out, exercise_minutes)
+                VALUES (?, ?, 1, ?, 0, 0, 0, ?, ?, 0)
+                """, userId, Date.valueOf(date), caloriesIn, caloriesOut > 0 ? 1 : 0, caloriesOut);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulerLockServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Test
+    void shouldGrantLockToOneClaimUntilItExpires() {
+        // Given
+        boolean first = schedulerLockService.tryLock("job", Duration.ofMinutes(50));
+
+        // When
+        boolean second = schedulerLockService.tryLock("job", Duration.ofMinutes(50));
+        boolean otherJob = schedulerLockService.tryLock("other-job", Duration.ofMinutes(50));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(otherJob).isTrue();
+    }
+
+    @Test
+    void shouldGrantExpiredLockAgain() {
+        // Given
+        schedulerLockService.tryLock("job", Duration.ZERO);
+
+        // When
+        boolean reclaimed = schedulerLockService.tryLock("job", Duration.ofMinutes(50));
+
+        // Then
+        assertThat(reclaimed).isTrue();
+    }
+}
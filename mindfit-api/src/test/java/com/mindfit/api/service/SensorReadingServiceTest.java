@@ -0,0 +1,80 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.ResourceNotFoundException;
+import com.mindfit.api.dto.SensorReadingCreateRequest;
+import com.mindfit.api.model.Sensor;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.SensorRepository;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// O cache de segundo nível só é populado por transações commitadas
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SensorReadingServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private SensorReadingService sensorReadingService;
+
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void addSensorForeignKey() {
+        // O schema gerado no H2 não tem a FK da migração V1 (sensor_id não é uma associação JPA)
+        jdbcTemplate.execute("ALTER TABLE sensor_readings ADD CONSTRAINT IF NOT EXISTS fk_sensor_reading_sensor "
+                + "FOREIGN KEY (sensor_id) REFERENCES sensors(id)");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.execute("ALTER TABLE sensor_readings DROP CONSTRAINT IF EXISTS fk_sensor_reading_sensor");
+    }
+
+    @Test
+    void shouldReportSensorDeletedElsewhereAsNotFound() {
+        // Given
+        User owner = userRepository.save(TestDataBuilder.user().email("sensor-owner@test.com").build());
+        Sensor sensor = new Sensor();
+        sensor.setUserId(owner.getId());
+        sensor.setSensorType("HEART_RATE");
+        sensor.setLocation("wrist");
+        String sensorId = sensorRepository.save(sensor).getId();
+        sensorRepository.findById(sensorId).orElseThrow();
+        assertThat(entityManagerFactory.getCache().contains(Sensor.class, sensorId)).isTrue();
+        // Removido por outra instância, direto no banco: a cópia em cache desta instância continua lá
+        jdbcTemplate.update("DELETE FROM sensors WHERE id = ?", sensorId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(owner, null, "ROLE_USER"));
+
+        // When / Then
+        assertThatThrownBy(() -> sensorReadingService.create(sensorId,
+                new SensorReadingCreateRequest(72.0, "BPM", "bpm", null)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(entityManagerFactory.getCache().contains(Sensor.class, sensorId)).isFalse();
+        assertThat(sensorRepository.findById(sensorId)).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.mindfit.api.service;
+
+import com.mindfit.api.AbstractIntegrationTest;
+import com.mindfit.api.common.exception.ErrorResponse;
+import com.mindfit.api.common.exception.GlobalExceptionHandler;
+import com.mindfit.api.dto.UserUpdateRequest;
+import com.mindfit.api.model.User;
+import com.mindfit.api.repository.UserRepository;
+import com.mindfit.api.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.saveAndFlush(TestDataBuilder.user()
+                .email("versioned@test.com")
+                .name("Before")
+                .build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(testUser, null, "ROLE_USER"));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldUpdateWhenVersionMatches() {
+        // Given
+        long version = testUser.getVersion();
+
+        // When
+        userService.update(testUser.getId(), update("After", version));
+        entityManager.flush();
+
+        // Then
+        User updated = userRepository.findById(testUser.getId()).orElseThrow();
+        assertThat(updated.getName()).isEqualTo("After");
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void shouldRejectUpdateBasedOnStaleVersion() {
+        // Given
+        long staleVersion = testUser.getVersion();
+        userService.update(testUser.getId(), update("First edit", staleVersion));
+        entityManager.flush();
+
+        // When / Then
+        assertThatThrownBy(() -> userService.update(testUser.getId(), update("Second edit", staleVersion)))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldMapOptimisticLockFailureToConflict() {
+        // Given
+        ObjectOptimisticLockingFailureException conflict =
+                new ObjectOptimisticLockingFailureException(User.class, testUser.getId());
+
+        // When
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleOptimisticLockingFailureException(
+                conflict, new MockHttpServletRequest("PUT", "/users/" + testUser.getId()));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    private static UserUpdateRequest update(String name, Long version) {
+        return new UserUpdateRequest(null, null, name, null, null, version);
+    }
+}
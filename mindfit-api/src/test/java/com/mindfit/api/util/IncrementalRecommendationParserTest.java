@@ -0,0 +1,110 @@
+package com.mindfit.api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindfit.api.common.exception.JsonParsingException;
+import com.mindfit.api.dto.MealRecommendationResponse;
+import com.mindfit.api.dto.MealRecommendationResponse.RecommendedMeal;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalRecommendationParserTest {
+
+    private static final String COMPLETION = """
+            ```json
+            {
+              "recommendations": [
+                {"name": "Omelete", "estimatedCalories": 380, "ingredients": ["ovos", "tomate"]},
+                {"name": "Salada Caesar", "estimatedCalories": 430, "ingredients": ["alface"]}
+              ],
+              "reasoning": "Rico em proteína",
+              "optimalTime": "12:30"
+            }
+            ```""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldEmitEachRecommendationAsSoonAsItCloses() {
+        // Given
+        List<String> emitted = new ArrayList<>();
+        IncrementalRecommendationParser<RecommendedMeal> parser = new IncrementalRecommendationParser<>(
+                objectMapper, RecommendedMeal.class, meal -> emitted.add(meal.name()));
+        int firstItemEnd = COMPLETION.indexOf('}') + 1;
+
+        // When
+        parser.feed(COMPLETION.substring(0, firstItemEnd));
+
+        // Then
+        assertThat(emitted).containsExactly("Omelete");
+        assertThat(parser.isComplete()).isFalse();
+    }
+
+    @Test
+    void shouldParseCompletionFedOneCharacterAtATime() {
+        // Given
+        IncrementalRecommendationParser<RecommendedMeal> parser =
+                new IncrementalRecommendationParser<>(objectMapper, RecommendedMeal.class);
+
+        // When
+        COMPLETION.chars().forEach(c -> parser.feed(String.valueOf((char) c)));
+        MealRecommendationResponse response = parser.finish(MealRecommendationResponse.class);
+
+        // Then
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(response.recommendations()).extracting(RecommendedMeal::name)
+                .containsExactly("Omelete", "Salada Caesar");
+        assertThat(response.recommendations().get(0).ingredients()).containsExactly("ovos", "tomate");
+        assertThat(response.reasoning()).isEqualTo("Rico em proteína");
+        assertThat(response.optimalTime()).isEqualTo("12:30");
+    }
+
+    @Test
+    void shouldKeepCompleteItemsWhenCompletionIsTruncated() {
+        // Given
+        IncrementalRecommendationParser<RecommendedMeal> parser =
+                new IncrementalRecommendationParser<>(objectMapper, RecommendedMeal.class);
+        String truncated = COMPLETION.substring(0, COMPLETION.indexOf("Salada") + 4);
+
+        // When
+        parser.feed(truncated);
+        MealRecommendationResponse response = parser.finish(MealRecommendationResponse.class);
+
+        // Then
+        assertThat(response.recommendations()).extracting(RecommendedMeal::name).containsExactly("Omelete");
+        assertThat(response.reasoning()).isNull();
+    }
+
+    @Test
+    void shouldAcceptBareArrayOfRecommendations() {
+        // Given
+        IncrementalRecommendationParser<RecommendedMeal> parser =
+                new IncrementalRecommendationParser<>(objectMapper, RecommendedMeal.class);
+
+        // When
+        parser.feed("Aqui estão: [{\"name\": \"Arroz\"}, {\"name\": \"Feijão\"}] Bom apetite!");
+        MealRecommendationResponse response = parser.finish(MealRecommendationResponse.class);
+
+        // Then
+        assertThat(response.recommendations()).extracting(RecommendedMeal::name)
+                .containsExactly("Arroz", "Feijão");
+    }
+
+    @Test
+    void shouldFailWhenNoRecommendationCanBeRecovered() {
+        // Given
+        IncrementalRecommendationParser<RecommendedMeal> parser =
+                new IncrementalRecommendationParser<>(objectMapper, RecommendedMeal.class);
+
+        // When
+        parser.feed("{\"recommendations\": [{\"name\": \"Arr");
+
+        // Then
+        assertThatThrownBy(() -> parser.finish(MealRecommendationResponse.class))
+                .isInstanceOf(JsonParsingException.class);
+    }
+}
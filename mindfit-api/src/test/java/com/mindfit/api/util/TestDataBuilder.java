@@ -23,7 +23,6 @@ public class TestDataBuilder {
         private String password = "$2a$10$N9qo8uLOickgx2ZMRZoMye/IVI9cve2S.w"; // encoded "password"
         private String name = "Test User";
         private Set<Role> roles = new java.util.HashSet<>(Set.of(Role.USER));
-        private String profile = null;
         private Sex sex = Sex.NOT_INFORMED;
         private LocalDate birthDate = LocalDate.of(1990, 1, 1);
         private boolean enabled = true;
@@ -56,11 +55,6 @@ public class TestDataBuilder {
             return this;
         }
 
-        public UserBuilder profile(String profile) {
-            this.profile = profile;
-            return this;
-        }
-
         public UserBuilder sex(Sex sex) {
             this.sex = sex;
             return this;
@@ -86,7 +80,6 @@ public class TestDataBuilder {
             user.setPassword(password);
             user.setName(name);
             user.setRoles(roles);
-            user.setProfile(profile);
             user.setSex(sex);
             user.setBirthDate(birthDate);
             user.setEnabled(enabled);
@@ -221,6 +214,11 @@ public class TestDataBuilder {
             return this;
         }
 
+        public MeasurementsRegisterBuilder timestamp(LocalDateTime timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+
         public MeasurementsRegister build() {
             MeasurementsRegister measurements = new MeasurementsRegister();
             // Only set ID if explicitly provided
@@ -0,0 +1,121 @@
+package com.mindfit.api.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UuidV7GeneratorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidV7GeneratorTest.class);
+
+    @Test
+    void shouldGenerateVersion7Ids() {
+        // When
+        UUID id = UuidV7Generator.next();
+
+        // Then
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isCloseTo(System.currentTimeMillis(), within(1000L));
+    }
+
+    @Test
+    void shouldSortStringFormInGenerationOrder() {
+        // Given
+        List<String> generated = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            generated.add(UuidV7Generator.next().toString());
+        }
+
+        // Then
+        assertThat(generated).isSorted().doesNotHaveDuplicates();
+    }
+
+    /**
+     * Ingestion benchmark: random UUIDv4 vs UUIDv7 primary keys in VARCHAR2(36)-style columns.
+     * Disabled by default; run with
+     * {@code -Dbenchmark.ids=true [-Dbenchmark.rows=10000000] [-Dbenchmark.jdbc.url=... -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...]}.
+     * Against Oracle the PK index size comes from user_segments; against H2 the table's disk usage is reported.
+     * Results are logged with the row count and database product, so a reduced-scale or H2 run is
+     * visible as such next to its numbers. The 10M default is meant for Oracle: on the embedded H2
+     * file the random-id table alone did not finish in over 30 minutes, so local runs pass a smaller
+     * {@code benchmark.rows}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.ids", matches = "true")
+    void benchmarkInsertThroughputAndIndexSize() throws SQLException {
+        long rows = Long.getLong("benchmark.rows", 10_000_000L);
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:h2:file:./target/id-benchmark");
+        String user = System.getProperty("benchmark.jdbc.user", "sa");
+        String password = System.getProperty("benchmark.jdbc.password", "");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            run(connection, "bench_ids_random", rows, () -> UUID.randomUUID().toString());
+            run(connection, "bench_ids_v7", rows, () -> UuidV7Generator.next().toString());
+        }
+    }
+
+    private static void run(Connection connection, String table, long rows, Supplier<String> ids) throws SQLException {
+        boolean oracle = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("oracle");
+        try (Statement ddl = connection.createStatement()) {
+            try {
+                ddl.execute("DROP TABLE " + table);
+            } catch (SQLException ignored) {
+                // Primeira execução
+            }
+            ddl.execute("CREATE TABLE " + table + " (id VARCHAR(36) NOT NULL, user_id VARCHAR(36) NOT NULL, "
+                    + "reading_value NUMERIC(12, 2), CONSTRAINT pk_" + table + " PRIMARY KEY (id))");
+        }
+
+        String userId = UUID.randomUUID().toString();
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, user_id, reading_value) VALUES (?, ?, ?)")) {
+            for (long i = 1; i <= rows; i++) {
+                insert.setString(1, ids.get());
+                insert.setString(2, userId);
+                insert.setDouble(3, i % 1000);
+                insert.addBatch();
+                if (i % 1000 == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        String sizeQuery = oracle
+                ? "SELECT bytes FROM user_segments WHERE segment_name = UPPER('pk_" + table + "')"
+                : "SELECT DISK_SPACE_USED('" + table.toUpperCase() + "')";
+        long bytes = 0;
+        try (Statement stats = connection.createStatement(); ResultSet rs = stats.executeQuery(sizeQuery)) {
+            if (rs.next()) {
+                bytes = rs.getLong(1);
+            }
+        }
+
+        log.info(String.format("%s on %s: %,d rows in %.1f s (%,.0f rows/s), %s %,d MB",
+                table, connection.getMetaData().getDatabaseProductName(), rows, seconds, rows / seconds,
+                oracle ? "PK index" : "table storage", bytes / (1024 * 1024)));
+    }
+}
@@ -3,6 +3,11 @@
 
 DELETE FROM sensor_readings;
 DELETE FROM sensors;
+DELETE FROM recommendation_cache;
+DELETE FROM user_context_versions;
+DELETE FROM user_ai_state;
+DELETE FROM daily_user_nutrition;
+DELETE FROM scheduler_locks;
 DELETE FROM user_roles;
 DELETE FROM meal_registers;
 DELETE FROM exercise_registers;